@@ -0,0 +1,162 @@
+package propra.analysis;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Writes a reachability graph as a compact binary edge list.
+ *
+ * The file starts with the magic number "PDEG", the format version, the number of places and the transition IDs.
+ * Then follow vertex and arc records in the order they have been discovered: a vertex is the byte 0 and its tokens
+ * per place, its number is implied by the order; an arc is the byte 1, source vertex, transition and target vertex.
+ * All numbers after the version are {@link VarInt}s. {@link #replay(File, GraphSink)} reads a file back into
+ * another sink, e.g. to convert it to DOT or GraphML offline.
+ */
+public class BinaryGraphSink implements GraphSink {
+
+	/**
+	 * "PDEG", marks an edge list file
+	 */
+	private static final int MAGIC = 0x50444547;
+
+	/**
+	 * Version of the file format
+	 */
+	private static final int VERSION = 1;
+
+	private static final int VERTEX = 0, EDGE = 1;
+
+	/**
+	 * The file being written
+	 */
+	private final DataOutputStream Out;
+
+    /**
+     * Creates the file, replacing an existing one.
+     *
+     * @param file The file to write the graph to.
+     * @throws IOException If the file cannot be created.
+     */
+	public BinaryGraphSink(File file) throws IOException {
+		this.Out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16));
+	}
+
+    /**
+     * Writes the header of the file.
+     *
+     * @param places      The number of places of each marking.
+     * @param transitions The IDs of the transitions.
+     */
+	@Override
+	public void begin(int places, String[] transitions) {
+		try {
+			this.Out.writeInt(MAGIC);
+			this.Out.writeInt(VERSION);
+			VarInt.write(this.Out, places);
+			VarInt.write(this.Out, transitions.length);
+			for (String id : transitions) {
+				this.Out.writeUTF(id);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+    /**
+     * Writes a vertex record.
+     *
+     * @param state   The number of the vertex, implied by the order of the records.
+     * @param marking The marking of the vertex.
+     */
+	@Override
+	public void addVertex(int state, int[] marking) {
+		try {
+			this.Out.writeByte(VERTEX);
+			for (int tokens : marking) {
+				VarInt.write(this.Out, tokens);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+    /**
+     * Writes an arc record.
+     *
+     * @param from       The number of the source vertex.
+     * @param transition The position of the fired transition.
+     * @param to         The number of the target vertex.
+     */
+	@Override
+	public void addEdge(int from, int transition, int to) {
+		try {
+			this.Out.writeByte(EDGE);
+			VarInt.write(this.Out, from);
+			VarInt.write(this.Out, transition);
+			VarInt.write(this.Out, to);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+    /**
+     * Flushes and closes the file.
+     */
+	@Override
+	public void close() {
+		try {
+			this.Out.close();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+    /**
+     * Reads an edge list file and passes its vertices and arcs to a sink in the order they have been written.
+     * The sink is closed afterwards.
+     *
+     * @param file The edge list file.
+     * @param sink The sink receiving the graph.
+     * @throws IOException If the file cannot be read or is not an edge list.
+     */
+	public static void replay(File file, GraphSink sink) throws IOException {
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16)); GraphSink target = sink) {
+			if (in.readInt() != MAGIC) {
+				throw new IOException("Not an edge list file.");
+			}
+			int version = in.readInt();
+			if (version != VERSION) {
+				throw new IOException(String.format("Unsupported edge list version %d, expected %d.", version, VERSION));
+			}
+			int places = VarInt.readInt(in);
+			String[] transitions = new String[VarInt.readInt(in)];
+			for (int t = 0; t < transitions.length; t++) {
+				transitions[t] = in.readUTF();
+			}
+			target.begin(places, transitions);
+			int[] marking = new int[places];
+			int vertices = 0;
+			for (int tag = in.read(); tag >= 0; tag = in.read()) {
+				if (tag == VERTEX) {
+					for (int i = 0; i < places; i++) {
+						marking[i] = VarInt.readInt(in);
+					}
+					target.addVertex(vertices++, marking);
+				} else if (tag == EDGE) {
+					int from = VarInt.readInt(in);
+					int transition = VarInt.readInt(in);
+					target.addEdge(from, transition, VarInt.readInt(in));
+				} else {
+					throw new IOException(String.format("Unknown record %d in edge list file.", tag));
+				}
+			}
+		}
+	}
+}
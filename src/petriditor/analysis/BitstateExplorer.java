@@ -0,0 +1,255 @@
+package propra.analysis;
+
+import java.util.Arrays;
+import java.util.LinkedList;
+
+import propra.model.CompiledPetrinet;
+import propra.model.Marking;
+
+/**
+ * Approximate exploration of the state space in bounded memory (bitstate or supertrace hashing).
+ *
+ * Visited markings are not stored, instead k hash functions each set one bit of a large bit array.
+ * A marking counts as visited if all of its k bits are set, so two markings may collide and a part of the
+ * state space may be missed, but never is a marking reported that is not reachable. The exploration is
+ * depth-first, the stack holds the current path only, so m &lt; m' is searched among the markings on the stack.
+ * A witness found this way is real, a net without one is only "probably bounded".
+ *
+ * The coverage is estimated from the fill ratio of the bit array: when a new marking is inserted while a
+ * fraction f of the bits is set, it stands for about 1 / (1 - f^k) new markings, the rest having been
+ * mistaken for visited ones.
+ *
+ * The exploration can be budgeted by {@link ExplorationLimits}, a depth limit bounds the stack.
+ */
+public class BitstateExplorer {
+
+	/**
+	 * Default size of the bit array in bytes
+	 */
+	public static final long DEFAULT_MEMORY = 64L << 20;
+
+	/**
+	 * Default number of hash functions
+	 */
+	public static final int DEFAULT_HASHES = 3;
+
+	/**
+	 * The compiled net to explore
+	 */
+	private final CompiledPetrinet Net;
+
+	/**
+	 * The marking to start from
+	 */
+	private final Marking Initial;
+
+	/**
+	 * Size of the bit array in bits
+	 */
+	private final long Bits;
+
+	/**
+	 * Number of hash functions
+	 */
+	private final int Hashes;
+
+	/**
+	 * The bit array
+	 */
+	private long[] Table;
+
+	/**
+	 * Budget of the exploration
+	 */
+	private ExplorationLimits Limits = new ExplorationLimits();
+
+	/**
+	 * Receives progress reports, null for none
+	 */
+	private ProgressListener Listener;
+
+	/**
+	 * Number of bits set
+	 */
+	private long Set;
+
+    /**
+     * Constructs a bitstate explorer with the default memory budget and number of hashes.
+     *
+     * @param net     The compiled Petrinet.
+     * @param initial The initial marking.
+     */
+	public BitstateExplorer(CompiledPetrinet net, Marking initial) {
+		this(net, initial, DEFAULT_MEMORY, DEFAULT_HASHES);
+	}
+
+    /**
+     * Constructs a bitstate explorer.
+     *
+     * @param net    The compiled Petrinet.
+     * @param initial The initial marking.
+     * @param memory The size of the bit array in bytes.
+     * @param hashes The number of hash functions per marking, at least 1.
+     */
+	public BitstateExplorer(CompiledPetrinet net, Marking initial, long memory, int hashes) {
+		if (memory < 8 || memory / 8 > Integer.MAX_VALUE - 8) {
+			throw new IllegalArgumentException(String.format("Memory must be between 8 bytes and 16 GiB, got %d.", memory));
+		}
+		if (hashes < 1) {
+			throw new IllegalArgumentException(String.format("Number of hashes must be positive, got %d.", hashes));
+		}
+		this.Net = net;
+		this.Initial = initial;
+		this.Bits = memory / 8 * 64;
+		this.Hashes = hashes;
+	}
+
+    /**
+     * Sets the budget of the exploration.
+     *
+     * @param limits The limits, also used to cancel the exploration.
+     */
+	public void setLimits(ExplorationLimits limits) {
+		this.Limits = limits;
+	}
+
+    /**
+     * Sets the listener receiving progress reports while the exploration runs.
+     *
+     * @param listener The listener, or null for none.
+     */
+	public void setProgressListener(ProgressListener listener) {
+		this.Listener = listener;
+	}
+
+    /**
+     * Explores the state space depth-first until every marking not mistaken for a visited one
+     * has been expanded, an m &lt; m' has been found or a limit has been reached.
+     *
+     * @return The verdict, the dead markings and the estimated coverage.
+     */
+	public BitstateResult explore() {
+		ExplorationStatistics statistics = new ExplorationStatistics();
+		statistics.start();
+		ExplorationMonitor monitor = new ExplorationMonitor(this.Limits, this.Listener, statistics);
+		this.Table = new long[(int) (this.Bits / 64)];
+		this.Set = 0;
+		int places = this.Net.getPlaceCount();
+		int transitions = this.Net.getTransitionCount();
+		// the stack: marking, enabled transitions, next transition to fire and transition fired to get there per depth
+		int[] markings = new int[places * 64];
+		int[] enabled = new int[transitions * 64];
+		int[] count = new int[64];
+		int[] position = new int[64];
+		int[] via = new int[64];
+		int[] current = new int[places];
+		int[] next = new int[places];
+		int[] fireable = new int[transitions];
+		double missed = 0;
+		StateProperties properties = new StateProperties(this.Net);
+		int witness = -1;
+
+		int[] initial = this.Initial.toArray();
+		this.insert(initial);
+		statistics.addState();
+		System.arraycopy(initial, 0, markings, 0, places);
+		count[0] = this.Net.enabled(initial, fireable);
+		System.arraycopy(fireable, 0, enabled, 0, count[0]);
+		via[0] = -1;
+		properties.add(initial, fireable, count[0]);
+		int depth = 0;
+
+		while (depth >= 0 && witness < 0) {
+			if (position[depth] == count[depth]) {
+				depth--;
+				continue;
+			}
+			if (monitor.exhausted(statistics.getStates(), depth + 1)) {
+				break;
+			}
+			int t = enabled[depth * transitions + position[depth]];
+			position[depth]++;
+			System.arraycopy(markings, depth * places, current, 0, places);
+			this.Net.successor(t, current, next);
+			statistics.addEdge();
+			double f = this.insert(next);
+			if (f < 0) {
+				continue;
+			}
+			statistics.addState();
+			missed += Math.pow(f, this.Hashes) / (1 - Math.pow(f, this.Hashes));
+			for (int d = 0; d <= depth; d++) {
+				System.arraycopy(markings, d * places, current, 0, places);
+				if (Marking.strictlyCovers(next, current)) {
+					witness = d;
+					break;
+				}
+			}
+			if (witness < 0 && !monitor.expands(depth + 1)) {
+				continue;
+			}
+
+			depth++;
+			if (depth == count.length) {
+				int length = depth * 2;
+				markings = Arrays.copyOf(markings, length * places);
+				enabled = Arrays.copyOf(enabled, length * transitions);
+				count = Arrays.copyOf(count, length);
+				position = Arrays.copyOf(position, length);
+				via = Arrays.copyOf(via, length);
+			}
+			System.arraycopy(next, 0, markings, depth * places, places);
+			via[depth] = t;
+			position[depth] = 0;
+			count[depth] = this.Net.enabled(next, fireable);
+			System.arraycopy(fireable, 0, enabled, depth * transitions, count[depth]);
+			statistics.updateFrontier(depth + 1);
+			properties.add(next, fireable, count[depth]);
+		}
+
+		statistics.stop();
+		double coverage = statistics.getStates() / (statistics.getStates() + missed);
+		System.out.println(String.format("BitstateExplorer - explore: %s, %d of %d bits set, coverage %.4f", statistics, this.Set, this.Bits, coverage));
+		this.Table = null;
+		if (witness < 0) {
+			ExplorationLimits.Limit limit = monitor.getLimit();
+			return new BitstateResult(limit == null, statistics, null, null, new LinkedList<>(), coverage, limit, properties);
+		}
+		LinkedList<String> path = new LinkedList<>();
+		for (int d = 1; d <= depth; d++) {
+			path.add(this.Net.getTransitionID(via[d]));
+		}
+		Marking m = new Marking(Arrays.copyOfRange(markings, witness * places, (witness + 1) * places));
+		Marking mDash = new Marking(Arrays.copyOfRange(markings, depth * places, (depth + 1) * places));
+		return new BitstateResult(false, statistics, m, mDash, path, coverage, null, properties);
+	}
+
+	/**
+	 * Sets the bits of a marking.
+	 *
+	 * @return The fraction of bits set before the insert if the marking was new, -1 if all its bits were set already.
+	 */
+	private double insert(int[] marking) {
+		double fill = (double) this.Set / this.Bits;
+		long h1 = 0xCBF29CE484222325L;
+		long h2 = 0x9E3779B97F4A7C15L;
+		for (int tokens : marking) {
+			h1 = (h1 ^ tokens) * 0x100000001B3L;
+			h2 = Long.rotateLeft(h2 ^ tokens * 0xC2B2AE3D27D4EB4FL, 31) * 0x165667B19E3779F9L;
+		}
+		h1 ^= h1 >>> 33;
+		h2 |= 1;
+		boolean inserted = false;
+		for (int i = 0; i < this.Hashes; i++) {
+			long bit = Long.remainderUnsigned(h1 + i * h2, this.Bits);
+			int word = (int) (bit >>> 6);
+			long mask = 1L << bit;
+			if ((this.Table[word] & mask) == 0) {
+				this.Table[word] |= mask;
+				this.Set++;
+				inserted = true;
+			}
+		}
+		return inserted ? fill : -1;
+	}
+}
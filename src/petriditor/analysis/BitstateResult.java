@@ -0,0 +1,36 @@
+package propra.analysis;
+
+import java.util.List;
+
+import propra.model.Marking;
+
+/**
+ * The result of a bitstate exploration. Besides the verdict it holds an estimate of how much of the state space
+ * has been covered, the dead markings found are part of the {@link #Properties}.
+ * No reachability graph is built, so {@link #Graph} is always null.
+ */
+public class BitstateResult extends ExplorationResult {
+
+	/**
+	 * Estimated fraction of the reachable markings that have been visited, between 0 and 1
+	 */
+	public final double Coverage;
+
+    /**
+     * Constructs a bitstate exploration result.
+     *
+     * @param bounded    true if no m &lt; m' has been found.
+     * @param statistics The statistics of the exploration.
+     * @param m          The marking m of the unboundedness witness, or null.
+     * @param mDash      The marking m' of the unboundedness witness, or null.
+     * @param path       The transitions leading to m'.
+     * @param coverage   The estimated coverage.
+     * @param limit      The limit reached before the verdict was known, or null.
+     * @param properties The properties of the expanded markings, including the dead ones.
+     */
+	public BitstateResult(boolean bounded, ExplorationStatistics statistics, Marking m, Marking mDash, List<String> path, double coverage,
+			ExplorationLimits.Limit limit, StateProperties properties) {
+		super(null, bounded, statistics, m, mDash, path, limit, properties);
+		this.Coverage = coverage;
+	}
+}
@@ -0,0 +1,254 @@
+package propra.analysis;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import propra.model.CompiledPetrinet;
+import propra.model.IntList;
+
+/**
+ * A checkpoint of a breadth-first exploration by the {@link StateSpaceExplorer}, written to and read from a file.
+ *
+ * Since the explorer expands the states in the order of their indices, its whole state is captured by the
+ * visited markings, the exploration tree, the arcs found so far and the index of the next state to expand:
+ * the frontier is every state from that index on. The file holds
+ * <ol>
+ * <li>a header: magic number, version, number of places, the transition IDs, the fingerprint of the arcs
+ *     (see {@link CompiledPetrinet#fingerprint()}), whether partial-order reduction is enabled, number of states,
+ *     the next state to expand and the counts of the statistics,</li>
+ * <li>per state: its parent + 1, the transition from the parent + 1 and its tokens per place,</li>
+ * <li>the number of arcs and per arc: source state, transition and target state.</li>
+ * </ol>
+ * All numbers but the magic number, the version and the fingerprint are written as {@link VarInt}s,
+ * so the small token counts of typical markings take one byte each. The transition IDs and the fingerprint identify
+ * the Petrinet a checkpoint belongs to, arcs refer to transitions by their position in this list. A reduced exploration
+ * expands other successors than a full one, so the two cannot be resumed from each other's checkpoints.
+ *
+ * A checkpoint is opened to read the header, then the explorer reads the states and arcs in file order.
+ */
+public final class Checkpoint implements Closeable {
+
+	/**
+	 * "PDCP", marks a checkpoint file
+	 */
+	private static final int MAGIC = 0x50444350;
+
+	/**
+	 * Version of the file format
+	 */
+	private static final int VERSION = 2;
+
+	/**
+	 * Number of places per marking
+	 */
+	public final int Places;
+
+	/**
+	 * IDs of the transitions of the net, in the order of their dense index
+	 */
+	public final String[] Transitions;
+
+	/**
+	 * Fingerprint of the arcs of the net
+	 */
+	public final long Fingerprint;
+
+	/**
+	 * true if the exploration used partial-order reduction
+	 */
+	public final boolean Reduction;
+
+	/**
+	 * Number of states
+	 */
+	public final int States;
+
+	/**
+	 * Index of the next state to expand
+	 */
+	public final int Next;
+
+	/**
+	 * Counts of the statistics when the checkpoint was written
+	 */
+	final long StateCount, EdgeCount, MaxFrontier;
+
+	/**
+	 * The file being read
+	 */
+	private final DataInputStream In;
+
+	private Checkpoint(DataInputStream in) throws IOException {
+		this.In = in;
+		if (in.readInt() != MAGIC) {
+			throw new IOException("Not a checkpoint file.");
+		}
+		int version = in.readInt();
+		if (version != VERSION) {
+			throw new IOException(String.format("Unsupported checkpoint version %d, expected %d.", version, VERSION));
+		}
+		this.Places = VarInt.readInt(this.In);
+		this.Transitions = new String[VarInt.readInt(this.In)];
+		for (int t = 0; t < this.Transitions.length; t++) {
+			this.Transitions[t] = in.readUTF();
+		}
+		this.Fingerprint = in.readLong();
+		this.Reduction = in.readBoolean();
+		this.States = VarInt.readInt(this.In);
+		this.Next = VarInt.readInt(this.In);
+		this.StateCount = VarInt.read(this.In);
+		this.EdgeCount = VarInt.read(this.In);
+		this.MaxFrontier = VarInt.read(this.In);
+	}
+
+    /**
+     * Opens a checkpoint file and reads its header.
+     *
+     * @param file The checkpoint file.
+     * @return The opened checkpoint, to be closed by the caller.
+     * @throws IOException If the file cannot be read or is not a checkpoint.
+     */
+	public static Checkpoint open(File file) throws IOException {
+		DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16));
+		try {
+			return new Checkpoint(in);
+		} catch (IOException e) {
+			in.close();
+			throw e;
+		}
+	}
+
+    /**
+     * Checks if the checkpoint has been written for the given net and kind of exploration, i.e. the net has
+     * the same number of places, the same transitions in the same order and the same arcs.
+     *
+     * @param net       The compiled Petrinet.
+     * @param reduction true if the exploration uses partial-order reduction.
+     * @return true if the checkpoint belongs to the net and the exploration.
+     */
+	public boolean matches(CompiledPetrinet net, boolean reduction) {
+		if (net.getPlaceCount() != this.Places || net.getTransitionCount() != this.Transitions.length
+				|| net.fingerprint() != this.Fingerprint || reduction != this.Reduction) {
+			return false;
+		}
+		for (int t = 0; t < this.Transitions.length; t++) {
+			if (!this.Transitions[t].equals(net.getTransitionID(t))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Reads the next state: its parent and transition into the given array and its tokens into the buffer.
+	 */
+	void readState(int[] tree, int[] marking) throws IOException {
+		tree[0] = VarInt.readInt(this.In) - 1;
+		tree[1] = VarInt.readInt(this.In) - 1;
+		for (int i = 0; i < this.Places; i++) {
+			marking[i] = VarInt.readInt(this.In);
+		}
+	}
+
+	/**
+	 * Reads the number of arcs, once all states have been read.
+	 */
+	long readArcCount() throws IOException {
+		return VarInt.read(this.In);
+	}
+
+	/**
+	 * Reads the next arc as source state, transition and target state.
+	 */
+	void readArc(int[] arc) throws IOException {
+		arc[0] = VarInt.readInt(this.In);
+		arc[1] = VarInt.readInt(this.In);
+		arc[2] = VarInt.readInt(this.In);
+	}
+
+    /**
+     * Closes the checkpoint file.
+     */
+	@Override
+	public void close() throws IOException {
+		this.In.close();
+	}
+
+	/**
+	 * Writes a checkpoint of an exploration to a file. The checkpoint is written to a temporary file next to it first,
+	 * which then replaces the file, so a crash while writing leaves the previous checkpoint intact.
+	 *
+	 * @param file       The checkpoint file.
+	 * @param net        The explored net.
+	 * @param reduction  true if the exploration uses partial-order reduction.
+	 * @param visited    The visited markings.
+	 * @param next       The index of the next state to expand.
+	 * @param parent     The parent of each state, -1 for the initial one.
+	 * @param via        The transition from the parent of each state, -1 for the initial one.
+	 * @param arcs       Source state, transition and target state of each arc, or null if the arcs are kept in the store.
+	 * @param statistics The statistics of the exploration.
+	 */
+	static void write(File file, CompiledPetrinet net, boolean reduction, StateStore visited, int next, IntList parent, IntList via,
+			IntList arcs, ExplorationStatistics statistics) throws IOException {
+		File temporary = new File(file.getPath() + ".tmp");
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporary), 1 << 16))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			int places = visited.getPlaceCount();
+			VarInt.write(out, places);
+			VarInt.write(out, net.getTransitionCount());
+			for (int t = 0; t < net.getTransitionCount(); t++) {
+				out.writeUTF(net.getTransitionID(t));
+			}
+			out.writeLong(net.fingerprint());
+			out.writeBoolean(reduction);
+			int states = visited.size();
+			VarInt.write(out, states);
+			VarInt.write(out, next);
+			VarInt.write(out, statistics.getStates());
+			VarInt.write(out, statistics.getEdges());
+			VarInt.write(out, statistics.getMaxFrontier());
+
+			int[] marking = new int[places];
+			for (int s = 0; s < states; s++) {
+				VarInt.write(out, parent.get(s) + 1);
+				VarInt.write(out, via.get(s) + 1);
+				visited.get(s, marking);
+				for (int tokens : marking) {
+					VarInt.write(out, tokens);
+				}
+			}
+
+			if (arcs != null) {
+				VarInt.write(out, arcs.size() / 3);
+				for (int i = 0; i < arcs.size(); i++) {
+					VarInt.write(out, arcs.get(i));
+				}
+			} else {
+				int[] edge = new int[3];
+				VarInt.write(out, visited.getEdgeCount());
+				for (long e = 0; e < visited.getEdgeCount(); e++) {
+					visited.getEdge(e, edge);
+					VarInt.write(out, edge[0]);
+					VarInt.write(out, edge[1]);
+					VarInt.write(out, edge[2]);
+				}
+			}
+		}
+		try {
+			Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+}
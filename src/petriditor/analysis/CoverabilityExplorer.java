@@ -0,0 +1,190 @@
+package propra.analysis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import propra.model.CompiledPetrinet;
+import propra.model.Marking;
+import propra.model.ReachabilityGraph;
+import propra.model.Vertex;
+
+/**
+ * Builds the Karp–Miller coverability graph of a Petrinet.
+ *
+ * The markings are expanded breadth-first. Every new marking m' is only compared with its ancestors
+ * in the exploration tree: if it strictly covers an ancestor m, every place holding more tokens in m'
+ * than in m is accelerated to {@link Marking#OMEGA}. Markings already contained in the graph are not
+ * expanded again. The construction always terminates, bounded nets yield their reachability graph
+ * together with the {@link StateProperties} of their markings. Since it may still take long,
+ * it can be budgeted by {@link ExplorationLimits} and reports its progress to a {@link ProgressListener}.
+ */
+public class CoverabilityExplorer {
+
+	/**
+	 * The compiled net to explore
+	 */
+	private final CompiledPetrinet Net;
+
+	/**
+	 * The marking to start from
+	 */
+	private final Marking Initial;
+
+	/**
+	 * Budget of the construction
+	 */
+	private ExplorationLimits Limits = new ExplorationLimits();
+
+	/**
+	 * Receives progress reports, null for none
+	 */
+	private ProgressListener Listener;
+
+    /**
+     * Constructs a coverability explorer for the given net and initial marking.
+     *
+     * @param net     The compiled Petrinet.
+     * @param initial The initial marking.
+     */
+	public CoverabilityExplorer(CompiledPetrinet net, Marking initial) {
+		this.Net = net;
+		this.Initial = initial;
+	}
+
+    /**
+     * Sets the budget of the construction.
+     *
+     * @param limits The limits, also used to cancel the construction.
+     */
+	public void setLimits(ExplorationLimits limits) {
+		this.Limits = limits;
+	}
+
+    /**
+     * Sets the listener receiving progress reports while the construction runs.
+     *
+     * @param listener The listener, or null for none.
+     */
+	public void setProgressListener(ProgressListener listener) {
+		this.Listener = listener;
+	}
+
+    /**
+     * Builds the coverability graph until every (ω-)marking has been expanded or a limit has been reached.
+     *
+     * @return The coverability graph together with the unbounded places and a witness.
+     */
+	public CoverabilityGraph explore() {
+		ExplorationStatistics statistics = new ExplorationStatistics();
+		statistics.start();
+		ExplorationMonitor monitor = new ExplorationMonitor(this.Limits, this.Listener, statistics);
+		StateProperties properties = new StateProperties(this.Net);
+		int places = this.Net.getPlaceCount();
+		ReachabilityGraph graph = new ReachabilityGraph(new Vertex(this.Initial));
+
+		// tree of first discoveries: node -> marking, its tokens, parent node and transition leading to it
+		List<Marking> nodes = new ArrayList<>();
+		List<int[]> tokens = new ArrayList<>();
+		Map<Marking, Integer> index = new HashMap<>();
+		int[] parent = new int[16];
+		int[] via = new int[16];
+		nodes.add(this.Initial);
+		tokens.add(this.Initial.toArray());
+		index.put(this.Initial, 0);
+		parent[0] = -1;
+		via[0] = -1;
+		statistics.addState();
+
+		boolean[] unbounded = new boolean[places];
+		Marking m = null;
+		Marking mDash = null;
+		List<String> path = null;
+
+		int[] enabled = new int[this.Net.getTransitionCount()];
+		int[] src = new int[places];
+		// nodes are appended in discovery order, so the list itself is the breadth-first queue
+		for (int current = 0; current < nodes.size(); current++) {
+			statistics.updateFrontier(nodes.size() - current);
+			if (monitor.exhausted(nodes.size(), nodes.size() - current)) {
+				break;
+			}
+			Marking marking = nodes.get(current);
+			marking.copyTo(src);
+			Vertex from = new Vertex(marking);
+			int count = this.Net.enabled(src, enabled);
+			properties.add(src, enabled, count);
+			for (int i = 0; i < count; i++) {
+				int t = enabled[i];
+				int[] dst = new int[places];
+				this.Net.omegaSuccessor(t, src, dst);
+				statistics.addEdge();
+
+				// compare with the ancestors only and accelerate
+				for (int a = current; a != -1; a = parent[a]) {
+					int[] ancestor = tokens.get(a);
+					if (Marking.strictlyCovers(dst, ancestor)) {
+						if (m == null) {
+							m = nodes.get(a);
+							mDash = new Marking(dst.clone());
+							path = this.getPath(current, parent, via);
+							path.add(this.Net.getTransitionID(t));
+						}
+						for (int p = 0; p < places; p++) {
+							if (dst[p] > ancestor[p]) {
+								dst[p] = Marking.OMEGA;
+								unbounded[p] = true;
+							}
+						}
+					}
+				}
+
+				Marking next = new Marking(dst);
+				if (!index.containsKey(next)) {
+					int node = nodes.size();
+					if (node == parent.length) {
+						parent = Arrays.copyOf(parent, node * 2);
+						via = Arrays.copyOf(via, node * 2);
+					}
+					nodes.add(next);
+					tokens.add(dst);
+					index.put(next, node);
+					parent[node] = current;
+					via[node] = t;
+					statistics.addState();
+				}
+				graph.addArc(from, new Vertex(next, this.Net.getTransitionID(t)));
+			}
+		}
+
+		List<String> unboundedPlaces = new ArrayList<>();
+		for (int p = 0; p < places; p++) {
+			if (unbounded[p]) {
+				unboundedPlaces.add(this.Net.getPlaceID(p));
+			}
+		}
+		statistics.stop();
+		System.out.println(String.format("CoverabilityExplorer - explore: %s, unbounded places: %s",
+				statistics, unboundedPlaces));
+		ExplorationLimits.Limit limit = m == null ? monitor.getLimit() : null;
+		// with ω in a marking the properties do not describe reachable markings
+		properties = m == null ? properties : null;
+		return new CoverabilityGraph(graph, statistics, m, mDash, path != null ? path : new LinkedList<>(), limit, properties,
+				Collections.unmodifiableList(unboundedPlaces));
+	}
+
+	/**
+	 * Collects the transitions leading from the root of the tree to the given node.
+	 */
+	private List<String> getPath(int node, int[] parent, int[] via) {
+		LinkedList<String> path = new LinkedList<>();
+		for (int n = node; parent[n] != -1; n = parent[n]) {
+			path.addFirst(this.Net.getTransitionID(via[n]));
+		}
+		return path;
+	}
+}
@@ -0,0 +1,54 @@
+package propra.analysis;
+
+import java.util.List;
+
+import propra.model.Marking;
+import propra.model.ReachabilityGraph;
+
+/**
+ * The result of a Karp–Miller coverability construction.
+ *
+ * The graph holds one vertex per (ω-)marking. Places that reach ω in any vertex are unbounded,
+ * all other places are bounded. If the net is unbounded, the markings m &lt; m' and the firing
+ * sequence leading to m' of the first acceleration are kept as a witness.
+ * If a limit stops the construction after the first acceleration, the verdict is known,
+ * but further places may be unbounded.
+ */
+public class CoverabilityGraph extends ExplorationResult {
+
+	/**
+	 * Identifiers of the unbounded places found, empty if the net is bounded
+	 */
+	public final List<String> UnboundedPlaces;
+
+    /**
+     * Constructs the result of a coverability construction.
+     *
+     * @param graph           The coverability graph, its vertices may contain {@link Marking#OMEGA}.
+     * @param statistics      The statistics of the construction.
+     * @param m               The marking m of the witness or null.
+     * @param mDash           The marking m' of the witness or null.
+     * @param path            The transitions leading to m'.
+     * @param limit           The limit reached before the verdict was known, or null.
+     * @param properties      The properties of the markings of a bounded net, or null.
+     * @param unboundedPlaces The identifiers of the unbounded places.
+     */
+	public CoverabilityGraph(ReachabilityGraph graph, ExplorationStatistics statistics, Marking m, Marking mDash, List<String> path,
+			ExplorationLimits.Limit limit, StateProperties properties, List<String> unboundedPlaces) {
+		super(graph, unboundedPlaces.isEmpty() && limit == null, statistics, m, mDash, path, limit, properties);
+		this.UnboundedPlaces = unboundedPlaces;
+	}
+
+    /**
+     * Checks if a marking is coverable, i.e. some reachable marking holds at least as many tokens in each place.
+     * This is the case iff a vertex of the coverability graph covers it, which is looked up in the graph's
+     * {@link propra.model.CoveringIndex}.
+     *
+     * @param marking The marking to be covered.
+     * @return true if the marking is coverable.
+     * @throws IllegalArgumentException If the marking does not have one entry per place.
+     */
+	public boolean isCoverable(Marking marking) {
+		return this.Graph.getCoveringIndex().isCovered(marking);
+	}
+}
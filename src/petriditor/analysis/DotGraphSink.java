@@ -0,0 +1,61 @@
+package propra.analysis;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Writes a reachability graph in the DOT language of Graphviz. Vertices are named s0, s1, ... and labelled
+ * with their marking, arcs are labelled with their transition ID. The initial vertex s0 is drawn bold.
+ */
+public class DotGraphSink extends TextGraphSink {
+
+    /**
+     * Creates the file, replacing an existing one.
+     *
+     * @param file The file to write the graph to.
+     * @throws IOException If the file cannot be created.
+     */
+	public DotGraphSink(File file) throws IOException {
+		super(file);
+	}
+
+    /**
+     * Writes a vertex statement.
+     *
+     * @param state   The number of the vertex.
+     * @param marking The marking of the vertex.
+     */
+	@Override
+	public void addVertex(int state, int[] marking) {
+		this.write(String.format("  s%d [label=\"%s\"%s];\n", state, this.format(marking), state == 0 ? ", style=bold" : ""));
+	}
+
+    /**
+     * Writes an edge statement.
+     *
+     * @param from       The number of the source vertex.
+     * @param transition The position of the fired transition.
+     * @param to         The number of the target vertex.
+     */
+	@Override
+	public void addEdge(int from, int transition, int to) {
+		this.write(String.format("  s%d -> s%d [label=\"%s\"];\n", from, to, escape(this.Transitions[transition])));
+	}
+
+	@Override
+	protected String header() {
+		return "digraph reachability {\n  node [shape=box];\n";
+	}
+
+	@Override
+	protected String footer() {
+		return "}\n";
+	}
+
+	/**
+	 * Escapes quotes and backslashes in a quoted DOT string.
+	 */
+	private static String escape(String text) {
+		return text.replace("\\", "\\\\").replace("\"", "\\\"");
+	}
+}
@@ -0,0 +1,198 @@
+package propra.analysis;
+
+/**
+ * Budget of a state space exploration: limits on the number of states, the depth, the wall time and the
+ * used heap, and a flag for cooperative cancellation. All limits are unset by default.
+ *
+ * Explorers check the budget while they run and stop once it is exhausted, their result then names the
+ * {@link Limit} that has been reached. The depth limit is the exception: markings deeper than the limit are
+ * not expanded, but the rest of the state space is still explored. The cancellation flag may be set from
+ * any thread. A set of limits is meant for a single analysis: its clock starts with the first stage that
+ * checks it, and the stages after it share the remaining duration rather than starting over.
+ */
+public class ExplorationLimits {
+
+	/**
+	 * The limits an exploration can reach
+	 */
+	public enum Limit {
+		STATES, DEPTH, TIME, HEAP, CANCELLED;
+
+	    /**
+	     * Provides the name of the limit in lower case, e.g. "time".
+	     *
+	     * @return The name of the limit.
+	     */
+		@Override
+		public String toString() {
+			return this.name().toLowerCase();
+		}
+	}
+
+	/**
+	 * Largest number of states to discover
+	 */
+	private long MaxStates = Long.MAX_VALUE;
+
+	/**
+	 * Largest depth of a marking to expand, the initial marking has depth 0
+	 */
+	private int MaxDepth = Integer.MAX_VALUE;
+
+	/**
+	 * Largest duration of the exploration in milliseconds
+	 */
+	private long MaxMillis = Long.MAX_VALUE;
+
+	/**
+	 * Largest number of bytes in use on the heap
+	 */
+	private long MaxHeap = Long.MAX_VALUE;
+
+	/**
+	 * true once the exploration is to be cancelled
+	 */
+	private volatile boolean Cancelled;
+
+	/**
+	 * Start of the first stage in nanoseconds, valid once started
+	 */
+	private long Start;
+	private boolean Started;
+
+    /**
+     * Sets the largest number of states to discover.
+     *
+     * @param states The number of states, at least 1.
+     * @throws IllegalArgumentException If the number is not positive.
+     */
+	public void setMaxStates(long states) {
+		if (states < 1) {
+			throw new IllegalArgumentException(String.format("Number of states must be positive, got %d.", states));
+		}
+		this.MaxStates = states;
+	}
+
+    /**
+     * Sets the largest depth of a marking to expand.
+     *
+     * @param depth The depth, 0 to expand the initial marking only.
+     * @throws IllegalArgumentException If the depth is negative.
+     */
+	public void setMaxDepth(int depth) {
+		if (depth < 0) {
+			throw new IllegalArgumentException(String.format("Depth must not be negative, got %d.", depth));
+		}
+		this.MaxDepth = depth;
+	}
+
+    /**
+     * Sets the largest duration of the exploration.
+     *
+     * @param millis The duration in milliseconds, at least 1.
+     * @throws IllegalArgumentException If the duration is not positive.
+     */
+	public void setMaxMillis(long millis) {
+		if (millis < 1) {
+			throw new IllegalArgumentException(String.format("Duration must be positive, got %d.", millis));
+		}
+		this.MaxMillis = millis;
+	}
+
+    /**
+     * Sets the largest number of bytes in use on the heap, mostly counted after the last garbage collection.
+     *
+     * @param bytes The number of bytes, at least 1.
+     * @throws IllegalArgumentException If the number is not positive.
+     */
+	public void setMaxHeap(long bytes) {
+		if (bytes < 1) {
+			throw new IllegalArgumentException(String.format("Heap size must be positive, got %d.", bytes));
+		}
+		this.MaxHeap = bytes;
+	}
+
+    /**
+     * Asks the exploration to stop as soon as possible. May be called from any thread.
+     */
+	public void cancel() {
+		this.Cancelled = true;
+	}
+
+    /**
+     * Checks if the exploration has been cancelled.
+     *
+     * @return true if {@link #cancel()} has been called.
+     */
+	public boolean isCancelled() {
+		return this.Cancelled;
+	}
+
+    /**
+     * Starts the clock unless an earlier stage has started it already.
+     *
+     * @return The start of the first stage in nanoseconds, see {@link System#nanoTime()}.
+     */
+	public synchronized long start() {
+		if (!this.Started) {
+			this.Start = System.nanoTime();
+			this.Started = true;
+		}
+		return this.Start;
+	}
+
+    /**
+     * Checks the cancellation flag, the clock and the heap, for stages that do not discover states.
+     * Starts the clock if it is not running yet.
+     *
+     * @return The limit that has been reached, or null.
+     */
+	public Limit check() {
+		if (this.Cancelled) {
+			return Limit.CANCELLED;
+		}
+		if ((System.nanoTime() - this.start()) / 1000000 >= this.MaxMillis) {
+			return Limit.TIME;
+		}
+		if (this.MaxHeap < Long.MAX_VALUE && ExplorationMonitor.usedHeap() > this.MaxHeap) {
+			return Limit.HEAP;
+		}
+		return null;
+	}
+
+    /**
+     * Returns the largest number of states to discover.
+     *
+     * @return The number of states, Long.MAX_VALUE if unset.
+     */
+	public long getMaxStates() {
+		return this.MaxStates;
+	}
+
+    /**
+     * Returns the largest depth of a marking to expand.
+     *
+     * @return The depth, Integer.MAX_VALUE if unset.
+     */
+	public int getMaxDepth() {
+		return this.MaxDepth;
+	}
+
+    /**
+     * Returns the largest duration of the exploration.
+     *
+     * @return The duration in milliseconds, Long.MAX_VALUE if unset.
+     */
+	public long getMaxMillis() {
+		return this.MaxMillis;
+	}
+
+    /**
+     * Returns the largest number of bytes in use on the heap.
+     *
+     * @return The number of bytes, Long.MAX_VALUE if unset.
+     */
+	public long getMaxHeap() {
+		return this.MaxHeap;
+	}
+}
@@ -0,0 +1,195 @@
+package propra.analysis;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import propra.analysis.ExplorationLimits.Limit;
+
+/**
+ * Checks the {@link ExplorationLimits} of a running exploration and reports its progress.
+ *
+ * The number of states and the cancellation flag are checked on every call, the clock and the heap
+ * only every {@link #CHECK_INTERVAL} calls, which is also when the {@link ProgressListener} is called
+ * if its interval has passed. Parallel explorers share one monitor: the call counter is not synchronized,
+ * so the clock is checked about every {@link #CHECK_INTERVAL} calls, but only one thread at a time checks it.
+ * The heap in use is mostly taken after the last garbage collection, see {@link #usedHeap()}, so garbage that
+ * has not been collected yet does not count.
+ */
+final class ExplorationMonitor {
+
+	/**
+	 * Number of calls between two checks of the clock and the heap
+	 */
+	static final int CHECK_INTERVAL = 1024;
+
+	/**
+	 * Milliseconds between two calls of the progress listener
+	 */
+	static final long PROGRESS_INTERVAL = 1000;
+
+	/**
+	 * Heap pools reporting their usage after the last garbage collection
+	 */
+	private static final List<MemoryPoolMXBean> HEAP_POOLS = ManagementFactory.getMemoryPoolMXBeans().stream()
+			.filter(pool -> pool.getType() == MemoryType.HEAP && pool.isCollectionUsageThresholdSupported()).collect(Collectors.toList());
+
+	private final ExplorationLimits Limits;
+
+	private final ProgressListener Listener;
+
+	private final ExplorationStatistics Statistics;
+
+	/**
+	 * Start of the clock of the limits in nanoseconds, shared with the stages before
+	 */
+	private final long Start;
+
+	/**
+	 * Time of the next progress report in nanoseconds
+	 */
+	private long NextProgress;
+
+	/**
+	 * Calls since the last check of the clock
+	 */
+	private int Calls;
+
+	/**
+	 * The limit that stopped the exploration, null while it runs
+	 */
+	private volatile Limit Reached;
+
+	/**
+	 * true once a marking has not been expanded because of its depth
+	 */
+	private volatile boolean DepthCut;
+
+	/**
+	 * Constructs a monitor for an exploration starting now. The clock keeps running if an earlier stage has started it.
+	 *
+	 * @param limits     The limits of the exploration.
+	 * @param listener   The listener for progress reports, or null.
+	 * @param statistics The statistics of the exploration, passed to the listener.
+	 */
+	ExplorationMonitor(ExplorationLimits limits, ProgressListener listener, ExplorationStatistics statistics) {
+		this.Limits = limits;
+		this.Listener = listener;
+		this.Statistics = statistics;
+		this.Start = limits.start();
+		this.NextProgress = System.nanoTime() + PROGRESS_INTERVAL * 1000000;
+	}
+
+	/**
+	 * Checks if the exploration has to stop.
+	 *
+	 * @param states   The number of states discovered so far.
+	 * @param frontier The number of states waiting to be expanded.
+	 * @return true if a limit has been reached or the exploration has been cancelled.
+	 */
+	boolean exhausted(long states, long frontier) {
+		if (this.Reached != null) {
+			return true;
+		}
+		if (states >= this.Limits.getMaxStates()) {
+			return this.stop(Limit.STATES);
+		}
+		if (this.Limits.isCancelled()) {
+			return this.stop(Limit.CANCELLED);
+		}
+		if (++this.Calls < CHECK_INTERVAL) {
+			return false;
+		}
+		this.Calls = 0;
+		return this.poll(states, frontier);
+	}
+
+	/**
+	 * Checks the clock and the heap and reports the progress, one thread at a time.
+	 */
+	private synchronized boolean poll(long states, long frontier) {
+		long now = System.nanoTime();
+		if ((now - this.Start) / 1000000 >= this.Limits.getMaxMillis()) {
+			return this.stop(Limit.TIME);
+		}
+		if (this.Limits.getMaxHeap() < Long.MAX_VALUE) {
+			if (usedHeap() > this.Limits.getMaxHeap()) {
+				return this.stop(Limit.HEAP);
+			}
+		}
+		if (this.Listener != null && now - this.NextProgress >= 0) {
+			this.NextProgress = now + PROGRESS_INTERVAL * 1000000;
+			this.Statistics.updateProgress(states, frontier);
+			this.Listener.progress(this.Statistics);
+		}
+		return this.Reached != null;
+	}
+
+	/**
+	 * Checks if a marking at the given depth is to be expanded, and remembers if it is not.
+	 *
+	 * @param depth The depth of the marking in the exploration tree.
+	 * @return true if the depth is within the limit.
+	 */
+	boolean expands(int depth) {
+		if (depth > this.Limits.getMaxDepth()) {
+			this.DepthCut = true;
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the limit that stopped the exploration, {@link Limit#DEPTH} if markings have been left unexpanded
+	 * because of their depth only, or null if the exploration has not been limited.
+	 */
+	Limit getLimit() {
+		Limit reached = this.Reached;
+		if (reached != null) {
+			return reached;
+		}
+		return this.DepthCut ? Limit.DEPTH : null;
+	}
+
+	/**
+	 * Returns the limit that stops the whole exploration, or null if none has been reached so far.
+	 * Unlike {@link #getLimit()}, markings left unexpanded because of their depth are not taken into account.
+	 */
+	Limit getReached() {
+		return this.Reached;
+	}
+
+	/**
+	 * Returns the bytes in use on the heap, summed up over the pools. A pool counts its usage right after its last
+	 * garbage collection, i.e. its live objects as far as known. While that is 0, e.g. before the first collection
+	 * of the old generation, which G1 fills with large arrays directly, the pool counts its usage now instead,
+	 * including garbage. So the result is never below the live objects of pools that have not been collected yet,
+	 * but objects allocated in a collected pool since its last collection are missed until the next one, and the
+	 * limit may be exceeded by them. If the virtual machine does not report usage after collections, the bytes
+	 * in use now are returned, including garbage.
+	 */
+	static long usedHeap() {
+		if (HEAP_POOLS.isEmpty()) {
+			Runtime runtime = Runtime.getRuntime();
+			return runtime.totalMemory() - runtime.freeMemory();
+		}
+		long used = 0;
+		for (MemoryPoolMXBean pool : HEAP_POOLS) {
+			MemoryUsage usage = pool.getCollectionUsage();
+			long collected = usage != null ? usage.getUsed() : 0;
+			used += collected > 0 ? collected : pool.getUsage().getUsed();
+		}
+		return used;
+	}
+
+	private boolean stop(Limit limit) {
+		if (this.Reached == null) {
+			this.Reached = limit;
+			System.out.println("ExplorationMonitor - exhausted: Reached the " + limit + " limit.");
+		}
+		return true;
+	}
+}
@@ -0,0 +1,98 @@
+package propra.analysis;
+
+import java.util.Collections;
+import java.util.List;
+
+import propra.model.Marking;
+import propra.model.ReachabilityGraph;
+
+/**
+ * The result of a state space exploration: the reachability graph, the boundedness verdict,
+ * the properties of the expanded markings and the statistics of the run.
+ */
+public class ExplorationResult {
+
+	/**
+	 * The explored (partial, if unbounded) reachability graph, null if the states were kept in an external {@link StateStore}
+	 * or the graph is only built on request, see {@link #getGraph(long)}
+	 */
+	public final ReachabilityGraph Graph;
+
+	/**
+	 * true if the Petrinet is bounded. If not, m and m' are set, unless a limit has been reached first.
+	 */
+	public final boolean Bounded;
+
+	/**
+	 * Statistics of the exploration
+	 */
+	public final ExplorationStatistics Statistics;
+
+	/**
+	 * The marking m of the witness m &lt; m', null if the Petrinet is bounded
+	 */
+	public final Marking M;
+
+	/**
+	 * The marking m' of the witness m &lt; m', null if the Petrinet is bounded
+	 */
+	public final Marking MDash;
+
+	/**
+	 * Transition ids leading from the initial marking to m' in the exploration tree, empty if the Petrinet is bounded
+	 */
+	public final List<String> Path;
+
+	/**
+	 * The limit that stopped the exploration before the verdict was known, null if the exploration is complete
+	 */
+	public final ExplorationLimits.Limit LimitReached;
+
+	/**
+	 * Dead markings, token bounds and transitions that never fire, collected from the expanded markings
+	 */
+	public final StateProperties Properties;
+
+    /**
+     * Constructs the result of an exploration.
+     *
+     * @param graph      The explored reachability graph.
+     * @param bounded    true if the Petrinet is bounded, false otherwise or if the verdict is unknown.
+     * @param statistics The statistics of the exploration.
+     * @param m          The marking m of the unboundedness witness, or null.
+     * @param mDash      The marking m' of the unboundedness witness, or null.
+     * @param path       The transitions leading to m'.
+     * @param limit      The limit reached before the verdict was known, or null.
+     * @param properties The properties of the expanded markings, or null if none have been collected.
+     */
+	public ExplorationResult(ReachabilityGraph graph, boolean bounded, ExplorationStatistics statistics, Marking m, Marking mDash, List<String> path,
+			ExplorationLimits.Limit limit, StateProperties properties) {
+		this.Graph = graph;
+		this.Bounded = bounded;
+		this.Statistics = statistics;
+		this.M = m;
+		this.MDash = mDash;
+		this.Path = Collections.unmodifiableList(path);
+		this.LimitReached = limit;
+		this.Properties = properties;
+	}
+
+    /**
+     * Returns the explored reachability graph if it is small enough to be displayed.
+     *
+     * @param limit The largest number of markings to return a graph for.
+     * @return The graph, or null if it has more markings than the limit or none has been kept.
+     */
+	public ReachabilityGraph getGraph(long limit) {
+		return this.Graph != null && this.Graph.getVertexCount() <= limit ? this.Graph : null;
+	}
+
+    /**
+     * Checks if the exploration has reached a verdict, i.e. has not been stopped by a limit before.
+     *
+     * @return true if the boundedness verdict is known.
+     */
+	public boolean isComplete() {
+		return this.LimitReached == null;
+	}
+}
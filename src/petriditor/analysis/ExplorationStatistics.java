@@ -0,0 +1,162 @@
+package propra.analysis;
+
+/**
+ * Statistics collected while exploring the state space of a Petrinet.
+ */
+public class ExplorationStatistics {
+
+	/**
+	 * Number of distinct markings discovered
+	 */
+	private long States;
+
+	/**
+	 * Number of transitions fired, i.e. successors computed
+	 */
+	private long Edges;
+
+	/**
+	 * Largest number of markings waiting to be expanded at the same time
+	 */
+	private long MaxFrontier;
+
+	/**
+	 * Number of markings waiting to be expanded at the last update
+	 */
+	private long Frontier;
+
+	/**
+	 * Start and end of the exploration in nanoseconds
+	 */
+	private long Start, End;
+
+	/**
+	 * Marks the start of the exploration.
+	 */
+	void start() {
+		this.Start = System.nanoTime();
+	}
+
+	/**
+	 * Marks the end of the exploration.
+	 */
+	void stop() {
+		this.End = System.nanoTime();
+	}
+
+	/**
+	 * Counts a newly discovered marking.
+	 */
+	void addState() {
+		this.States++;
+	}
+
+	/**
+	 * Counts a fired transition.
+	 */
+	void addEdge() {
+		this.Edges++;
+	}
+
+	/**
+	 * Sets the counts at once, for explorers counting concurrently on their own.
+	 */
+	void setCounts(long states, long edges) {
+		this.States = states;
+		this.Edges = edges;
+	}
+
+	/**
+	 * Sets the counts of an exploration resumed from a {@link Checkpoint}.
+	 */
+	void restore(long states, long edges, long maxFrontier) {
+		this.States = states;
+		this.Edges = edges;
+		this.MaxFrontier = maxFrontier;
+	}
+
+	/**
+	 * Records the current size of the frontier.
+	 */
+	void updateFrontier(long frontier) {
+		this.Frontier = frontier;
+		if (frontier > this.MaxFrontier) {
+			this.MaxFrontier = frontier;
+		}
+	}
+
+	/**
+	 * Records the counts of a running exploration before its progress is reported,
+	 * for explorers that only count at the end.
+	 */
+	void updateProgress(long states, long frontier) {
+		this.States = Math.max(this.States, states);
+		this.updateFrontier(frontier);
+	}
+
+    /**
+     * Returns the number of distinct markings discovered.
+     *
+     * @return The number of states.
+     */
+	public long getStates() {
+		return this.States;
+	}
+
+    /**
+     * Returns the number of transitions fired during the exploration.
+     *
+     * @return The number of edges.
+     */
+	public long getEdges() {
+		return this.Edges;
+	}
+
+    /**
+     * Returns the largest number of markings waiting to be expanded at the same time.
+     *
+     * @return The maximum size of the frontier.
+     */
+	public long getMaxFrontier() {
+		return this.MaxFrontier;
+	}
+
+    /**
+     * Returns the number of markings waiting to be expanded at the last update.
+     *
+     * @return The current size of the frontier.
+     */
+	public long getFrontier() {
+		return this.Frontier;
+	}
+
+    /**
+     * Returns the number of markings discovered per second so far.
+     *
+     * @return The states per second.
+     */
+	public long getStatesPerSecond() {
+		return this.States * 1000 / Math.max(this.getMillis(), 1);
+	}
+
+    /**
+     * Returns the duration of the exploration.
+     *
+     * @return The duration in milliseconds.
+     */
+	public long getMillis() {
+		long end = this.End == 0 ? System.nanoTime() : this.End;
+		return (end - this.Start) / 1000000;
+	}
+
+    /**
+     * Provides a string representation of the statistics.
+     *
+     * @return A string with the counts and the duration of the exploration.
+     */
+	@Override
+	public String toString() {
+		return String.format("%d states, %d edges, max. frontier %d, %d ms",
+				this.States, this.Edges, this.MaxFrontier, this.getMillis());
+	}
+}
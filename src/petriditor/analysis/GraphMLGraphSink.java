@@ -0,0 +1,72 @@
+package propra.analysis;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Writes a reachability graph as GraphML. Vertices get the ids s0, s1, ... and their marking as "marking" data,
+ * arcs get the ids e0, e1, ... and their transition ID as "transition" data. GraphML allows nodes and edges
+ * in any order, so both are written as they are discovered.
+ */
+public class GraphMLGraphSink extends TextGraphSink {
+
+	/**
+	 * Number of arcs written so far, to number them
+	 */
+	private long Edges;
+
+    /**
+     * Creates the file, replacing an existing one.
+     *
+     * @param file The file to write the graph to.
+     * @throws IOException If the file cannot be created.
+     */
+	public GraphMLGraphSink(File file) throws IOException {
+		super(file);
+	}
+
+    /**
+     * Writes a node element.
+     *
+     * @param state   The number of the vertex.
+     * @param marking The marking of the vertex.
+     */
+	@Override
+	public void addVertex(int state, int[] marking) {
+		this.write(String.format("    <node id=\"s%d\"><data key=\"marking\">%s</data></node>\n", state, this.format(marking)));
+	}
+
+    /**
+     * Writes an edge element.
+     *
+     * @param from       The number of the source vertex.
+     * @param transition The position of the fired transition.
+     * @param to         The number of the target vertex.
+     */
+	@Override
+	public void addEdge(int from, int transition, int to) {
+		this.write(String.format("    <edge id=\"e%d\" source=\"s%d\" target=\"s%d\"><data key=\"transition\">%s</data></edge>\n",
+				this.Edges++, from, to, escape(this.Transitions[transition])));
+	}
+
+	@Override
+	protected String header() {
+		return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+				+ "<graphml xmlns=\"http://graphml.graphdrawing.org/xmlns\">\n"
+				+ "  <key id=\"marking\" for=\"node\" attr.name=\"marking\" attr.type=\"string\"/>\n"
+				+ "  <key id=\"transition\" for=\"edge\" attr.name=\"transition\" attr.type=\"string\"/>\n"
+				+ "  <graph id=\"reachability\" edgedefault=\"directed\">\n";
+	}
+
+	@Override
+	protected String footer() {
+		return "  </graph>\n</graphml>\n";
+	}
+
+	/**
+	 * Escapes the characters with a special meaning in XML text.
+	 */
+	private static String escape(String text) {
+		return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+	}
+}
@@ -0,0 +1,45 @@
+package propra.analysis;
+
+import java.io.Closeable;
+
+/**
+ * Receives the vertices and arcs of a reachability graph while an explorer discovers them,
+ * e.g. to write the graph to a file instead of keeping it in a {@link propra.model.ReachabilityGraph}.
+ *
+ * Vertices are numbered densely in the order they are passed, every arc refers to vertices passed before it.
+ * Sinks must not keep the vertices or arcs, so the heap they use does not grow with the graph.
+ * Errors while writing are thrown as {@link java.io.UncheckedIOException}.
+ */
+public interface GraphSink extends Closeable {
+
+    /**
+     * Called once before the first vertex.
+     *
+     * @param places      The number of places of each marking.
+     * @param transitions The IDs of the transitions, arcs refer to them by their position.
+     */
+	void begin(int places, String[] transitions);
+
+    /**
+     * Receives a newly discovered vertex.
+     *
+     * @param state   The number of the vertex, one more than the one before.
+     * @param marking The marking of the vertex, only valid during the call.
+     */
+	void addVertex(int state, int[] marking);
+
+    /**
+     * Receives an arc.
+     *
+     * @param from       The number of the source vertex.
+     * @param transition The position of the fired transition.
+     * @param to         The number of the target vertex.
+     */
+	void addEdge(int from, int transition, int to);
+
+    /**
+     * Completes the output and releases the file.
+     */
+	@Override
+	void close();
+}
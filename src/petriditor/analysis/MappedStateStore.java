@@ -0,0 +1,252 @@
+package propra.analysis;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A disk-backed state store for state spaces larger than the heap.
+ *
+ * Markings are packed into a file of fixed-size records, one int per place, at the position given by
+ * their state index. Arcs are appended to a second file as (source, transition, target) triples.
+ * Both files are mapped into memory segment by segment via {@link FileChannel#map}, so the operating
+ * system pages them in and out as needed. Only the hash index, two ints per slot, stays on the heap.
+ *
+ * The files are created as temporary files in the given directory and deleted on {@link #close()}.
+ * The store is not thread-safe.
+ */
+public class MappedStateStore implements StateStore {
+
+	/**
+	 * Size of a mapped segment in bytes
+	 */
+	private static final int SEGMENT_BYTES = 1 << 26;
+
+	/**
+	 * Number of places per marking
+	 */
+	private final int Places;
+
+	/**
+	 * Number of ints per marking record, at least one so empty markings still get a position
+	 */
+	private final int Record;
+
+	/**
+	 * Number of markings and arcs per segment
+	 */
+	private final int StatesPerSegment, EdgesPerSegment;
+
+	/**
+	 * The backing files
+	 */
+	private final Path StateFile, EdgeFile;
+
+	/**
+	 * Channels of the backing files
+	 */
+	private final FileChannel States, Edges;
+
+	/**
+	 * Mapped segments of the backing files
+	 */
+	private final List<IntBuffer> StateSegments = new ArrayList<>(), EdgeSegments = new ArrayList<>();
+
+	/**
+	 * Hash index: state index + 1 per slot, 0 if empty, and the hash of the marking in the slot
+	 */
+	private int[] Slots, Hashes;
+
+	/**
+	 * Number of stored markings
+	 */
+	private int Count;
+
+	/**
+	 * Number of stored arcs
+	 */
+	private long EdgeCount;
+
+    /**
+     * Constructs an empty store backed by temporary files.
+     *
+     * @param places    The number of places per marking.
+     * @param directory The directory for the backing files, or null for the default temporary directory.
+     * @throws IOException If the backing files cannot be created.
+     */
+	public MappedStateStore(int places, File directory) throws IOException {
+		this.Places = places;
+		this.Record = Math.max(1, places);
+		this.StatesPerSegment = Math.max(1, SEGMENT_BYTES / (4 * this.Record));
+		this.EdgesPerSegment = SEGMENT_BYTES / 12;
+		Path dir = directory != null ? directory.toPath() : Path.of(System.getProperty("java.io.tmpdir"));
+		this.StateFile = Files.createTempFile(dir, "petriditor-states", ".bin");
+		this.EdgeFile = Files.createTempFile(dir, "petriditor-edges", ".bin");
+		this.States = FileChannel.open(this.StateFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		this.Edges = FileChannel.open(this.EdgeFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		this.Slots = new int[1 << 12];
+		this.Hashes = new int[1 << 12];
+		System.out.println(String.format("MappedStateStore - Storing states in %s", this.StateFile));
+	}
+
+	@Override
+	public int getPlaceCount() {
+		return this.Places;
+	}
+
+	@Override
+	public int size() {
+		return this.Count;
+	}
+
+	@Override
+	public int insert(int[] marking) {
+		if (this.Count >= this.Slots.length / 4 * 3) {
+			this.rehash(this.Slots.length * 2);
+		}
+		int hash = Arrays.hashCode(marking);
+		int mask = this.Slots.length - 1;
+		int i = mix(hash) & mask;
+		while (this.Slots[i] != 0) {
+			if (this.Hashes[i] == hash && this.equals(this.Slots[i] - 1, marking)) {
+				return -this.Slots[i];
+			}
+			i = (i + 1) & mask;
+		}
+		int state = this.Count;
+		IntBuffer segment = this.segment(this.StateSegments, this.States, state / this.StatesPerSegment, this.StatesPerSegment * this.Record);
+		int offset = (state % this.StatesPerSegment) * this.Record;
+		for (int p = 0; p < this.Places; p++) {
+			segment.put(offset + p, marking[p]);
+		}
+		this.Slots[i] = state + 1;
+		this.Hashes[i] = hash;
+		this.Count++;
+		return state;
+	}
+
+	@Override
+	public void get(int state, int[] buffer) {
+		IntBuffer segment = this.StateSegments.get(state / this.StatesPerSegment);
+		int offset = (state % this.StatesPerSegment) * this.Record;
+		for (int p = 0; p < this.Places; p++) {
+			buffer[p] = segment.get(offset + p);
+		}
+	}
+
+	@Override
+	public void addEdge(int from, int transition, int to) {
+		IntBuffer segment = this.segment(this.EdgeSegments, this.Edges, (int) (this.EdgeCount / this.EdgesPerSegment), this.EdgesPerSegment * 3);
+		int offset = (int) (this.EdgeCount % this.EdgesPerSegment) * 3;
+		segment.put(offset, from);
+		segment.put(offset + 1, transition);
+		segment.put(offset + 2, to);
+		this.EdgeCount++;
+	}
+
+    /**
+     * Returns the number of stored arcs.
+     *
+     * @return The number of arcs.
+     */
+	@Override
+	public long getEdgeCount() {
+		return this.EdgeCount;
+	}
+
+    /**
+     * Copies a stored arc into the given buffer.
+     *
+     * @param index The index of the arc, in the order the arcs were added.
+     * @param edge  The buffer receiving source state, transition and target state.
+     */
+	@Override
+	public void getEdge(long index, int[] edge) {
+		IntBuffer segment = this.EdgeSegments.get((int) (index / this.EdgesPerSegment));
+		int offset = (int) (index % this.EdgesPerSegment) * 3;
+		edge[0] = segment.get(offset);
+		edge[1] = segment.get(offset + 1);
+		edge[2] = segment.get(offset + 2);
+	}
+
+    /**
+     * Closes and deletes the backing files.
+     */
+	@Override
+	public void close() {
+		this.StateSegments.clear();
+		this.EdgeSegments.clear();
+		try {
+			this.States.close();
+			this.Edges.close();
+			Files.deleteIfExists(this.StateFile);
+			Files.deleteIfExists(this.EdgeFile);
+		} catch (IOException e) {
+			// mapped files cannot be deleted on every platform while the mapping is alive
+			this.StateFile.toFile().deleteOnExit();
+			this.EdgeFile.toFile().deleteOnExit();
+		}
+	}
+
+	/**
+	 * Returns a mapped segment, mapping it and all segments before it if necessary.
+	 */
+	private IntBuffer segment(List<IntBuffer> segments, FileChannel channel, int index, int ints) {
+		while (segments.size() <= index) {
+			try {
+				long bytes = 4L * ints;
+				MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, segments.size() * bytes, bytes);
+				segments.add(mapped.order(ByteOrder.nativeOrder()).asIntBuffer());
+			} catch (IOException e) {
+				throw new UncheckedIOException("MappedStateStore - Could not map segment", e);
+			}
+		}
+		return segments.get(index);
+	}
+
+	private boolean equals(int state, int[] marking) {
+		IntBuffer segment = this.StateSegments.get(state / this.StatesPerSegment);
+		int offset = (state % this.StatesPerSegment) * this.Record;
+		for (int p = 0; p < this.Places; p++) {
+			if (segment.get(offset + p) != marking[p]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void rehash(int length) {
+		int[] slots = new int[length];
+		int[] hashes = new int[length];
+		int mask = length - 1;
+		for (int j = 0; j < this.Slots.length; j++) {
+			if (this.Slots[j] != 0) {
+				int i = mix(this.Hashes[j]) & mask;
+				while (slots[i] != 0) {
+					i = (i + 1) & mask;
+				}
+				slots[i] = this.Slots[j];
+				hashes[i] = this.Hashes[j];
+			}
+		}
+		this.Slots = slots;
+		this.Hashes = hashes;
+	}
+
+	private static int mix(int h) {
+		h ^= h >>> 16;
+		h *= 0x85EBCA6B;
+		h ^= h >>> 13;
+		return h;
+	}
+}
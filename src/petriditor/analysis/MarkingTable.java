@@ -0,0 +1,257 @@
+package propra.analysis;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A lock-free open-addressing hash table for markings.
+ *
+ * The markings are stored inline in int slabs of fixed size, one int per place, at the position
+ * given by their dense state index. The table itself is a single long array with linear probing:
+ * the upper half of a slot holds the hash of the marking, the lower half its state index plus one.
+ * An insert claims an empty slot by compare-and-set with the hash only, writes the marking to the slab
+ * and then publishes the state index. Threads probing a claimed slot with a different hash move on at once,
+ * only a concurrent insert of a marking with the very same hash waits for the index to be published.
+ * An insert that finds the table full publishes {@link #FULL} instead of an index, so the waiting threads
+ * move on, and the slot is dropped by the next {@link #resize(int)}.
+ * Lookups never allocate.
+ *
+ * Concurrent inserts are safe for a fixed capacity. {@link #resize(int)} must not run concurrently with
+ * any other operation, the sequential explorer uses it to grow the table on demand.
+ */
+public class MarkingTable implements StateStore {
+
+	/**
+	 * Number of ints per slab, slabs are allocated on demand
+	 */
+	private static final int SLAB_INTS = 1 << 20;
+
+	/**
+	 * Maximum load of the table before inserts fail or the table has to be resized
+	 */
+	private static final double LOAD_FACTOR = 0.75;
+
+	/**
+	 * Lower half of a claimed slot whose insert failed because the table was full
+	 */
+	private static final int FULL = -1;
+
+	/**
+	 * Number of places per marking
+	 */
+	private final int Places;
+
+	/**
+	 * log2 of the number of markings per slab
+	 */
+	private final int SlabShift;
+
+	/**
+	 * Slots of the hash table: hash in the upper, state index + 1 in the lower 32 bits, 0 if empty
+	 */
+	private AtomicLongArray Slots;
+
+	/**
+	 * Slabs holding the markings by state index
+	 */
+	private AtomicReferenceArray<int[]> Slabs;
+
+	/**
+	 * Number of markings stored, also the next state index
+	 */
+	private final AtomicInteger Count;
+
+	/**
+	 * Maximum number of markings for the current capacity
+	 */
+	private int Threshold;
+
+    /**
+     * Constructs an empty table.
+     *
+     * @param places   The number of places per marking.
+     * @param capacity The number of markings the table has to hold without resizing.
+     */
+	public MarkingTable(int places, int capacity) {
+		this.Places = places;
+		int perSlab = Integer.highestOneBit(Math.max(1, SLAB_INTS / Math.max(1, places)));
+		this.SlabShift = Integer.numberOfTrailingZeros(perSlab);
+		this.Count = new AtomicInteger();
+		this.allocate(capacity);
+	}
+
+	private void allocate(int capacity) {
+		int slots = Integer.highestOneBit((int) Math.min(1 << 30, Math.max(16, (long) (capacity / LOAD_FACTOR) * 2 - 1)));
+		this.Slots = new AtomicLongArray(slots);
+		this.Threshold = (int) (slots * LOAD_FACTOR);
+		int slabs = (this.Threshold >>> this.SlabShift) + 1;
+		AtomicReferenceArray<int[]> old = this.Slabs;
+		this.Slabs = new AtomicReferenceArray<>(slabs);
+		if (old != null) {
+			for (int i = 0; i < old.length(); i++) {
+				this.Slabs.set(i, old.get(i));
+			}
+		}
+	}
+
+	@Override
+	public int getPlaceCount() {
+		return this.Places;
+	}
+
+	@Override
+	public int size() {
+		return this.Count.get();
+	}
+
+    /**
+     * Returns the number of markings the table can hold without resizing.
+     *
+     * @return The capacity of the table.
+     */
+	public int capacity() {
+		return this.Threshold;
+	}
+
+    /**
+     * Inserts a marking unless it is already stored. Safe to be called concurrently.
+     *
+     * @param marking The marking indexed by dense place id, it is copied into the table.
+     * @return The new state index if the marking has been inserted, or -(index + 1) for the index
+     *         of the equal marking that was already stored.
+     * @throws IllegalStateException If the table is full.
+     */
+	@Override
+	public int insert(int[] marking) {
+		int hash = hash(marking);
+		AtomicLongArray slots = this.Slots;
+		int mask = slots.length() - 1;
+		long claimed = (long) hash << 32;
+		for (int i = mix(hash) & mask, probes = 0; probes <= mask; i = (i + 1) & mask, probes++) {
+			long slot = slots.get(i);
+			if (slot == 0) {
+				if (!slots.compareAndSet(i, 0, claimed)) {
+					slot = slots.get(i);
+				} else {
+					int state = this.Count.getAndIncrement();
+					if (state >= this.Threshold) {
+						this.Count.decrementAndGet();
+						slots.set(i, claimed | (FULL & 0xFFFFFFFFL));
+						throw new IllegalStateException(String.format("MarkingTable is full with %d markings, use a larger capacity.", this.Threshold));
+					}
+					this.write(state, marking);
+					slots.set(i, claimed | (state + 1));
+					return state;
+				}
+			}
+			if ((int) (slot >>> 32) != hash) {
+				continue;
+			}
+			// same hash: wait until the marking in this slot has been published, then compare
+			while ((int) slot == 0) {
+				Thread.onSpinWait();
+				slot = slots.get(i);
+			}
+			if ((int) slot == FULL) {
+				continue;
+			}
+			int state = (int) slot - 1;
+			if (this.equals(state, marking)) {
+				return -(state + 1);
+			}
+		}
+		throw new IllegalStateException(String.format("MarkingTable is full with %d markings, use a larger capacity.", this.Threshold));
+	}
+
+	@Override
+	public void get(int state, int[] buffer) {
+		int[] slab = this.Slabs.get(state >>> this.SlabShift);
+		System.arraycopy(slab, this.offset(state), buffer, 0, this.Places);
+	}
+
+    /**
+     * Doubles the capacity of the table if it cannot hold the given number of markings.
+     * Must not be called while other threads access the table.
+     *
+     * @param states The number of markings the table has to hold.
+     */
+	@Override
+	public void ensureCapacity(int states) {
+		if (states > this.Threshold) {
+			this.resize(Math.max(states, this.Threshold * 2));
+		}
+	}
+
+    /**
+     * Grows the table to hold at least the given number of markings.
+     * Must not be called while other threads access the table.
+     *
+     * @param capacity The number of markings the table has to hold.
+     */
+	public void resize(int capacity) {
+		if (capacity <= this.Threshold) {
+			return;
+		}
+		AtomicLongArray old = this.Slots;
+		this.allocate(capacity);
+		int mask = this.Slots.length() - 1;
+		for (int j = 0; j < old.length(); j++) {
+			long slot = old.get(j);
+			if (slot != 0 && (int) slot != FULL) {
+				int i = mix((int) (slot >>> 32)) & mask;
+				while (this.Slots.get(i) != 0) {
+					i = (i + 1) & mask;
+				}
+				this.Slots.set(i, slot);
+			}
+		}
+		System.out.println(String.format("MarkingTable - resize: Resized to %d slots.", this.Slots.length()));
+	}
+
+	private int offset(int state) {
+		return (state & ((1 << this.SlabShift) - 1)) * this.Places;
+	}
+
+	private void write(int state, int[] marking) {
+		int index = state >>> this.SlabShift;
+		int[] slab = this.Slabs.get(index);
+		if (slab == null) {
+			slab = new int[(1 << this.SlabShift) * this.Places];
+			if (!this.Slabs.compareAndSet(index, null, slab)) {
+				slab = this.Slabs.get(index);
+			}
+		}
+		System.arraycopy(marking, 0, slab, this.offset(state), this.Places);
+	}
+
+	private boolean equals(int state, int[] marking) {
+		int[] slab = this.Slabs.get(state >>> this.SlabShift);
+		int offset = this.offset(state);
+		for (int p = 0; p < this.Places; p++) {
+			if (slab[offset + p] != marking[p]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Hash of a marking, never 0 so a claimed slot can be told apart from an empty one.
+	 */
+	private static int hash(int[] marking) {
+		int h = 0x9E3779B9;
+		for (int tokens : marking) {
+			h = (h ^ tokens) * 0x01000193;
+			h ^= h >>> 15;
+		}
+		return h == 0 ? 1 : h;
+	}
+
+	private static int mix(int h) {
+		h ^= h >>> 16;
+		h *= 0x85EBCA6B;
+		h ^= h >>> 13;
+		return h;
+	}
+}
@@ -0,0 +1,223 @@
+package propra.analysis;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A forest of quasi-reduced multi-valued decision diagrams over the places of a Petrinet.
+ *
+ * Level k (1 .. levels) stands for the tokens of place k - 1, level 0 holds the terminal nodes
+ * {@link #EMPTY} and {@link #ONE}. Every path from a node at the top level to {@link #ONE} is a marking.
+ * A node is an array of children indexed by the number of tokens; the arrays grow with the largest token
+ * count seen, so no bound has to be known in advance. Nodes are unique per level and never freed.
+ */
+final class Mdd {
+
+	/**
+	 * The empty set
+	 */
+	static final int EMPTY = 0;
+
+	/**
+	 * The terminal node of all non-empty sets
+	 */
+	static final int ONE = 1;
+
+	/**
+	 * Level of each node
+	 */
+	private int[] Level = new int[1024];
+
+	/**
+	 * Children of each node, trimmed to the last non-empty child
+	 */
+	private int[][] Children = new int[1024][];
+
+	/**
+	 * Number of nodes
+	 */
+	private int Size;
+
+	/**
+	 * Unique table per level
+	 */
+	private final List<Map<Key, Integer>> Unique = new ArrayList<>();
+
+	/**
+	 * Cache of unions, keyed by both operands
+	 */
+	private final Map<Long, Integer> UnionCache = new HashMap<>();
+
+	/**
+	 * Constructs a forest with the given number of levels.
+	 */
+	Mdd(int levels) {
+		for (int k = 0; k <= levels; k++) {
+			this.Unique.add(new HashMap<>());
+		}
+		this.Size = 2;
+		this.Children[EMPTY] = new int[0];
+		this.Children[ONE] = new int[0];
+	}
+
+	/**
+	 * Returns the number of nodes in the forest, including the terminals.
+	 */
+	int size() {
+		return this.Size;
+	}
+
+	/**
+	 * Returns the child of a node for the given number of tokens.
+	 */
+	int child(int node, int tokens) {
+		int[] children = this.Children[node];
+		return tokens < children.length ? children[tokens] : EMPTY;
+	}
+
+	/**
+	 * Returns the number of children of a node, one more than the largest token count with a non-empty child.
+	 */
+	int width(int node) {
+		return this.Children[node].length;
+	}
+
+	/**
+	 * Copies the children of a node into a new array of at least the given length.
+	 */
+	int[] children(int node, int length) {
+		return Arrays.copyOf(this.Children[node], Math.max(length, this.Children[node].length));
+	}
+
+	/**
+	 * Returns the unique node at level k with the given children. The array must not be modified afterwards.
+	 */
+	int checkIn(int k, int[] children) {
+		int length = children.length;
+		while (length > 0 && children[length - 1] == EMPTY) {
+			length--;
+		}
+		if (length == 0) {
+			return EMPTY;
+		}
+		Key key = new Key(length == children.length ? children : Arrays.copyOf(children, length));
+		Integer node = this.Unique.get(k).get(key);
+		if (node != null) {
+			return node;
+		}
+		if (this.Size == this.Level.length) {
+			this.Level = Arrays.copyOf(this.Level, this.Size * 2);
+			this.Children = Arrays.copyOf(this.Children, this.Size * 2);
+		}
+		int id = this.Size++;
+		this.Level[id] = k;
+		this.Children[id] = key.Children;
+		this.Unique.get(k).put(key, id);
+		return id;
+	}
+
+	/**
+	 * Builds the node at level k encoding the single marking given by the tokens of places 0 .. k - 1.
+	 */
+	int singleton(int k, int[] marking) {
+		int node = ONE;
+		for (int level = 1; level <= k; level++) {
+			int[] children = new int[marking[level - 1] + 1];
+			children[marking[level - 1]] = node;
+			node = this.checkIn(level, children);
+		}
+		return node;
+	}
+
+	/**
+	 * Returns the union of two nodes at level k.
+	 */
+	int union(int k, int p, int q) {
+		if (p == EMPTY || p == q) {
+			return q;
+		}
+		if (q == EMPTY) {
+			return p;
+		}
+		if (k == 0) {
+			return ONE;
+		}
+		long key = p < q ? (long) p << 32 | q : (long) q << 32 | p;
+		Integer cached = this.UnionCache.get(key);
+		if (cached != null) {
+			return cached;
+		}
+		int[] a = this.Children[p];
+		int[] b = this.Children[q];
+		int[] children = new int[Math.max(a.length, b.length)];
+		for (int i = 0; i < children.length; i++) {
+			children[i] = this.union(k - 1, i < a.length ? a[i] : EMPTY, i < b.length ? b[i] : EMPTY);
+		}
+		int result = this.checkIn(k, children);
+		this.UnionCache.put(key, result);
+		return result;
+	}
+
+	/**
+	 * Counts the markings encoded by a node.
+	 */
+	BigInteger count(int node) {
+		return this.count(node, new HashMap<>());
+	}
+
+	private BigInteger count(int node, Map<Integer, BigInteger> memo) {
+		if (node == EMPTY) {
+			return BigInteger.ZERO;
+		}
+		if (node == ONE) {
+			return BigInteger.ONE;
+		}
+		BigInteger cached = memo.get(node);
+		if (cached != null) {
+			return cached;
+		}
+		BigInteger sum = BigInteger.ZERO;
+		for (int child : this.Children[node]) {
+			sum = sum.add(this.count(child, memo));
+		}
+		memo.put(node, sum);
+		return sum;
+	}
+
+	/**
+	 * Checks if a node at level k encodes the marking.
+	 */
+	boolean contains(int k, int node, int[] marking) {
+		for (int level = k; level > 0 && node != EMPTY; level--) {
+			node = this.child(node, marking[level - 1]);
+		}
+		return node == ONE;
+	}
+
+	/**
+	 * Key of the unique table, compares the children by value
+	 */
+	private static final class Key {
+		final int[] Children;
+		final int Hash;
+
+		Key(int[] children) {
+			this.Children = children;
+			this.Hash = Arrays.hashCode(children);
+		}
+
+		@Override
+		public int hashCode() {
+			return this.Hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof Key && Arrays.equals(this.Children, ((Key) obj).Children);
+		}
+	}
+}
@@ -0,0 +1,448 @@
+package propra.analysis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountedCompleter;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAccumulator;
+
+import propra.model.CompiledPetrinet;
+import propra.model.IntList;
+import propra.model.Marking;
+import propra.model.ReachabilityGraph;
+import propra.model.Vertex;
+
+/**
+ * Parallel exploration of the state space of a Petrinet on a work-stealing {@link ForkJoinPool}.
+ *
+ * Every discovered marking becomes a task expanding it. Tasks are pushed onto the deque of the worker
+ * that discovered the marking and idle workers steal from the others, so the deques act as per-worker
+ * frontiers. The visited markings are kept in a lock-free {@link MarkingTable}; the worker that inserts
+ * a marking first becomes its parent in the exploration tree and compares it with its ancestors, exactly
+ * like the sequential {@link StateSpaceExplorer}. Each worker collects the {@link StateProperties} of the markings
+ * it expands. The reachability graph and the properties are assembled once all workers are done,
+ * so it contains the same vertices and arcs as the sequential one, and the boundedness verdict is the same.
+ *
+ * The visited table cannot grow while workers insert into it. Once it is full, the workers stop and note where they
+ * stopped expanding, the table is doubled while no worker runs, and the noted expansions are resumed. Only if the table
+ * cannot grow any more, the exploration stops as if the heap limit had been reached.
+ * The exploration can be budgeted by {@link ExplorationLimits}, the workers share one {@link ExplorationMonitor}
+ * and stop forking tasks once a limit has been reached. A depth limit is not supported: the depth of a marking in
+ * the tree of the workers depends on which worker discovered it first and is not its breadth-first distance,
+ * so the same limit would cut other markings than in a sequential run.
+ */
+public class ParallelStateSpaceExplorer {
+
+	/**
+	 * Default number of markings the explorer holds before its table is grown
+	 */
+	public static final int DEFAULT_CAPACITY = 1 << 20;
+
+	/**
+	 * The compiled net to explore
+	 */
+	private final CompiledPetrinet Net;
+
+	/**
+	 * The marking to start from
+	 */
+	private final Marking Initial;
+
+	/**
+	 * Number of worker threads
+	 */
+	private final int Threads;
+
+	/**
+	 * Number of markings the table holds before it is grown for the first time
+	 */
+	private final int Capacity;
+
+	/**
+	 * Visited markings by state index
+	 */
+	private MarkingTable Visited;
+
+	/**
+	 * Parent state, transition from the parent and depth in the exploration tree by state index.
+	 * The depth only orders the tree arcs when the graph is assembled.
+	 */
+	private int[] Parent, Via, Depth;
+
+	/**
+	 * Expansions stopped by a full table, as state and position of the first enabled transition not fired yet
+	 */
+	private Queue<int[]> Stopped;
+
+	/**
+	 * Workspaces of all workers, each worker appends to its own edge list only
+	 */
+	private Queue<Worker> Workers;
+
+	/**
+	 * Per-worker workspace
+	 */
+	private ThreadLocal<Worker> Workspace;
+
+	/**
+	 * Largest number of tasks queued on a single worker
+	 */
+	private final LongAccumulator MaxFrontier = new LongAccumulator(Math::max, 0);
+
+	/**
+	 * First m &lt; m' found as state indices, the exploration stops as soon as it is set
+	 */
+	private final AtomicReference<int[]> Witness = new AtomicReference<>();
+
+	/**
+	 * Budget of the exploration
+	 */
+	private ExplorationLimits Limits = new ExplorationLimits();
+
+	/**
+	 * Receives progress reports, null for none
+	 */
+	private ProgressListener Listener;
+
+	/**
+	 * Monitor of the running exploration
+	 */
+	private ExplorationMonitor Monitor;
+
+    /**
+     * Constructs a parallel explorer for the given net and initial marking.
+     *
+     * @param net     The compiled Petrinet.
+     * @param initial The initial marking.
+     * @param threads The number of worker threads, at least 1.
+     */
+	public ParallelStateSpaceExplorer(CompiledPetrinet net, Marking initial, int threads) {
+		this(net, initial, threads, DEFAULT_CAPACITY);
+	}
+
+    /**
+     * Constructs a parallel explorer for the given net and initial marking.
+     *
+     * @param net      The compiled Petrinet.
+     * @param initial  The initial marking.
+     * @param threads  The number of worker threads, at least 1.
+     * @param capacity The number of markings to store before the table is grown.
+     */
+	public ParallelStateSpaceExplorer(CompiledPetrinet net, Marking initial, int threads, int capacity) {
+		if (threads < 1) {
+			throw new IllegalArgumentException(String.format("Number of threads must be positive, got %d.", threads));
+		}
+		if (capacity < 1) {
+			throw new IllegalArgumentException(String.format("Capacity must be positive, got %d.", capacity));
+		}
+		this.Net = net;
+		this.Initial = initial;
+		this.Threads = threads;
+		this.Capacity = capacity;
+	}
+
+    /**
+     * Sets the budget of the exploration.
+     *
+     * @param limits The limits, also used to cancel the exploration.
+     * @throws IllegalArgumentException If the limits contain a depth limit, use a {@link StateSpaceExplorer} instead.
+     */
+	public void setLimits(ExplorationLimits limits) {
+		if (limits.getMaxDepth() != Integer.MAX_VALUE) {
+			throw new IllegalArgumentException(String.format("The parallel explorer does not support a depth limit, got %d.", limits.getMaxDepth()));
+		}
+		this.Limits = limits;
+	}
+
+    /**
+     * Sets the listener receiving progress reports while the exploration runs.
+     * It is called by one worker thread at a time.
+     *
+     * @param listener The listener, or null for none.
+     */
+	public void setProgressListener(ProgressListener listener) {
+		this.Listener = listener;
+	}
+
+    /**
+     * Explores the state space until every reachable marking has been expanded,
+     * the net has been found to be unbounded or a limit has been reached.
+     *
+     * @return The reachability graph, the boundedness verdict and statistics.
+     */
+	public ExplorationResult explore() {
+		ExplorationStatistics statistics = new ExplorationStatistics();
+		statistics.start();
+		this.Monitor = new ExplorationMonitor(this.Limits, this.Listener, statistics);
+		this.Visited = new MarkingTable(this.Net.getPlaceCount(), this.Capacity);
+		this.Parent = new int[this.Visited.capacity()];
+		this.Via = new int[this.Visited.capacity()];
+		this.Depth = new int[this.Visited.capacity()];
+		this.Stopped = new ConcurrentLinkedQueue<>();
+		this.Workers = new ConcurrentLinkedQueue<>();
+		this.Workspace = ThreadLocal.withInitial(() -> {
+			Worker worker = new Worker(this.Net);
+			this.Workers.add(worker);
+			return worker;
+		});
+		this.Witness.set(null);
+		this.MaxFrontier.reset();
+
+		int root = this.Visited.insert(this.Initial.toArray());
+		this.Parent[root] = -1;
+		this.Via[root] = -1;
+		boolean full = false;
+		ForkJoinPool pool = new ForkJoinPool(this.Threads);
+		try {
+			pool.invoke(new Expand(null, root, -1));
+			while (!this.Stopped.isEmpty() && this.Witness.get() == null && this.Monitor.getReached() == null) {
+				if (!this.grow()) {
+					full = true;
+					break;
+				}
+				List<int[]> stopped = new ArrayList<>(this.Stopped);
+				this.Stopped.clear();
+				pool.invoke(new Resume(stopped));
+			}
+		} finally {
+			pool.shutdown();
+		}
+
+		long edges = 0;
+		for (Worker worker : this.Workers) {
+			edges += worker.Edges.size() / 3;
+		}
+		statistics.setCounts(this.Visited.size(), edges);
+		StateProperties properties = new StateProperties(this.Net);
+		for (Worker worker : this.Workers) {
+			properties.merge(worker.Properties);
+		}
+		statistics.updateFrontier(this.MaxFrontier.get());
+		ReachabilityGraph graph = this.assemble();
+		int[] witness = this.Witness.get();
+		Marking m = null;
+		Marking mDash = null;
+		LinkedList<String> path = new LinkedList<>();
+		if (witness != null) {
+			m = new Marking(this.toArray(witness[0]));
+			mDash = new Marking(this.toArray(witness[1]));
+			for (int s = witness[1]; this.Parent[s] != -1; s = this.Parent[s]) {
+				path.addFirst(this.Net.getTransitionID(this.Via[s]));
+			}
+		}
+
+		statistics.stop();
+		System.out.println(String.format("ParallelStateSpaceExplorer - explore: %s on %d threads", statistics, this.Threads));
+		this.Visited = null;
+		this.Parent = this.Via = this.Depth = null;
+		ExplorationLimits.Limit limit = witness == null ? this.Monitor.getLimit() : null;
+		if (witness == null && limit == null && full) {
+			limit = ExplorationLimits.Limit.HEAP;
+		}
+		this.Stopped = null;
+		this.Workers = null;
+		this.Workspace = null;
+		this.Monitor = null;
+		return new ExplorationResult(graph, witness == null && limit == null, statistics, m, mDash, path, limit, properties);
+	}
+
+	/**
+	 * Doubles the capacity of the table and the tree while no worker runs. Returns false if it cannot grow any more.
+	 */
+	private boolean grow() {
+		int capacity = this.Visited.capacity();
+		try {
+			this.Visited.resize((int) Math.min(Integer.MAX_VALUE - 8, 2L * capacity));
+			if (this.Visited.capacity() <= capacity) {
+				System.out.println(String.format("ParallelStateSpaceExplorer - grow: Table is full with %d markings and cannot grow.", capacity));
+				return false;
+			}
+			this.Parent = Arrays.copyOf(this.Parent, this.Visited.capacity());
+			this.Via = Arrays.copyOf(this.Via, this.Visited.capacity());
+			this.Depth = Arrays.copyOf(this.Depth, this.Visited.capacity());
+		} catch (OutOfMemoryError e) {
+			System.out.println(String.format("ParallelStateSpaceExplorer - grow: No memory to grow beyond %d markings.", capacity));
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Builds the reachability graph. The tree arcs are added first in order of depth, so every vertex
+	 * gets the same parent in the graph as in the exploration.
+	 */
+	private ReachabilityGraph assemble() {
+		int states = this.Visited.size();
+		Marking[] markings = new Marking[states];
+		for (int s = 0; s < states; s++) {
+			markings[s] = new Marking(this.toArray(s));
+		}
+		// counting sort of the states by depth
+		int maxDepth = 0;
+		for (int s = 0; s < states; s++) {
+			maxDepth = Math.max(maxDepth, this.Depth[s]);
+		}
+		int[] start = new int[maxDepth + 2];
+		for (int s = 0; s < states; s++) {
+			start[this.Depth[s] + 1]++;
+		}
+		for (int d = 0; d <= maxDepth; d++) {
+			start[d + 1] += start[d];
+		}
+		int[] order = new int[states];
+		for (int s = 0; s < states; s++) {
+			order[start[this.Depth[s]]++] = s;
+		}
+
+		ReachabilityGraph graph = new ReachabilityGraph(new Vertex(markings[0]));
+		for (int s : order) {
+			if (this.Parent[s] >= 0) {
+				graph.addArc(new Vertex(markings[this.Parent[s]]), new Vertex(markings[s], this.Net.getTransitionID(this.Via[s])));
+			}
+		}
+		for (Worker worker : this.Workers) {
+			IntList edges = worker.Edges;
+			for (int i = 0; i < edges.size(); i += 3) {
+				graph.addArc(new Vertex(markings[edges.get(i)]), new Vertex(markings[edges.get(i + 2)], this.Net.getTransitionID(edges.get(i + 1))));
+			}
+		}
+		return graph;
+	}
+
+	private int[] toArray(int state) {
+		int[] tokens = new int[this.Visited.getPlaceCount()];
+		this.Visited.get(state, tokens);
+		return tokens;
+	}
+
+	/**
+	 * Compares a newly inserted state with its ancestors.
+	 */
+	private boolean checkAncestors(int state, int[] marking, int[] buffer) {
+		for (int ancestor = this.Parent[state]; ancestor >= 0; ancestor = this.Parent[ancestor]) {
+			this.Visited.get(ancestor, buffer);
+			if (Marking.strictlyCovers(marking, buffer)) {
+				this.Witness.compareAndSet(null, new int[] {ancestor, state});
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Edge list, properties and marking buffers of a single worker thread
+	 */
+	private static final class Worker {
+		/**
+		 * Edges as triples of source state, transition and target state
+		 */
+		final IntList Edges = new IntList();
+		/**
+		 * Properties of the markings expanded by this worker
+		 */
+		final StateProperties Properties;
+		final int[] Enabled, Current, Next, Ancestor;
+
+		Worker(CompiledPetrinet net) {
+			this.Properties = new StateProperties(net);
+			this.Enabled = new int[net.getTransitionCount()];
+			this.Current = new int[net.getPlaceCount()];
+			this.Next = new int[net.getPlaceCount()];
+			this.Ancestor = new int[net.getPlaceCount()];
+		}
+	}
+
+	/**
+	 * Task resuming the expansions stopped by a full table, once the table has grown.
+	 */
+	private final class Resume extends CountedCompleter<Void> {
+		private static final long serialVersionUID = -6019468013473562218L;
+
+		private final List<int[]> Stopped;
+
+		Resume(List<int[]> stopped) {
+			this.Stopped = stopped;
+		}
+
+		@Override
+		public void compute() {
+			for (int[] stopped : this.Stopped) {
+				this.addToPendingCount(1);
+				new Expand(this, stopped[0], stopped[1]).fork();
+			}
+			this.tryComplete();
+		}
+	}
+
+	/**
+	 * Task expanding a single marking. Successor tasks are forked without joining, the root task
+	 * completes once all tasks forked from it have completed. If the table is full, the expansion is noted
+	 * in {@link ParallelStateSpaceExplorer#Stopped} and the task completes.
+	 */
+	private final class Expand extends CountedCompleter<Void> {
+		private static final long serialVersionUID = 3402311650472262349L;
+
+		private final int Current;
+
+		/**
+		 * Position of the first enabled transition to fire when resuming, -1 for a new expansion
+		 */
+		private final int From;
+
+		Expand(CountedCompleter<?> completer, int state, int from) {
+			super(completer);
+			this.Current = state;
+			this.From = from;
+		}
+
+		@Override
+		public void compute() {
+			ParallelStateSpaceExplorer explorer = ParallelStateSpaceExplorer.this;
+			if (explorer.Witness.get() == null && !explorer.Monitor.exhausted(explorer.Visited.size(), getQueuedTaskCount())) {
+				explorer.MaxFrontier.accumulate(getQueuedTaskCount());
+				CompiledPetrinet net = explorer.Net;
+				Worker worker = explorer.Workspace.get();
+				explorer.Visited.get(this.Current, worker.Current);
+				int count = net.enabled(worker.Current, worker.Enabled);
+				if (this.From < 0) {
+					worker.Properties.add(worker.Current, worker.Enabled, count);
+				}
+				for (int i = Math.max(this.From, 0); i < count; i++) {
+					int t = worker.Enabled[i];
+					net.successor(t, worker.Current, worker.Next);
+					int child;
+					try {
+						child = explorer.Visited.insert(worker.Next);
+					} catch (IllegalStateException e) {
+						// the table is full, resume at this transition once it has grown
+						explorer.Stopped.add(new int[] {this.Current, i});
+						break;
+					}
+					if (child >= 0) {
+						explorer.Parent[child] = this.Current;
+						explorer.Via[child] = t;
+						explorer.Depth[child] = explorer.Depth[this.Current] + 1;
+						worker.Edges.add(this.Current);
+						worker.Edges.add(t);
+						worker.Edges.add(child);
+						if (explorer.checkAncestors(child, worker.Next, worker.Ancestor)) {
+							break;
+						}
+						this.addToPendingCount(1);
+						new Expand(this, child, -1).fork();
+					} else {
+						worker.Edges.add(this.Current);
+						worker.Edges.add(t);
+						worker.Edges.add(-child - 1);
+					}
+				}
+			}
+			this.tryComplete();
+		}
+	}
+}
@@ -0,0 +1,16 @@
+package propra.analysis;
+
+/**
+ * Receives the statistics of a running exploration at regular intervals.
+ */
+@FunctionalInterface
+public interface ProgressListener {
+
+    /**
+     * Called by the exploring thread while the exploration runs, so it should return quickly.
+     * The statistics hold the visited states, the current frontier and the states per second so far.
+     *
+     * @param statistics The statistics of the running exploration.
+     */
+	void progress(ExplorationStatistics statistics);
+}
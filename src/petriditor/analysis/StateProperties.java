@@ -0,0 +1,193 @@
+package propra.analysis;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import propra.model.CompiledPetrinet;
+import propra.model.Marking;
+
+/**
+ * Properties of the markings expanded by an exploration, collected in the same pass as the boundedness verdict:
+ * the dead markings, the largest number of tokens on each place and the transitions enabled in no marking,
+ * i.e. the transitions that never fire.
+ *
+ * The properties hold for the reachable markings if the exploration expanded all of them. They only describe
+ * the part explored so far if a limit has been reached or the net has been found to be unbounded.
+ * Under partial-order reduction every dead marking and the largest number of tokens of every place are still found,
+ * but transitions may be missed. A bitstate exploration may miss markings as well.
+ */
+public class StateProperties {
+
+	/**
+	 * Largest number of dead markings kept, further ones are only counted
+	 */
+	public static final int MAX_DEAD_MARKINGS = 100;
+
+	/**
+	 * The compiled net, for place and transition IDs
+	 */
+	private final CompiledPetrinet Net;
+
+	/**
+	 * Largest number of tokens seen on each place
+	 */
+	private final int[] MaxTokens;
+
+	/**
+	 * true for each transition enabled in some expanded marking
+	 */
+	private final boolean[] Enabled;
+
+	/**
+	 * Number of markings expanded
+	 */
+	private long States;
+
+	/**
+	 * Number of dead markings found
+	 */
+	private long DeadCount;
+
+	/**
+	 * The first dead markings found, at most {@link #MAX_DEAD_MARKINGS}
+	 */
+	private final List<Marking> Dead = new ArrayList<>();
+
+	StateProperties(CompiledPetrinet net) {
+		this.Net = net;
+		this.MaxTokens = new int[net.getPlaceCount()];
+		this.Enabled = new boolean[net.getTransitionCount()];
+	}
+
+	/**
+	 * Adds an expanded marking with the transitions enabled in it.
+	 */
+	void add(int[] marking, int[] enabled, int count) {
+		this.States++;
+		for (int i = 0; i < marking.length; i++) {
+			if (marking[i] > this.MaxTokens[i]) {
+				this.MaxTokens[i] = marking[i];
+			}
+		}
+		for (int i = 0; i < count; i++) {
+			this.Enabled[enabled[i]] = true;
+		}
+		if (count == 0) {
+			if (this.Dead.size() < MAX_DEAD_MARKINGS) {
+				this.Dead.add(new Marking(marking.clone()));
+			}
+			this.DeadCount++;
+		}
+	}
+
+	/**
+	 * Adds the properties collected by another worker of the same exploration.
+	 */
+	void merge(StateProperties other) {
+		this.States += other.States;
+		for (int i = 0; i < this.MaxTokens.length; i++) {
+			this.MaxTokens[i] = Math.max(this.MaxTokens[i], other.MaxTokens[i]);
+		}
+		for (int t = 0; t < this.Enabled.length; t++) {
+			this.Enabled[t] |= other.Enabled[t];
+		}
+		for (Marking dead : other.Dead) {
+			if (this.Dead.size() < MAX_DEAD_MARKINGS) {
+				this.Dead.add(dead);
+			}
+		}
+		this.DeadCount += other.DeadCount;
+	}
+
+    /**
+     * Returns the number of markings the properties have been collected from.
+     *
+     * @return The number of expanded markings.
+     */
+	public long getStates() {
+		return this.States;
+	}
+
+    /**
+     * Returns the largest number of tokens seen on a place, i.e. the place is k-bounded for this k.
+     *
+     * @param place The index of the place in the compiled net.
+     * @return The largest number of tokens.
+     */
+	public int getMaxTokens(int place) {
+		return this.MaxTokens[place];
+	}
+
+    /**
+     * Returns the largest number of tokens seen on any place, i.e. the net is k-bounded for this k.
+     *
+     * @return The largest number of tokens, 0 if the net has no places.
+     */
+	public int getBound() {
+		int bound = 0;
+		for (int tokens : this.MaxTokens) {
+			bound = Math.max(bound, tokens);
+		}
+		return bound;
+	}
+
+    /**
+     * Returns the number of dead markings, i.e. markings in which no transition is enabled.
+     *
+     * @return The number of dead markings found.
+     */
+	public long getDeadCount() {
+		return this.DeadCount;
+	}
+
+    /**
+     * Returns the first dead markings found.
+     *
+     * @return At most {@link #MAX_DEAD_MARKINGS} dead markings in the order they have been found.
+     */
+	public List<Marking> getDeadMarkings() {
+		return Collections.unmodifiableList(this.Dead);
+	}
+
+    /**
+     * Checks if a transition is enabled in some marking, i.e. fires at least once.
+     *
+     * @param transition The index of the transition in the compiled net.
+     * @return true if the transition has been enabled.
+     */
+	public boolean isFired(int transition) {
+		return this.Enabled[transition];
+	}
+
+    /**
+     * Returns the transitions enabled in no marking.
+     *
+     * @return The IDs of the transitions that never fire.
+     */
+	public List<String> getUnfiredTransitions() {
+		List<String> unfired = new ArrayList<>();
+		for (int t = 0; t < this.Enabled.length; t++) {
+			if (!this.Enabled[t]) {
+				unfired.add(this.Net.getTransitionID(t));
+			}
+		}
+		return unfired;
+	}
+
+    /**
+     * Provides a string representation of the properties.
+     *
+     * @return A string with the number of dead markings, the bound of each place and the transitions that never fire.
+     */
+	@Override
+	public String toString() {
+		StringBuilder bounds = new StringBuilder();
+		for (int i = 0; i < this.MaxTokens.length; i++) {
+			bounds.append(i > 0 ? ", " : "").append(this.Net.getPlaceID(i)).append(": ").append(this.MaxTokens[i]);
+		}
+		List<String> unfired = this.getUnfiredTransitions();
+		return String.format("%d dead markings%s, tokens per place (%s), never fired: %s", this.DeadCount,
+				this.Dead.isEmpty() ? "" : " e.g. " + this.Dead.get(0), bounds, unfired.isEmpty() ? "none" : String.join(", ", unfired));
+	}
+}
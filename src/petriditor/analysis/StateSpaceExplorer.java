@@ -0,0 +1,435 @@
+package propra.analysis;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+
+import propra.model.CompiledPetrinet;
+import propra.model.IntList;
+import propra.model.Marking;
+import propra.model.StubbornSets;
+
+/**
+ * Breadth-first exploration of the state space of a Petrinet.
+ *
+ * The explorer works on a {@link CompiledPetrinet} only, so neither the Petrinet nor any visualisation
+ * is touched. Each marking is expanded exactly once: the visited markings are kept in a {@link StateStore},
+ * whose dense state indices are assigned in discovery order, so the store itself serves as the queue.
+ * All enabled transitions of a marking are fired when it is expanded. The {@link StateProperties} of the expanded
+ * markings are collected on the way.
+ * Unboundedness is detected on the fly: each new marking is compared with its ancestors in the
+ * exploration tree only, and the exploration stops at the first m &lt; m'.
+ *
+ * By default the markings are kept in a {@link MarkingTable} and the arcs as triples of state indices, without
+ * a single vertex or marking object. The {@link propra.model.ReachabilityGraph} is only built on request from the
+ * result, see {@link ExplorationResult#getGraph(long)}. If an external store is given, e.g. a {@link MappedStateStore}, markings and arcs go to the store only
+ * and no arcs are kept on the heap, so apart from the store just two ints per state stay there.
+ *
+ * Optionally the exploration is reduced by stubborn sets ({@link StubbornSets}): only the enabled
+ * transitions of a stubborn set are fired. Since state indices grow along the arcs of the exploration tree,
+ * every cycle contains an arc to a state discovered no later than its source. If a stubborn transition leads
+ * to such a state, the marking is expanded fully, so no transition is ignored along a cycle of the reduced graph.
+ * Under reduction
+ * <ul>
+ * <li>every dead marking of the net is reached, so deadlock freedom and the set of dead markings are preserved,</li>
+ * <li>the largest number of tokens of every place is reached, so the reduced state space is finite if and only if
+ *     the net is bounded, and the boundedness verdict is preserved,</li>
+ * <li>every m &lt; m' found is a real witness,</li>
+ * <li>the number of states and arcs and the reachability of markings other than dead ones are not preserved.</li>
+ * </ul>
+ *
+ * The exploration can be budgeted by {@link ExplorationLimits} and reports its progress to a {@link ProgressListener}.
+ * If a limit is reached before a verdict, the result holds the part explored so far and names the limit.
+ *
+ * Long explorations can write a {@link Checkpoint} at regular intervals and whenever a limit stops them,
+ * and be resumed from it by {@link #resume(File)}. The checkpoint file is deleted once the exploration is complete.
+ *
+ * With a {@link GraphSink}, every vertex and arc is passed to the sink as soon as it is found, e.g. to write the
+ * graph to a file, and the arcs are not kept. A resumed exploration first passes the vertices and arcs of
+ * the checkpoint again, so the sink receives the whole graph. The arcs are only part of a checkpoint if they are kept
+ * by the explorer or the store, so a sink combined with checkpoints needs an external store.
+ */
+public class StateSpaceExplorer {
+
+	/**
+	 * The compiled net to explore
+	 */
+	private final CompiledPetrinet Net;
+
+	/**
+	 * The marking to start from
+	 */
+	private final Marking Initial;
+
+	/**
+	 * External store for the markings, null to use a {@link MarkingTable} and keep the arcs
+	 */
+	private final StateStore Store;
+
+	/**
+	 * true to fire only the enabled transitions of a stubborn set
+	 */
+	private boolean Reduction;
+
+	/**
+	 * Budget of the exploration
+	 */
+	private ExplorationLimits Limits = new ExplorationLimits();
+
+	/**
+	 * Receives progress reports, null for none
+	 */
+	private ProgressListener Listener;
+
+	/**
+	 * File to write checkpoints to, null for none
+	 */
+	private File CheckpointFile;
+
+	/**
+	 * Milliseconds between two checkpoints
+	 */
+	private long CheckpointInterval;
+
+	/**
+	 * Receives the vertices and arcs as they are found, null for none
+	 */
+	private GraphSink Sink;
+
+	/**
+	 * Number of markings the visited table holds before it is resized
+	 */
+	private static final int INITIAL_CAPACITY = 1 << 12;
+
+    /**
+     * Constructs an explorer for the given net and initial marking.
+     *
+     * @param net     The compiled Petrinet.
+     * @param initial The initial marking.
+     */
+	public StateSpaceExplorer(CompiledPetrinet net, Marking initial) {
+		this(net, initial, null);
+	}
+
+    /**
+     * Constructs an explorer keeping markings and arcs in the given store. No reachability graph can be built then.
+     *
+     * @param net     The compiled Petrinet.
+     * @param initial The initial marking.
+     * @param store   The empty store receiving markings and arcs, or null to keep them on the heap.
+     */
+	public StateSpaceExplorer(CompiledPetrinet net, Marking initial, StateStore store) {
+		this.Net = net;
+		this.Initial = initial;
+		this.Store = store;
+	}
+
+    /**
+     * Enables or disables the partial-order reduction by stubborn sets.
+     *
+     * @param reduction true to explore a reduced state space.
+     */
+	public void setReduction(boolean reduction) {
+		this.Reduction = reduction;
+	}
+
+    /**
+     * Sets the budget of the exploration.
+     *
+     * @param limits The limits, also used to cancel the exploration.
+     */
+	public void setLimits(ExplorationLimits limits) {
+		this.Limits = limits;
+	}
+
+    /**
+     * Sets the listener receiving progress reports while the exploration runs.
+     *
+     * @param listener The listener, or null for none.
+     */
+	public void setProgressListener(ProgressListener listener) {
+		this.Listener = listener;
+	}
+
+    /**
+     * Sets a sink receiving the vertices and arcs as they are found. The arcs are not kept then.
+     * The sink is started by the exploration, but not closed.
+     *
+     * @param sink The sink, or null to keep the arcs unless an external store is used.
+     */
+	public void setGraphSink(GraphSink sink) {
+		this.Sink = sink;
+	}
+
+    /**
+     * Enables writing checkpoints of the exploration.
+     *
+     * @param file     The checkpoint file, replaced by every new checkpoint, or null to disable checkpoints.
+     * @param interval The time between two checkpoints in milliseconds.
+     * @throws IllegalArgumentException If the interval is not positive.
+     */
+	public void setCheckpoint(File file, long interval) {
+		if (interval < 1) {
+			throw new IllegalArgumentException(String.format("Checkpoint interval must be positive, got %d.", interval));
+		}
+		this.CheckpointFile = file;
+		this.CheckpointInterval = interval;
+	}
+
+    /**
+     * Explores the state space until every reachable marking has been expanded,
+     * the net has been found to be unbounded or a limit has been reached.
+     *
+     * @return The boundedness verdict, the explored markings and arcs and statistics.
+     */
+	public ExplorationResult explore() {
+		try {
+			return this.explore(null);
+		} catch (IOException e) {
+			// only reading a checkpoint throws
+			throw new UncheckedIOException(e);
+		}
+	}
+
+    /**
+     * Resumes an exploration from a checkpoint written by an explorer for the same net, initial marking and reduction.
+     * The store of this explorer must be empty, the statistics continue from the counts of the checkpoint.
+     *
+     * @param file The checkpoint file.
+     * @return The boundedness verdict, the explored markings and arcs and statistics.
+     * @throws IOException If the checkpoint cannot be read.
+     * @throws IllegalArgumentException If the checkpoint belongs to another net, initial marking or reduction.
+     */
+	public ExplorationResult resume(File file) throws IOException {
+		try (Checkpoint checkpoint = Checkpoint.open(file)) {
+			if (!checkpoint.matches(this.Net, this.Reduction)) {
+				throw new IllegalArgumentException(String.format("Checkpoint %s does not belong to this Petrinet and reduction.", file));
+			}
+			System.out.println(String.format("StateSpaceExplorer - resume: Resuming at state %d of %d from %s",
+					checkpoint.Next, checkpoint.States, file));
+			return this.explore(checkpoint);
+		}
+	}
+
+	/**
+	 * Explores the state space, starting from the initial marking or from the given checkpoint.
+	 */
+	private ExplorationResult explore(Checkpoint checkpoint) throws IOException {
+		ExplorationStatistics statistics = new ExplorationStatistics();
+		statistics.start();
+		ExplorationMonitor monitor = new ExplorationMonitor(this.Limits, this.Listener, statistics);
+		int places = this.Net.getPlaceCount();
+		StateStore visited = this.Store != null ? this.Store : new MarkingTable(places, INITIAL_CAPACITY);
+		IntList arcs = this.Store == null && this.Sink == null ? new IntList() : null;
+		GraphSink sink = this.Sink;
+		if (sink != null) {
+			String[] transitions = new String[this.Net.getTransitionCount()];
+			for (int t = 0; t < transitions.length; t++) {
+				transitions[t] = this.Net.getTransitionID(t);
+			}
+			sink.begin(places, transitions);
+		}
+		IntList parent = new IntList();
+		IntList via = new IntList();
+		IntList depth = this.Limits.getMaxDepth() < Integer.MAX_VALUE ? new IntList() : null;
+		int[] enabled = new int[this.Net.getTransitionCount()];
+		int[] current = new int[places];
+		int[] next = new int[places];
+		int[] ancestor = new int[places];
+		StubbornSets stubborn = this.Reduction ? new StubbornSets(this.Net) : null;
+		StateProperties properties = new StateProperties(this.Net);
+		int witness = -1;
+		int mDash = -1;
+		int first = 0;
+
+		if (checkpoint == null) {
+			visited.insert(this.Initial.toArray());
+			parent.add(-1);
+			via.add(-1);
+			if (depth != null) {
+				depth.add(0);
+			}
+			statistics.addState();
+			if (sink != null) {
+				sink.addVertex(0, this.Initial.toArray());
+			}
+		} else {
+			first = this.restore(checkpoint, visited, arcs, sink, parent, via, depth, statistics, properties);
+		}
+		long nextCheckpoint = System.nanoTime() + this.CheckpointInterval * 1000000;
+
+		for (int state = first; state < visited.size() && witness < 0; state++) {
+			statistics.updateFrontier(visited.size() - state);
+			if (monitor.exhausted(visited.size(), visited.size() - state)) {
+				this.writeCheckpoint(visited, state, parent, via, arcs, statistics);
+				break;
+			}
+			if (this.CheckpointFile != null && System.nanoTime() - nextCheckpoint >= 0) {
+				this.writeCheckpoint(visited, state, parent, via, arcs, statistics);
+				nextCheckpoint = System.nanoTime() + this.CheckpointInterval * 1000000;
+			}
+			if (depth != null && !monitor.expands(depth.get(state))) {
+				continue;
+			}
+			visited.get(state, current);
+			int count = this.Net.enabled(current, enabled);
+			properties.add(current, enabled, count);
+			int limit = stubborn != null ? stubborn.reduce(current, enabled, count) : count;
+			visited.ensureCapacity(visited.size() + count);
+			for (int i = 0; i < limit; i++) {
+				int t = enabled[i];
+				this.Net.successor(t, current, next);
+				statistics.addEdge();
+				int child = visited.insert(next);
+				boolean inserted = child >= 0;
+				if (inserted) {
+					statistics.addState();
+					parent.add(state);
+					via.add(t);
+					if (depth != null) {
+						depth.add(depth.get(state) + 1);
+					}
+					if (sink != null) {
+						sink.addVertex(child, next);
+					}
+				} else {
+					child = -child - 1;
+					// cycle proviso: every cycle has an arc to a state discovered no later than its source
+					if (child <= state) {
+						limit = count;
+					}
+				}
+				visited.addEdge(state, t, child);
+				if (sink != null) {
+					sink.addEdge(state, t, child);
+				}
+				if (arcs != null) {
+					arcs.add(state);
+					arcs.add(t);
+					arcs.add(child);
+				}
+				if (inserted) {
+					witness = this.checkAncestors(visited, parent, child, next, ancestor);
+					if (witness >= 0) {
+						mDash = child;
+						break;
+					}
+				}
+			}
+		}
+
+		statistics.stop();
+		System.out.println("StateSpaceExplorer - explore: " + statistics);
+		ExplorationLimits.Limit limit = witness < 0 ? monitor.getLimit() : null;
+		if (this.CheckpointFile != null && (limit == null || limit == ExplorationLimits.Limit.DEPTH) && this.CheckpointFile.delete()) {
+			System.out.println("StateSpaceExplorer - explore: Deleted checkpoint " + this.CheckpointFile);
+		}
+		Marking m = null;
+		Marking mDashMarking = null;
+		List<String> path = new LinkedList<>();
+		if (witness >= 0) {
+			visited.get(witness, ancestor);
+			visited.get(mDash, next);
+			m = new Marking(ancestor);
+			mDashMarking = new Marking(next);
+			path = this.getPath(mDash, parent, via);
+		}
+		boolean bounded = witness < 0 && limit == null;
+		if (arcs != null) {
+			return new StateSpaceResult(bounded, statistics, m, mDashMarking, path, limit, properties, this.Net, visited, arcs);
+		}
+		return new ExplorationResult(null, bounded, statistics, m, mDashMarking, path, limit, properties);
+	}
+
+	/**
+	 * Reads the states and arcs of a checkpoint into the store, the arcs, the sink and the tree, collects the properties
+	 * of the states expanded before the checkpoint again and returns the index of the next state to expand.
+	 */
+	private int restore(Checkpoint checkpoint, StateStore visited, IntList arcs, GraphSink sink, IntList parent, IntList via,
+			IntList depth, ExplorationStatistics statistics, StateProperties properties) throws IOException {
+		int places = this.Net.getPlaceCount();
+		int[] tree = new int[2];
+		int[] marking = new int[places];
+		int[] enabled = new int[this.Net.getTransitionCount()];
+		visited.ensureCapacity(checkpoint.States);
+		for (int s = 0; s < checkpoint.States; s++) {
+			checkpoint.readState(tree, marking);
+			if (s == 0 && !Arrays.equals(marking, this.Initial.toArray())) {
+				throw new IllegalArgumentException(String.format("Checkpoint starts at %s, not at %s.", new Marking(marking.clone()), this.Initial));
+			}
+			if (visited.insert(marking) != s) {
+				throw new IOException(String.format("State %d of the checkpoint is a duplicate.", s));
+			}
+			if (sink != null) {
+				sink.addVertex(s, marking);
+			}
+			parent.add(tree[0]);
+			via.add(tree[1]);
+			if (depth != null) {
+				depth.add(tree[0] < 0 ? 0 : depth.get(tree[0]) + 1);
+			}
+			if (s < checkpoint.Next && (depth == null || depth.get(s) <= this.Limits.getMaxDepth())) {
+				properties.add(marking, enabled, this.Net.enabled(marking, enabled));
+			}
+		}
+		int[] arc = new int[3];
+		long count = checkpoint.readArcCount();
+		for (long a = 0; a < count; a++) {
+			checkpoint.readArc(arc);
+			visited.addEdge(arc[0], arc[1], arc[2]);
+			if (sink != null) {
+				sink.addEdge(arc[0], arc[1], arc[2]);
+			}
+			if (arcs != null) {
+				arcs.add(arc[0]);
+				arcs.add(arc[1]);
+				arcs.add(arc[2]);
+			}
+		}
+		statistics.restore(checkpoint.StateCount, checkpoint.EdgeCount, checkpoint.MaxFrontier);
+		return checkpoint.Next;
+	}
+
+	/**
+	 * Writes a checkpoint if checkpoints are enabled. A failure is logged, the exploration goes on.
+	 */
+	private void writeCheckpoint(StateStore visited, int next, IntList parent, IntList via, IntList arcs,
+			ExplorationStatistics statistics) {
+		if (this.CheckpointFile == null) {
+			return;
+		}
+		try {
+			Checkpoint.write(this.CheckpointFile, this.Net, this.Reduction, visited, next, parent, via, arcs, statistics);
+			System.out.println(String.format("StateSpaceExplorer - writeCheckpoint: Wrote %d states to %s", visited.size(), this.CheckpointFile));
+		} catch (IOException e) {
+			System.out.println("StateSpaceExplorer - writeCheckpoint: Could not write checkpoint: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Compares a newly inserted marking with its ancestors and returns the first one it strictly covers, or -1.
+	 */
+	private int checkAncestors(StateStore visited, IntList parent, int state, int[] marking, int[] buffer) {
+		for (int a = parent.get(state); a >= 0; a = parent.get(a)) {
+			visited.get(a, buffer);
+			if (Marking.strictlyCovers(marking, buffer)) {
+				return a;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Collects the transitions on the tree path from the initial marking to a state.
+	 */
+	private List<String> getPath(int state, IntList parent, IntList via) {
+		LinkedList<String> path = new LinkedList<>();
+		for (int s = state; parent.get(s) != -1; s = parent.get(s)) {
+			path.addFirst(this.Net.getTransitionID(via.get(s)));
+		}
+		return path;
+	}
+}
@@ -0,0 +1,80 @@
+package propra.analysis;
+
+import java.util.List;
+
+import propra.model.CompiledPetrinet;
+import propra.model.IntList;
+import propra.model.Marking;
+import propra.model.ReachabilityGraph;
+import propra.model.Vertex;
+
+/**
+ * The result of a {@link StateSpaceExplorer} that has kept the markings in its {@link MarkingTable} and the arcs
+ * as state indices instead of building the reachability graph. The graph is only built on request, see
+ * {@link #getGraph(long)}, so no vertex or marking object is created for explorations that are not displayed.
+ */
+final class StateSpaceResult extends ExplorationResult {
+
+	/**
+	 * The explored net, for the transition ids
+	 */
+	private final CompiledPetrinet Net;
+
+	/**
+	 * The visited markings by state index
+	 */
+	private final StateStore Visited;
+
+	/**
+	 * Source state, transition and target state of each arc, in the order the arcs have been found
+	 */
+	private final IntList Arcs;
+
+    /**
+     * Constructs the result of an exploration that has not built its graph.
+     *
+     * @param bounded    true if the Petrinet is bounded, false otherwise or if the verdict is unknown.
+     * @param statistics The statistics of the exploration.
+     * @param m          The marking m of the unboundedness witness, or null.
+     * @param mDash      The marking m' of the unboundedness witness, or null.
+     * @param path       The transitions leading to m'.
+     * @param limit      The limit reached before the verdict was known, or null.
+     * @param properties The properties of the expanded markings.
+     * @param net        The explored net.
+     * @param visited    The visited markings.
+     * @param arcs       The arcs as triples of source state, transition and target state.
+     */
+	StateSpaceResult(boolean bounded, ExplorationStatistics statistics, Marking m, Marking mDash, List<String> path, ExplorationLimits.Limit limit,
+			StateProperties properties, CompiledPetrinet net, StateStore visited, IntList arcs) {
+		super(null, bounded, statistics, m, mDash, path, limit, properties);
+		this.Net = net;
+		this.Visited = visited;
+		this.Arcs = arcs;
+	}
+
+    /**
+     * Builds the reachability graph from the markings and arcs if there are not too many markings.
+     * The vertices are added in the order of the state indices, so the graph finds the same witness as the exploration.
+     *
+     * @param limit The largest number of markings to build a graph for.
+     * @return A new reachability graph, or null if there are more markings than the limit.
+     */
+	@Override
+	public ReachabilityGraph getGraph(long limit) {
+		int states = this.Visited.size();
+		if (states > limit) {
+			return null;
+		}
+		Marking[] markings = new Marking[states];
+		for (int s = 0; s < states; s++) {
+			int[] marking = new int[this.Visited.getPlaceCount()];
+			this.Visited.get(s, marking);
+			markings[s] = new Marking(marking);
+		}
+		ReachabilityGraph graph = new ReachabilityGraph(new Vertex(markings[0]));
+		for (int a = 0; a < this.Arcs.size(); a += 3) {
+			graph.addArc(new Vertex(markings[this.Arcs.get(a)]), new Vertex(markings[this.Arcs.get(a + 2)], this.Net.getTransitionID(this.Arcs.get(a + 1))));
+		}
+		return graph;
+	}
+}
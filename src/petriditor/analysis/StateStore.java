@@ -0,0 +1,91 @@
+package propra.analysis;
+
+import java.io.Closeable;
+
+/**
+ * Storage of the markings visited during a state space exploration.
+ *
+ * Every distinct marking gets a dense state index, starting with 0 and assigned in insertion order.
+ * Explorers only work with these indices and read markings back into their own buffers,
+ * so a store is free to keep the markings in packed form, on or off the heap.
+ * A store may also keep the arcs of the state space, see {@link #addEdge(int, int, int)}.
+ */
+public interface StateStore extends Closeable {
+
+    /**
+     * Returns the number of places of the stored markings.
+     *
+     * @return The number of places.
+     */
+	int getPlaceCount();
+
+    /**
+     * Inserts a marking unless it is already stored.
+     *
+     * @param marking The marking indexed by dense place id, it is copied into the store.
+     * @return The new state index if the marking has been inserted, or -(index + 1) for the index
+     *         of the equal marking that was already stored.
+     */
+	int insert(int[] marking);
+
+    /**
+     * Copies a stored marking into the given buffer.
+     *
+     * @param state  The state index.
+     * @param buffer The buffer receiving the marking, at least {@link #getPlaceCount()} long.
+     */
+	void get(int state, int[] buffer);
+
+    /**
+     * Returns the number of stored markings.
+     *
+     * @return The number of states.
+     */
+	int size();
+
+    /**
+     * Makes room for at least the given number of markings. Only called by single-threaded explorers,
+     * stores of fixed capacity or growing on their own ignore it.
+     *
+     * @param states The number of markings the store has to hold.
+     */
+	default void ensureCapacity(int states) {
+	}
+
+    /**
+     * Records an arc of the state space. Stores keeping only the markings ignore it.
+     *
+     * @param from       The state index of the source marking.
+     * @param transition The dense index of the fired transition.
+     * @param to         The state index of the target marking.
+     */
+	default void addEdge(int from, int transition, int to) {
+	}
+
+    /**
+     * Returns the number of recorded arcs, 0 for stores keeping only the markings.
+     *
+     * @return The number of arcs.
+     */
+	default long getEdgeCount() {
+		return 0;
+	}
+
+    /**
+     * Copies a recorded arc into the given buffer.
+     *
+     * @param index The index of the arc, in the order the arcs were added.
+     * @param edge  The buffer receiving source state, transition and target state.
+     * @throws IndexOutOfBoundsException If there is no arc with this index.
+     */
+	default void getEdge(long index, int[] edge) {
+		throw new IndexOutOfBoundsException(String.format("Index %d out of bounds for %d arcs.", index, this.getEdgeCount()));
+	}
+
+    /**
+     * Releases the resources of the store, e.g. the files backing it.
+     */
+	@Override
+	default void close() {
+	}
+}
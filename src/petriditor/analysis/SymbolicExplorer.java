@@ -0,0 +1,354 @@
+package propra.analysis;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import propra.model.CompiledPetrinet;
+import propra.model.IntList;
+import propra.model.Marking;
+
+/**
+ * Symbolic computation of the reachable markings of a bounded Petrinet by saturation on decision diagrams.
+ *
+ * The reachable set is an {@link Mdd} with one level per place, place i at level i + 1. Every transition
+ * is an event acting on the levels of its adjacent places only, each level changing by post - pre tokens
+ * if it holds at least pre tokens. An event belongs to the highest level it touches. Saturation fires the
+ * events of a level on a node until a fixpoint is reached, after all nodes below have been saturated, so
+ * the reachable set is built bottom-up without ever enumerating single markings.
+ *
+ * The domain of a level grows with the token counts found. Unbounded nets have no finite reachable set,
+ * so the exploration gives up once a place exceeds the token bound; the explicit explorers can then
+ * look for a witness.
+ *
+ * The forest, its unique tables and the caches grow with the number of nodes, which is not bounded by the
+ * number of markings. The exploration can be budgeted by {@link ExplorationLimits}: the state limit caps the
+ * number of nodes, and the clock, the heap and the cancellation flag are checked while nodes are built.
+ */
+public class SymbolicExplorer {
+
+	/**
+	 * Default largest number of tokens per place, kept small since a net exceeding it is explored explicitly anyway
+	 */
+	public static final int DEFAULT_BOUND = 255;
+
+	/**
+	 * The compiled net to explore
+	 */
+	private final CompiledPetrinet Net;
+
+	/**
+	 * The marking to start from
+	 */
+	private final Marking Initial;
+
+	/**
+	 * Largest number of tokens per place
+	 */
+	private final int Bound;
+
+	/**
+	 * Budget of the exploration
+	 */
+	private ExplorationLimits Limits = new ExplorationLimits();
+
+	/**
+	 * Monitor of the running exploration
+	 */
+	private ExplorationMonitor Monitor;
+
+	/**
+	 * The decision diagrams
+	 */
+	private Mdd Forest;
+
+	/**
+	 * Highest and lowest level touched by each event
+	 */
+	private int[] Top, Bottom;
+
+	/**
+	 * Levels touched by each event, ascending, and the tokens consumed and produced there
+	 */
+	private int[][] Levels, Pre, Post;
+
+	/**
+	 * Events by their top level
+	 */
+	private int[][] EventsAt;
+
+	/**
+	 * Saturated node per node
+	 */
+	private Map<Integer, Integer> SaturateCache;
+
+	/**
+	 * Saturated image of a node under an event
+	 */
+	private Map<Long, Integer> FireCache;
+
+    /**
+     * Constructs a symbolic explorer with the default token bound.
+     *
+     * @param net     The compiled Petrinet.
+     * @param initial The initial marking.
+     */
+	public SymbolicExplorer(CompiledPetrinet net, Marking initial) {
+		this(net, initial, DEFAULT_BOUND);
+	}
+
+    /**
+     * Constructs a symbolic explorer.
+     *
+     * @param net     The compiled Petrinet.
+     * @param initial The initial marking.
+     * @param bound   The largest number of tokens a place may hold before the exploration gives up.
+     */
+	public SymbolicExplorer(CompiledPetrinet net, Marking initial, int bound) {
+		if (bound < 1) {
+			throw new IllegalArgumentException(String.format("Bound must be positive, got %d.", bound));
+		}
+		this.Net = net;
+		this.Initial = initial;
+		this.Bound = bound;
+	}
+
+    /**
+     * Sets the budget of the exploration. The state limit is applied to the number of decision diagram nodes.
+     *
+     * @param limits The limits, also used to cancel the exploration.
+     */
+	public void setLimits(ExplorationLimits limits) {
+		this.Limits = limits;
+	}
+
+    /**
+     * Computes the set of reachable markings.
+     *
+     * @return The reachable markings, or a state space not within the bound if a place exceeded it or a limit has been reached.
+     */
+	public SymbolicStateSpace explore() {
+		ExplorationStatistics statistics = new ExplorationStatistics();
+		statistics.start();
+		this.Monitor = new ExplorationMonitor(this.Limits, null, statistics);
+		int levels = this.Net.getPlaceCount();
+		this.Forest = new Mdd(levels);
+		this.SaturateCache = new HashMap<>();
+		this.FireCache = new HashMap<>();
+		this.buildEvents(levels);
+
+		int root;
+		String exceeded = null;
+		ExplorationLimits.Limit limit = null;
+		try {
+			root = this.saturate(levels, this.Forest.singleton(levels, this.Initial.toArray()));
+		} catch (BoundExceeded e) {
+			root = Mdd.EMPTY;
+			exceeded = this.Net.getPlaceID(e.Place);
+		} catch (LimitReached e) {
+			root = Mdd.EMPTY;
+			limit = this.Monitor.getLimit();
+		}
+
+		statistics.stop();
+		BigInteger count = this.Forest.count(root);
+		statistics.setCounts(count.bitLength() < 64 ? count.longValue() : Long.MAX_VALUE, 0);
+		if (exceeded != null) {
+			System.out.println(String.format("SymbolicExplorer - explore: Place %s exceeds %d tokens, %d ms", exceeded, this.Bound, statistics.getMillis()));
+		} else if (limit != null) {
+			System.out.println(String.format("SymbolicExplorer - explore: Stopped by the %s limit at %d nodes, %d ms", limit, this.Forest.size(), statistics.getMillis()));
+		} else {
+			System.out.println(String.format("SymbolicExplorer - explore: %s reachable markings, %d nodes, %d ms",
+					count, this.Forest.size(), statistics.getMillis()));
+		}
+		SymbolicStateSpace space = new SymbolicStateSpace(this.Net, this.Forest, root, count, exceeded, limit, statistics);
+		this.Forest = null;
+		this.SaturateCache = null;
+		this.FireCache = null;
+		this.Monitor = null;
+		return space;
+	}
+
+	/**
+	 * Splits the transitions into events on the levels of their adjacent places.
+	 */
+	private void buildEvents(int levels) {
+		int transitions = this.Net.getTransitionCount();
+		this.Top = new int[transitions];
+		this.Bottom = new int[transitions];
+		this.Levels = new int[transitions][];
+		this.Pre = new int[transitions][];
+		this.Post = new int[transitions][];
+		IntList[] byTop = new IntList[levels + 1];
+		for (int k = 0; k <= levels; k++) {
+			byTop[k] = new IntList(4);
+		}
+		for (int t = 0; t < transitions; t++) {
+			int[] places = this.Net.getAdjacentPlaces(t);
+			this.Levels[t] = new int[places.length];
+			this.Pre[t] = new int[places.length];
+			this.Post[t] = new int[places.length];
+			for (int i = 0; i < places.length; i++) {
+				this.Levels[t][i] = places[i] + 1;
+				this.Pre[t][i] = this.Net.getInputWeight(t, places[i]);
+				this.Post[t][i] = this.Net.getOutputWeight(t, places[i]);
+			}
+			// transitions without arcs do not change any marking
+			if (places.length > 0) {
+				this.Bottom[t] = places[0] + 1;
+				this.Top[t] = places[places.length - 1] + 1;
+				byTop[this.Top[t]].add(t);
+			}
+		}
+		this.EventsAt = new int[levels + 1][];
+		for (int k = 0; k <= levels; k++) {
+			this.EventsAt[k] = byTop[k].toArray();
+		}
+	}
+
+	/**
+	 * Returns the tokens at level k after event e, i tokens before, or -1 if e is not enabled on this level.
+	 */
+	private int local(int e, int k, int i) {
+		int index = Arrays.binarySearch(this.Levels[e], k);
+		if (index < 0) {
+			return i;
+		}
+		if (i < this.Pre[e][index]) {
+			return -1;
+		}
+		int j = i - this.Pre[e][index] + this.Post[e][index];
+		if (j > this.Bound) {
+			throw new BoundExceeded(k - 1);
+		}
+		return j;
+	}
+
+	/**
+	 * Returns the node at level k encoding the closure of node p under all events up to level k.
+	 */
+	private int saturate(int k, int p) {
+		if (k == 0 || p == Mdd.EMPTY) {
+			return p;
+		}
+		Integer cached = this.SaturateCache.get(p);
+		if (cached != null) {
+			return cached;
+		}
+		this.checkLimits();
+		int[] q = this.Forest.children(p, 0);
+		for (int i = 0; i < q.length; i++) {
+			q[i] = this.saturate(k - 1, q[i]);
+		}
+		int result = this.Forest.checkIn(k, this.fire(k, q));
+		this.SaturateCache.put(p, result);
+		return result;
+	}
+
+	/**
+	 * Fires the events of level k on the children of a node under construction until nothing changes.
+	 * The children must be saturated, the array may be replaced by a longer one.
+	 */
+	private int[] fire(int k, int[] q) {
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			for (int e : this.EventsAt[k]) {
+				for (int i = 0; i < q.length; i++) {
+					if (q[i] == Mdd.EMPTY) {
+						continue;
+					}
+					int j = this.local(e, k, i);
+					if (j < 0) {
+						continue;
+					}
+					int f = this.relProd(k - 1, q[i], e);
+					if (f == Mdd.EMPTY) {
+						continue;
+					}
+					if (j >= q.length) {
+						q = Arrays.copyOf(q, Math.max(j + 1, q.length * 2));
+					}
+					int u = this.Forest.union(k - 1, q[j], f);
+					if (u != q[j]) {
+						q[j] = u;
+						changed = true;
+					}
+				}
+			}
+		}
+		return q;
+	}
+
+	/**
+	 * Returns the saturated image of node p at level k under event e.
+	 */
+	private int relProd(int k, int p, int e) {
+		if (p == Mdd.EMPTY || k < this.Bottom[e]) {
+			return p;
+		}
+		long key = (long) p << 32 | e;
+		Integer cached = this.FireCache.get(key);
+		if (cached != null) {
+			return cached;
+		}
+		this.checkLimits();
+		int[] q = new int[this.Forest.width(p)];
+		for (int i = 0; i < this.Forest.width(p); i++) {
+			int child = this.Forest.child(p, i);
+			if (child == Mdd.EMPTY) {
+				continue;
+			}
+			int j = this.local(e, k, i);
+			if (j < 0) {
+				continue;
+			}
+			int f = this.relProd(k - 1, child, e);
+			if (f == Mdd.EMPTY) {
+				continue;
+			}
+			if (j >= q.length) {
+				q = Arrays.copyOf(q, Math.max(j + 1, q.length * 2));
+			}
+			q[j] = this.Forest.union(k - 1, q[j], f);
+		}
+		int result = this.Forest.checkIn(k, this.fire(k, q));
+		this.FireCache.put(key, result);
+		return result;
+	}
+
+	/**
+	 * Stops the exploration if a limit has been reached, counting the nodes as states.
+	 */
+	private void checkLimits() {
+		if (this.Monitor.exhausted(this.Forest.size(), 0)) {
+			throw new LimitReached();
+		}
+	}
+
+	/**
+	 * Thrown when a limit has been reached
+	 */
+	private static final class LimitReached extends RuntimeException {
+		private static final long serialVersionUID = 2748205637916054021L;
+
+		LimitReached() {
+			super(null, null, false, false);
+		}
+	}
+
+	/**
+	 * Thrown when a place exceeds the token bound
+	 */
+	private static final class BoundExceeded extends RuntimeException {
+		private static final long serialVersionUID = -6105384016829917453L;
+
+		final int Place;
+
+		BoundExceeded(int place) {
+			super(null, null, false, false);
+			this.Place = place;
+		}
+	}
+}
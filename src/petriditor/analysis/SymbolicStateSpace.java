@@ -0,0 +1,162 @@
+package propra.analysis;
+
+import java.math.BigInteger;
+import java.util.function.Consumer;
+
+import propra.model.CompiledPetrinet;
+import propra.model.Marking;
+import propra.model.ReachabilityGraph;
+
+/**
+ * The set of reachable markings computed by a {@link SymbolicExplorer}, held as a decision diagram.
+ * Single markings are only enumerated on request, the explicit reachability graph is built on demand
+ * for state spaces small enough to be displayed.
+ */
+public class SymbolicStateSpace {
+
+	/**
+	 * Statistics of the exploration, the number of edges is not computed
+	 */
+	public final ExplorationStatistics Statistics;
+
+	/**
+	 * Identifier of the place that exceeded the token bound, null if the exploration completed
+	 */
+	public final String ExceededPlace;
+
+	/**
+	 * The limit that stopped the exploration, null if no limit has been reached
+	 */
+	public final ExplorationLimits.Limit LimitReached;
+
+	/**
+	 * The compiled net
+	 */
+	private final CompiledPetrinet Net;
+
+	/**
+	 * The decision diagrams and the root of the reachable set
+	 */
+	private final Mdd Forest;
+	private final int Root;
+
+	/**
+	 * Number of reachable markings
+	 */
+	private final BigInteger Count;
+
+	SymbolicStateSpace(CompiledPetrinet net, Mdd forest, int root, BigInteger count, String exceededPlace, ExplorationLimits.Limit limitReached,
+			ExplorationStatistics statistics) {
+		this.Net = net;
+		this.Forest = forest;
+		this.Root = root;
+		this.Count = count;
+		this.ExceededPlace = exceededPlace;
+		this.LimitReached = limitReached;
+		this.Statistics = statistics;
+	}
+
+    /**
+     * Checks if the exploration completed without a place exceeding the token bound or a limit being reached.
+     * If so, the Petrinet is bounded.
+     *
+     * @return true if the reachable set is complete.
+     */
+	public boolean isWithinBound() {
+		return this.ExceededPlace == null && this.LimitReached == null;
+	}
+
+    /**
+     * Returns the number of reachable markings.
+     *
+     * @return The number of markings, 0 if the bound has been exceeded or a limit has been reached.
+     */
+	public BigInteger getStateCount() {
+		return this.Count;
+	}
+
+    /**
+     * Returns the number of decision diagram nodes built during the exploration.
+     *
+     * @return The number of nodes.
+     */
+	public int getNodeCount() {
+		return this.Forest.size();
+	}
+
+    /**
+     * Checks if a marking is reachable.
+     *
+     * @param marking The marking to look up.
+     * @return true if the marking is in the reachable set.
+     */
+	public boolean contains(Marking marking) {
+		return this.Forest.contains(this.Net.getPlaceCount(), this.Root, marking.toArray());
+	}
+
+    /**
+     * Passes every reachable marking to the given action.
+     *
+     * @param action The action to be performed for each marking.
+     */
+	public void forEach(Consumer<Marking> action) {
+		int places = this.Net.getPlaceCount();
+		if (this.Root != Mdd.EMPTY) {
+			this.enumerate(places, this.Root, new int[places], action);
+		}
+	}
+
+	private void enumerate(int k, int node, int[] marking, Consumer<Marking> action) {
+		if (k == 0) {
+			action.accept(new Marking(marking.clone()));
+			return;
+		}
+		for (int i = 0; i < this.Forest.width(node); i++) {
+			int child = this.Forest.child(node, i);
+			if (child != Mdd.EMPTY) {
+				marking[k - 1] = i;
+				this.enumerate(k - 1, child, marking, action);
+			}
+		}
+	}
+
+    /**
+     * Collects the properties of the reachable markings by enumerating them, so only for small enough state spaces.
+     *
+     * @param limit The largest number of markings to enumerate.
+     * @return The properties of all reachable markings, or null if there are more markings than the limit or the bound has been exceeded.
+     */
+	public StateProperties getProperties(long limit) {
+		if (!this.isWithinBound() || this.Count.compareTo(BigInteger.valueOf(limit)) > 0) {
+			return null;
+		}
+		StateProperties properties = new StateProperties(this.Net);
+		int[] enabled = new int[this.Net.getTransitionCount()];
+		this.forEach(marking -> {
+			int[] tokens = marking.toArray();
+			properties.add(tokens, enabled, this.Net.enabled(tokens, enabled));
+		});
+		return properties;
+	}
+
+    /**
+     * Builds the explicit reachability graph if the state space is small enough.
+     * The graph is not derived from the decision diagram: the state space is enumerated again by a
+     * {@link StateSpaceExplorer}, which is why it runs under the given limits as well.
+     *
+     * @param initial The initial marking the state space has been computed from.
+     * @param limit   The largest number of markings to build a graph for.
+     * @param limits  The limits of the explicit exploration.
+     * @return The reachability graph, or null if there are more markings than the limit, the bound has been exceeded
+     *         or the explicit exploration has been stopped by a limit.
+     */
+	public ReachabilityGraph toGraph(Marking initial, long limit, ExplorationLimits limits) {
+		if (!this.isWithinBound() || this.Count.compareTo(BigInteger.valueOf(limit)) > 0) {
+			return null;
+		}
+		StateSpaceExplorer explorer = new StateSpaceExplorer(this.Net, initial);
+		explorer.setLimits(limits);
+		ExplorationResult result = explorer.explore();
+		return result.isComplete() ? result.getGraph(limit) : null;
+	}
+}
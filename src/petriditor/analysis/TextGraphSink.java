@@ -0,0 +1,107 @@
+package propra.analysis;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import propra.model.Marking;
+
+/**
+ * Base of the sinks writing a reachability graph as text: opens the file, keeps the transition IDs
+ * and formats markings like {@link Marking#toString()} without creating a marking per vertex.
+ */
+abstract class TextGraphSink implements GraphSink {
+
+	/**
+	 * The file being written
+	 */
+	private final Writer Out;
+
+	/**
+	 * Reused to format markings
+	 */
+	private final StringBuilder Buffer = new StringBuilder();
+
+	/**
+	 * IDs of the transitions, set by {@link #begin(int, String[])}
+	 */
+	protected String[] Transitions;
+
+	/**
+	 * Creates the file in UTF-8, replacing an existing one.
+	 */
+	protected TextGraphSink(File file) throws IOException {
+		this.Out = new BufferedWriter(Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8), 1 << 16);
+	}
+
+    /**
+     * Keeps the transition IDs and writes the header of the file.
+     *
+     * @param places      The number of places of each marking.
+     * @param transitions The IDs of the transitions.
+     */
+	@Override
+	public void begin(int places, String[] transitions) {
+		this.Transitions = transitions.clone();
+		this.write(this.header());
+	}
+
+    /**
+     * Writes the footer of the file and closes it.
+     */
+	@Override
+	public void close() {
+		try {
+			this.Out.write(this.footer());
+			this.Out.close();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Returns the text at the start of the file.
+	 */
+	protected abstract String header();
+
+	/**
+	 * Returns the text at the end of the file.
+	 */
+	protected abstract String footer();
+
+	/**
+	 * Writes text to the file.
+	 */
+	protected void write(String text) {
+		try {
+			this.Out.write(text);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Formats a marking, e.g. "(1|0|2)" or "(1|ω|0)".
+	 */
+	protected String format(int[] marking) {
+		StringBuilder result = this.Buffer;
+		result.setLength(0);
+		result.append('(');
+		for (int i = 0; i < marking.length; i++) {
+			if (i > 0) {
+				result.append('|');
+			}
+			if (marking[i] == Marking.OMEGA) {
+				result.append("ω");
+			} else {
+				result.append(marking[i]);
+			}
+		}
+		result.append(')');
+		return result.toString();
+	}
+}
@@ -0,0 +1,52 @@
+package propra.analysis;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Variable-length encoding of non-negative numbers in groups of 7 bits, least significant group first,
+ * with the high bit set on all but the last byte. Numbers below 128 take a single byte.
+ */
+final class VarInt {
+
+	private VarInt() {
+	}
+
+	/**
+	 * Writes a non-negative number.
+	 */
+	static void write(DataOutput out, long value) throws IOException {
+		while ((value & ~0x7FL) != 0) {
+			out.writeByte((int) (value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.writeByte((int) value);
+	}
+
+	/**
+	 * Reads a number, throwing an EOFException if the input ends before it.
+	 */
+	static long read(DataInput in) throws IOException {
+		long value = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			int b = in.readUnsignedByte();
+			value |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new IOException("Malformed variable-length number.");
+	}
+
+	/**
+	 * Reads a number that has to fit into an int.
+	 */
+	static int readInt(DataInput in) throws IOException {
+		long value = read(in);
+		if (value > Integer.MAX_VALUE) {
+			throw new IOException(String.format("Number %d is out of range.", value));
+		}
+		return (int) value;
+	}
+}
@@ -0,0 +1,155 @@
+package propra.controller;
+
+import java.util.Arrays;
+import java.util.List;
+
+import propra.analysis.ExplorationLimits;
+import propra.analysis.StateProperties;
+import propra.model.Marking;
+import propra.model.Petrinet;
+import propra.model.ReachabilityGraph;
+
+/**
+ * The result of analyzing a PNML file: the boundedness verdict with its witness, the size of the explored
+ * state space and the properties of the markings collected in the same pass, see {@link StateProperties}.
+ */
+public class AnalysisResult {
+
+	/**
+	 * The boundedness verdict
+	 */
+	public enum Verdict {
+		BOUNDED("Yes"), UNBOUNDED("No"), UNKNOWN("Unknown");
+
+		private final String Text;
+
+		Verdict(String text) {
+			this.Text = text;
+		}
+
+		/**
+		 * Returns "Yes", "No" or "Unknown" as shown in the result table.
+		 */
+		@Override
+		public String toString() {
+			return this.Text;
+		}
+	}
+
+	/**
+	 * Name of the analyzed file
+	 */
+	public final String FileName;
+
+	/**
+	 * Bounded, unbounded or unknown if a limit has been reached first or an approximate search has found no witness
+	 */
+	public final Verdict Bounded;
+
+	/**
+	 * Nodes and edges of the explored state space, followed by the kind of exploration, e.g. "12 / 20 (reduced)"
+	 */
+	public final String Count;
+
+	/**
+	 * Length and transitions of the path to m', e.g. "2:(t1,t2);", an empty string if the Petrinet is not unbounded
+	 */
+	public final String Path;
+
+	/**
+	 * The markings m and m' of the witness m &lt; m', null if the Petrinet is not unbounded
+	 */
+	public final Marking M, MDash;
+
+	/**
+	 * The limit that stopped the analysis, null if the verdict is known or no limit has been reached
+	 */
+	public final ExplorationLimits.Limit LimitReached;
+
+	/**
+	 * Dead markings, token bounds per place and transitions that never fire, null if they have not been collected
+	 */
+	public final StateProperties Properties;
+
+	/**
+	 * true if the properties have been collected from all reachable markings
+	 */
+	public final boolean Exact;
+
+	/**
+	 * Identifiers of the unbounded places, empty if there are none, null if they have not been determined
+	 */
+	public final List<String> UnboundedPlaces;
+
+	/**
+	 * The analyzed Petrinet and the reachability graph to show for it, see {@link Controller#showAnalysis(AnalysisResult)}
+	 */
+	Petrinet Net;
+	ReachabilityGraph Graph;
+
+    /**
+     * Constructs an analysis result.
+     *
+     * @param fileName   The name of the analyzed file.
+     * @param bounded    The boundedness verdict.
+     * @param count      The nodes and edges of the explored state space.
+     * @param path       The path to m', or an empty string.
+     * @param m          The marking m of the unboundedness witness, or null.
+     * @param mDash      The marking m' of the unboundedness witness, or null.
+     * @param limit      The limit reached before the verdict was known, or null.
+     * @param properties The properties of the explored markings, or null.
+     * @param exact      true if the properties cover all reachable markings.
+     * @param unbounded  The identifiers of the unbounded places, or null.
+     */
+	public AnalysisResult(String fileName, Verdict bounded, String count, String path, Marking m, Marking mDash, ExplorationLimits.Limit limit,
+			StateProperties properties, boolean exact, List<String> unbounded) {
+		this.FileName = fileName;
+		this.Bounded = bounded;
+		this.Count = count;
+		this.Path = path;
+		this.M = m;
+		this.MDash = mDash;
+		this.LimitReached = limit;
+		this.Properties = properties;
+		this.Exact = exact;
+		this.UnboundedPlaces = unbounded;
+	}
+
+    /**
+     * Returns the verdict as the columns of the result table.
+     *
+     * @return An array containing the file name, "Yes", "No" or "Unknown",
+     *         the nodes and edges, the path to m' if unbounded or the limit reached if unknown,
+     *         m and m' if unbounded or empty strings otherwise.
+     */
+	public String[] toRow() {
+		switch (this.Bounded) {
+		case UNBOUNDED:
+			return new String[] {this.FileName, this.Bounded.toString(), this.Path, this.M + ",", this.MDash.toString()};
+		case UNKNOWN:
+			if (this.LimitReached == null) {
+				return new String[] {this.FileName, this.Bounded.toString(), String.format("no witness found in %s", this.Count), "", ""};
+			}
+			return new String[] {this.FileName, this.Bounded.toString(), String.format("limit reached (%s) after %s", this.LimitReached, this.Count), "", ""};
+		default:
+			return new String[] {this.FileName, this.Bounded.toString(), this.Count, "", ""};
+		}
+	}
+
+    /**
+     * Provides a string representation of the result.
+     *
+     * @return The columns of the result table, followed by the unbounded places and the properties if they are known.
+     */
+	@Override
+	public String toString() {
+		String row = Arrays.toString(this.toRow());
+		if (this.UnboundedPlaces != null) {
+			row += " unbounded places: " + this.UnboundedPlaces;
+		}
+		if (this.Properties == null) {
+			return row;
+		}
+		return String.format("%s %s%s", row, this.Properties, this.Exact ? "" : " (explored part)");
+	}
+}
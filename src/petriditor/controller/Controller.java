@@ -5,12 +5,10 @@ import java.awt.event.MouseEvent;
 import java.awt.event.MouseWheelEvent;
 import java.awt.event.MouseWheelListener;
 import java.io.File;
+import java.io.IOException;
 import java.util.Arrays;
-import java.util.HashSet;
-import java.util.LinkedList;
-import java.util.Map;
+import java.util.List;
 import java.util.NoSuchElementException;
-import java.util.Set;
 import java.util.Stack;
 
 import org.graphstream.ui.swing_viewer.SwingViewer;
@@ -18,10 +16,30 @@ import org.graphstream.ui.swing_viewer.ViewPanel;
 import org.graphstream.ui.view.Viewer;
 import org.graphstream.ui.view.ViewerPipe;
 
+import propra.analysis.BinaryGraphSink;
+import propra.analysis.BitstateExplorer;
+import propra.analysis.BitstateResult;
+import propra.analysis.CoverabilityExplorer;
+import propra.analysis.CoverabilityGraph;
+import propra.analysis.DotGraphSink;
+import propra.analysis.ExplorationLimits;
+import propra.analysis.ExplorationResult;
+import propra.analysis.ExplorationStatistics;
+import propra.analysis.GraphMLGraphSink;
+import propra.analysis.GraphSink;
+import propra.analysis.MappedStateStore;
+import propra.analysis.ParallelStateSpaceExplorer;
+import propra.analysis.StateProperties;
+import propra.analysis.StateSpaceExplorer;
+import propra.analysis.SymbolicExplorer;
+import propra.analysis.SymbolicStateSpace;
+import propra.model.Marking;
+import propra.model.NetReduction;
 import propra.model.Petrinet;
 import propra.model.Place;
+import propra.model.PlaceInvariants;
 import propra.model.ReachabilityGraph;
-import propra.model.Transition;
+import propra.model.StateEquation;
 import propra.model.Vertex;
 import propra.pnml.pnmlReader;
 import propra.view.ClickListener;
@@ -87,6 +105,143 @@ public class Controller {
 	 */
 	public ClickListener ClickListenerPG, ClickListenerRG;
 
+	/**
+	 * Number of threads used to analyze a Petrinet, taken from the system property petriditor.threads.
+	 * With more than one thread the state space is explored in parallel, unless a depth limit is set.
+	 */
+	private int Threads;
+
+	/**
+	 * Number of markings the parallel explorer holds before it grows its table, taken from the system property
+	 * petriditor.capacity.
+	 */
+	private int Capacity;
+
+	/**
+	 * Directory for a disk-backed state store, taken from the system property petriditor.store.
+	 * If set, Petrinets are analyzed sequentially with their states in memory-mapped files,
+	 * and no reachability graph is built.
+	 */
+	private File StoreDirectory;
+
+	/**
+	 * Memory budget in MiB for an approximate bitstate exploration, taken from the system property petriditor.bitstate.
+	 * If positive, Petrinets are analyzed by a {@link BitstateExplorer} and no reachability graph is built.
+	 */
+	private int BitstateMemory;
+
+	/**
+	 * true to reduce the state space by stubborn sets, taken from the system property petriditor.reduction.
+	 * The reduction preserves the boundedness verdict, dead markings and token bounds, and every m &lt; m' it finds is real,
+	 * but the number of states is not preserved.
+	 */
+	private boolean Reduction;
+
+	/**
+	 * true to compute the reachable markings symbolically first, taken from the system property petriditor.symbolic.
+	 * If no place exceeds {@link SymbolicExplorer#DEFAULT_BOUND} tokens, the Petrinet is bounded and the
+	 * reachability graph is only built for at most {@link #GRAPH_LIMIT} markings.
+	 */
+	private boolean Symbolic;
+
+	/**
+	 * true to build the Karp–Miller coverability graph instead of the reachability graph, taken from the system
+	 * property petriditor.coverability. It always terminates and names every unbounded place.
+	 */
+	private boolean Coverability;
+
+	/**
+	 * true to compute the P-invariants first, taken from the system property petriditor.invariants.
+	 * If every place is covered by an invariant, the Petrinet is bounded and no state is explored,
+	 * so only the initial marking is shown and the token bounds are derived from the invariants.
+	 */
+	private boolean Invariants;
+
+	/**
+	 * true to bound the places by the state equation first, taken from the system property petriditor.stateequation.
+	 * If the state equation bounds every place, the Petrinet is bounded and no state is explored.
+	 */
+	private boolean StateEquation;
+
+	/**
+	 * true to explore a structurally reduced net, taken from the system property petriditor.netreduction.
+	 * The reduction preserves boundedness and the witness m &lt; m' is lifted back to the loaded Petrinet,
+	 * but nodes and edges are those of the reduced net and no properties of the markings are collected.
+	 */
+	private boolean NetReduction;
+
+	/**
+	 * Largest number of markings for which the reachability graph is built to be displayed,
+	 * also for which the properties are collected after a symbolic analysis
+	 */
+	private static final long GRAPH_LIMIT = 10000;
+
+	/**
+	 * Largest number of states of an analysis, taken from the system property petriditor.states, 0 for none.
+	 */
+	private long MaxStates;
+
+	/**
+	 * Largest depth of a marking to expand in an analysis, taken from the system property petriditor.depth, 0 for none.
+	 */
+	private int MaxDepth;
+
+	/**
+	 * Time limit of an analysis in seconds, taken from the system property petriditor.timeout, 0 for none.
+	 * Batch runs are limited to {@link #BATCH_TIMEOUT} seconds per file if it is not set.
+	 */
+	private long Timeout;
+
+	/**
+	 * Heap limit of an analysis in MiB, taken from the system property petriditor.heap, 0 for none.
+	 * Batch runs are limited to {@link #BATCH_HEAP} of the maximum heap per file if it is not set.
+	 */
+	private long MaxHeap;
+
+	/**
+	 * Default time limit per file of a batch run in seconds
+	 */
+	private static final long BATCH_TIMEOUT = 60;
+
+	/**
+	 * Default heap limit of a batch run as fraction of the maximum heap
+	 */
+	private static final double BATCH_HEAP = 0.9;
+
+	/**
+	 * Directory for checkpoints of long analyses, taken from the system property petriditor.checkpoint, null for none.
+	 * If set, Petrinets are analyzed sequentially, a checkpoint named after the PNML file is written every
+	 * {@link #CheckpointInterval} seconds and when a limit is reached, and an analysis of the same file resumes from it.
+	 */
+	private File CheckpointDirectory;
+
+	/**
+	 * Seconds between two checkpoints, taken from the system property petriditor.checkpoint.interval
+	 */
+	private long CheckpointInterval;
+
+	/**
+	 * Default number of seconds between two checkpoints
+	 */
+	private static final long DEFAULT_CHECKPOINT_INTERVAL = 60;
+
+	/**
+	 * Directory to export reachability graphs to, taken from the system property petriditor.export, null for none.
+	 * If set, Petrinets are analyzed sequentially, the graph is streamed to a file named after the PNML file
+	 * while it is explored, and no reachability graph is built.
+	 */
+	private File ExportDirectory;
+
+	/**
+	 * Format of exported graphs: "bin" for a binary edge list, "dot" or "graphml",
+	 * taken from the system property petriditor.export.format
+	 */
+	private String ExportFormat;
+
+	/**
+	 * Limits of the running analysis, used to cancel it
+	 */
+	private volatile ExplorationLimits Running;
 
     /**
      * Constructor for Controller. Initializes the controller and resets the undo/redo stacks.
@@ -94,6 +249,31 @@ public class Controller {
 	public Controller() {
 		System.out.print("Controller initialized\n");
 		this.resetStack();
+		this.Threads = Integer.getInteger("petriditor.threads", 1);
+		this.Capacity = Integer.getInteger("petriditor.capacity", ParallelStateSpaceExplorer.DEFAULT_CAPACITY);
+		String store = System.getProperty("petriditor.store");
+		this.StoreDirectory = store != null ? new File(store) : null;
+		this.BitstateMemory = Integer.getInteger("petriditor.bitstate", 0);
+		this.Reduction = Boolean.getBoolean("petriditor.reduction");
+		this.Symbolic = Boolean.getBoolean("petriditor.symbolic");
+		this.Coverability = Boolean.getBoolean("petriditor.coverability");
+		this.Invariants = Boolean.getBoolean("petriditor.invariants");
+		this.StateEquation = Boolean.getBoolean("petriditor.stateequation");
+		this.NetReduction = Boolean.getBoolean("petriditor.netreduction");
+		this.MaxStates = Long.getLong("petriditor.states", 0);
+		this.MaxDepth = Integer.getInteger("petriditor.depth", 0);
+		this.Timeout = Long.getLong("petriditor.timeout", 0);
+		this.MaxHeap = Long.getLong("petriditor.heap", 0);
+		String checkpoint = System.getProperty("petriditor.checkpoint");
+		this.CheckpointDirectory = checkpoint != null ? new File(checkpoint) : null;
+		this.CheckpointInterval = Long.getLong("petriditor.checkpoint.interval", DEFAULT_CHECKPOINT_INTERVAL);
+		String export = System.getProperty("petriditor.export");
+		this.ExportDirectory = export != null ? new File(export) : null;
+		this.ExportFormat = System.getProperty("petriditor.export.format", "bin");
+		if (!this.ExportFormat.matches("bin|dot|graphml")) {
+			System.out.println("Controller - Controller: Unknown export format " + this.ExportFormat + ", exporting bin instead.");
+			this.ExportFormat = "bin";
+		}
 	}
 
     /**
@@ -105,6 +285,185 @@ public class Controller {
 		this.Frame = frame;
 	}
 
+    /**
+     * Sets the number of threads used to analyze a Petrinet.
+     *
+     * @param threads The number of threads, 1 for sequential exploration.
+     * @throws IllegalArgumentException If the number of threads is not positive.
+     */
+	public void setThreads(int threads) {
+		if (threads < 1) {
+			throw new IllegalArgumentException(String.format("Number of threads must be positive, got %d.", threads));
+		}
+		this.Threads = threads;
+	}
+
+    /**
+     * Sets the number of markings the parallel explorer holds before it grows its table.
+     *
+     * @param capacity The initial capacity of the table.
+     * @throws IllegalArgumentException If the capacity is not positive.
+     */
+	public void setCapacity(int capacity) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException(String.format("Capacity must be positive, got %d.", capacity));
+		}
+		this.Capacity = capacity;
+	}
+
+    /**
+     * Sets the directory for a disk-backed state store.
+     *
+     * @param directory The directory for the state files, or null to keep the states on the heap.
+     */
+	public void setStoreDirectory(File directory) {
+		this.StoreDirectory = directory;
+	}
+
+    /**
+     * Sets the memory budget for an approximate bitstate exploration.
+     *
+     * @param megabytes The size of the bit array in MiB, 0 for an exact exploration.
+     */
+	public void setBitstateMemory(int megabytes) {
+		this.BitstateMemory = megabytes;
+	}
+
+    /**
+     * Enables or disables the partial-order reduction of the analysis. The reduced state space is explored sequentially.
+     *
+     * @param reduction true to reduce the state space by stubborn sets.
+     */
+	public void setReduction(boolean reduction) {
+		this.Reduction = reduction;
+	}
+
+    /**
+     * Enables or disables the symbolic analysis of bounded Petrinets.
+     *
+     * @param symbolic true to compute the reachable markings symbolically first.
+     */
+	public void setSymbolic(boolean symbolic) {
+		this.Symbolic = symbolic;
+	}
+
+    /**
+     * Enables or disables the coverability analysis, see {@link CoverabilityExplorer}.
+     *
+     * @param coverability true to build the coverability graph instead of the reachability graph.
+     */
+	public void setCoverability(boolean coverability) {
+		this.Coverability = coverability;
+	}
+
+    /**
+     * Enables or disables the structural boundedness check by P-invariants before the state space is explored.
+     *
+     * @param invariants true to skip the exploration of Petrinets whose places are all covered by P-invariants.
+     */
+	public void setInvariants(boolean invariants) {
+		this.Invariants = invariants;
+	}
+
+    /**
+     * Enables or disables bounding the places by the state equation before the state space is explored.
+     *
+     * @param stateEquation true to skip the exploration of Petrinets whose places are all bounded by the state equation.
+     */
+	public void setStateEquation(boolean stateEquation) {
+		this.StateEquation = stateEquation;
+	}
+
+    /**
+     * Enables or disables the structural reduction of the Petrinet before its state space is explored, see {@link NetReduction}.
+     *
+     * @param netReduction true to explore the reduced net and lift the witness back to the loaded Petrinet,
+     *                     in which case no graph is exported.
+     */
+	public void setNetReduction(boolean netReduction) {
+		this.NetReduction = netReduction;
+	}
+
+    /**
+     * Sets the limits of an analysis. Analyses stopped by a limit report "limit reached" instead of a verdict.
+     *
+     * @param states  The largest number of states to discover, 0 for no limit.
+     * @param depth   The largest depth of a marking to expand, 0 for no limit.
+     * @param seconds The time limit in seconds, 0 for no limit or the default of batch runs.
+     * @param heap    The heap limit in MiB, 0 for no limit or the default of batch runs.
+     */
+	public void setLimits(long states, int depth, long seconds, long heap) {
+		this.MaxStates = states;
+		this.MaxDepth = depth;
+		this.Timeout = seconds;
+		this.MaxHeap = heap;
+	}
+
+    /**
+     * Sets the directory for checkpoints of long analyses.
+     *
+     * @param directory The directory for the checkpoint files, or null to disable checkpoints.
+     * @param seconds   The time between two checkpoints in seconds.
+     * @throws IllegalArgumentException If the time is not positive.
+     */
+	public void setCheckpointDirectory(File directory, long seconds) {
+		if (seconds < 1) {
+			throw new IllegalArgumentException(String.format("Checkpoint interval must be positive, got %d.", seconds));
+		}
+		this.CheckpointDirectory = directory;
+		this.CheckpointInterval = seconds;
+	}
+
+    /**
+     * Sets the directory to export reachability graphs to while they are explored.
+     * Checkpoints are only written during an export if a store directory is set as well.
+     * Nothing is exported for Petrinets explored in reduced form, see {@link #setNetReduction(boolean)}.
+     *
+     * @param directory The directory for the exported graphs, or null to build the reachability graph instead.
+     * @param format    "bin" for a binary edge list, "dot" for Graphviz or "graphml".
+     * @throws IllegalArgumentException If the format is unknown.
+     */
+	public void setExportDirectory(File directory, String format) {
+		if (!format.equals("bin") && !format.equals("dot") && !format.equals("graphml")) {
+			throw new IllegalArgumentException(String.format("Unknown export format %s, expected bin, dot or graphml.", format));
+		}
+		this.ExportDirectory = directory;
+		this.ExportFormat = format;
+	}
+
+    /**
+     * Resumes the analysis of a PNML file from its checkpoint, see {@link #setCheckpointDirectory(File, long)}.
+     *
+     * @param pnmlFile The PNML file whose analysis has been interrupted.
+     * @return The verdict and the properties of the Petrinet, see {@link #analyzeFile(File, boolean)}.
+     * @throws NoSuchElementException If there is no checkpoint for the file or an issue during analysis.
+     */
+	public AnalysisResult resumeAnalysis(File pnmlFile) throws NoSuchElementException {
+		File checkpoint = this.getCheckpointFile(pnmlFile);
+		if (checkpoint == null || !checkpoint.exists()) {
+			throw new NoSuchElementException(String.format("No checkpoint found for %s.", pnmlFile.getName()));
+		}
+		return this.analyzeFile(pnmlFile, false);
+	}
+
+	/**
+	 * Returns the checkpoint file of a PNML file, or null if checkpoints are disabled.
+	 */
+	private File getCheckpointFile(File pnmlFile) {
+		return this.CheckpointDirectory != null ? new File(this.CheckpointDirectory, pnmlFile.getName() + ".checkpoint") : null;
+	}
+
+    /**
+     * Cancels the running analysis, if any. May be called from any thread.
+     * The analysis stops soon after and reports "limit reached".
+     */
+	public void cancelAnalysis() {
+		ExplorationLimits running = this.Running;
+		if (running != null) {
+			running.cancel();
+		}
+	}
+
     /**
      * Sets ClickListener for the Petrinet visualisation.
      *
@@ -304,16 +663,24 @@ public class Controller {
      */
 	private void loadPetrinet(File pnmlFile) throws NoSuchElementException {
 		this.resetStack();
+		this.Pnet = this.parsePetrinet(pnmlFile);
+		this.Rgraph = new ReachabilityGraph(new Vertex(this.Pnet.getMarking()));
+	}
+
+    /**
+     * Reads a Petrinet from a PNML file without loading it.
+     *
+     * @param pnmlFile The PNML file to read the Petrinet from.
+     * @return The Petrinet.
+     * @throws NoSuchElementException If an error occurs during file parsing.
+     */
+	private Petrinet parsePetrinet(File pnmlFile) throws NoSuchElementException {
 		pnmlReader parser = new pnmlReader(pnmlFile);
 		parser.initParser();
-		try {
-			this.Pnet = parser.parsePNML();
-			this.Rgraph = new ReachabilityGraph(new Vertex(this.Pnet.getMarking()));
-			System.out.println(String.format("Controller - loadPetrinet: Loaded following petrinet from file\n\t%s%s\n",
-						pnmlFile.toString(), this.Pnet.toString()));
-		} catch (NoSuchElementException e) {
-			throw e;
-		}
+		Petrinet net = parser.parsePNML();
+		System.out.println(String.format("Controller - loadPetrinet: Loaded following petrinet from file\n\t%s%s\n",
+					pnmlFile.toString(), net.toString()));
+		return net;
 	}
 
 	/**
@@ -345,11 +712,10 @@ public class Controller {
      * @param id The ID of the transition to be fired.
      */
 	public void fire(String id) {
-		Transition t = this.Pnet.Transitions.get(id);
 		System.out.println("Controller - fire: Checking out transition " + id);
-		if (t.isReady()) {
+		if (this.Pnet.isEnabled(id)) {
 			Vertex before = new Vertex(this.Pnet.getMarking());
-			t.fire();
+			this.Pnet.fire(id);
 			Vertex after = new Vertex(this.Pnet.getMarking(), id);
 			this.Rgraph.addArc(before, after);
 			if (this.PNvisual != null) {
@@ -364,10 +730,11 @@ public class Controller {
 
 	/**
 	 * Check if the reachability graph is bounded.
-	 * If it is, it prints a message in the GUI for the user.
+	 * If it is not, it prints a message in the GUI for the user. A witness along an ancestor chain is known
+	 * in constant time, only otherwise all pairs of vertices are checked.
 	 */
 	public void checkBounded() {
-		if (!this.Rgraph.isBounded()) {
+		if (this.Rgraph.hasAncestorWitness() || !this.Rgraph.isBounded()) {
 			this.Frame.printMessage("The reachability graph is unbounded!");
 		}
 	}
@@ -386,10 +753,10 @@ public class Controller {
 			Place p = this.Pnet.Places.get(this.PNvisual.Highlight);
 
 			if (add) {
-				p.Tokens++;
+				this.Pnet.setTokens(this.PNvisual.Highlight, p.Tokens + 1);
 			} else {
 				if (p.Tokens > 0) {
-					p.Tokens--;
+					this.Pnet.setTokens(this.PNvisual.Highlight, p.Tokens - 1);
 				} else {
 					this.Frame.printMessage(String.format("Warning: Cannot remove Token from Place %s because it is already empty.", this.Highlight));
 				}
@@ -402,75 +769,320 @@ public class Controller {
 		}
 	}
 
-	private void explore(Stack<Tuple<LinkedList<Integer>, String>> stack, Set<Tuple<LinkedList<Integer>, String>> visited, Integer counter) {
-		for (Map.Entry<String, Transition> entry : this.Pnet.Transitions.entrySet()) {
-			String id = entry.getKey();
-			Transition t = entry.getValue();
-			if (t.isReady()) {
-				Tuple<LinkedList<Integer>, String> next = new Tuple<>(this.Pnet.getMarking(), id);
-				if (!visited.contains(next)) {
-					visited.add(next);
-					stack.push(next);
-					counter++;
-					System.out.println(String.format("Controller - explore: State %s and Transition %s added to stack  [%d]", next.e1, next.e2, counter));
-				} else {
-					System.out.println(String.format("Controller - explore: State %s and Transition %s already checked out.", this.Pnet.getMarking(), id));
+    /**
+     * Analyzes the Petrinet in the given PNML file to determine its properties.
+     * The state space is explored breadth-first by a {@link StateSpaceExplorer} on the compiled net,
+     * or by a {@link ParallelStateSpaceExplorer} if more than one thread and no depth limit is configured.
+     * If a store directory is set, the states are kept in a {@link MappedStateStore} instead
+     * and the reachability graph only holds the initial marking. The same holds for a bitstate exploration,
+     * which may miss markings; the estimated coverage is added to the count of nodes, and the verdict is unknown
+     * unless a witness m &lt; m' has been found.
+     * If an export directory is set, the graph is written to it while it is explored, see {@link #setExportDirectory(File, String)}.
+     * With symbolic analysis enabled, bounded Petrinets are analyzed by a {@link SymbolicExplorer},
+     * only unbounded ones are explored explicitly to find m and m'.
+     * With coverability analysis enabled, the coverability graph is built instead, which also names the unbounded places.
+     * The file is analyzed on its own copy of the Petrinet, the loaded Petrinet and the visualisations are not modified
+     * until the result is passed to {@link #showAnalysis(AnalysisResult)}, so the analysis may run on any thread.
+     *
+     * @param pnmlFile The PNML file to be analyzed.
+     * @return The verdict and the properties of the Petrinet, see {@link #analyzeFile(File, boolean)}.
+     * @throws NoSuchElementException If there is an issue with the file or during analysis.
+     */
+	public AnalysisResult analyzeFile(File pnmlFile) throws NoSuchElementException {
+		return this.analyzeFile(pnmlFile, false);
+	}
 
+    /**
+     * Analyzes the Petrinet in the given PNML file within the configured limits, see {@link #setLimits(long, int, long, long)}.
+     * Batch runs are limited to {@link #BATCH_TIMEOUT} seconds and {@link #BATCH_HEAP} of the maximum heap
+     * per file unless other limits are set. The explicit exploration reports its progress on the console.
+     * Dead markings, token bounds per place and transitions that never fire are collected in the same pass.
+     * After a symbolic analysis they are only collected for at most {@link #GRAPH_LIMIT} markings.
+     * The reachability graph to be shown is only built outside of batch runs and for at most {@link #GRAPH_LIMIT} markings,
+     * otherwise the shown graph holds the initial marking only.
+     * If P-invariants cover every place or the state equation bounds every place, the Petrinet is bounded without
+     * any exploration, see {@link #setInvariants(boolean)} and {@link #setStateEquation(boolean)}.
+     * All stages run under the same limits and share the timeout, and the running stage can be cancelled.
+     * With net reduction enabled, the explicit exploration runs on the reduced net, see {@link #setNetReduction(boolean)}.
+     *
+     * @param pnmlFile The PNML file to be analyzed.
+     * @param batch    true if the file is analyzed as part of a batch run.
+     * @return The verdict, the count of nodes and edges, the path to m' and m, m' if unbounded,
+     *         or the limit reached first, and the properties of the explored markings.
+     * @throws NoSuchElementException If there is an issue with the file or during analysis.
+     */
+	public AnalysisResult analyzeFile(File pnmlFile, boolean batch) throws NoSuchElementException {
+		Petrinet net = this.parsePetrinet(pnmlFile);
+		String structural = null;
+		SymbolicStateSpace space = null;
+		ExplorationResult result = null;
+		NetReduction reduction = null;
+		ReachabilityGraph graph;
+		StateProperties properties;
+		Boolean bounded;
+		// the structural, symbolic and explicit stages share the limits and can be cancelled alike
+		ExplorationLimits limits = this.createLimits(batch);
+		this.Running = limits;
+		try {
+			structural = this.proveBounded(net, limits);
+			if (this.Symbolic && structural == null) {
+				SymbolicExplorer symbolic = new SymbolicExplorer(net.compile(), net.getMarking());
+				symbolic.setLimits(limits);
+				space = symbolic.explore();
+			}
+			if (structural != null) {
+				graph = null;
+				properties = null;
+				bounded = true;
+			} else if (space != null && space.isWithinBound()) {
+				graph = batch ? null : space.toGraph(net.getMarking(), GRAPH_LIMIT, limits);
+				properties = space.getProperties(GRAPH_LIMIT);
+				bounded = true;
+			} else {
+				if (this.NetReduction) {
+					reduction = new NetReduction(net);
+					reduction = reduction.isReduced() ? reduction : null;
+				}
+				// an export of the reduced net would name neither the removed places nor the markings of the loaded one
+				GraphSink sink = reduction == null ? this.createSink(pnmlFile) : null;
+				if (reduction != null && this.ExportDirectory != null) {
+					System.out.println("Controller - analyzeFile: Not exporting the graph of the reduced net " + pnmlFile.getName());
 				}
+				result = this.explore(reduction != null ? reduction.getReducedNet() : net, limits, this.getCheckpointFile(pnmlFile), sink);
+				// the graph and the properties describe the markings of the reduced net
+				graph = reduction == null && !batch ? result.getGraph(GRAPH_LIMIT) : null;
+				properties = reduction == null ? result.Properties : null;
+				bounded = result.Bounded;
+			}
+		} finally {
+			this.Running = null;
+		}
+
+		boolean reduced = result != null && this.Reduction && !(result instanceof BitstateResult) && !(result instanceof CoverabilityGraph);
+		// the unbounded places of the reduced net leave out the removed ones
+		List<String> unbounded = result instanceof CoverabilityGraph && reduction == null ? ((CoverabilityGraph) result).UnboundedPlaces : null;
+		AnalysisResult analysis;
+		if (result != null && !result.isComplete()) {
+			analysis = new AnalysisResult(pnmlFile.getName(), AnalysisResult.Verdict.UNKNOWN,
+					String.format("%d / %d", result.Statistics.getStates(), result.Statistics.getEdges()), "", null, null, result.LimitReached, properties, false, unbounded);
+		} else if (bounded && result instanceof BitstateResult) {
+			// without a witness an approximate search may still have missed one
+			String count = String.format("%d / %d (bitstate, %.1f%% coverage)", result.Statistics.getStates(), result.Statistics.getEdges(),
+					((BitstateResult) result).Coverage * 100);
+			analysis = new AnalysisResult(pnmlFile.getName(), AnalysisResult.Verdict.UNKNOWN, count, "", null, null, null, properties, false, null);
+		} else if (bounded) {
+			String count;
+			if (graph != null) {
+				count = graph.getCount(); // amount of nodes
+			} else if (result != null) {
+				count = String.format("%d / %d", result.Statistics.getStates(), result.Statistics.getEdges());
+			} else if (structural != null) {
+				count = "- (" + structural + ")";
+			} else {
+				count = space.getStateCount() + " (symbolic)";
+			}
+			if (reduced) {
+				count += " (reduced)";
 			}
+			if (reduction != null) {
+				count += String.format(" (net reduced by %d places and %d transitions)", reduction.getRemovedPlaces(), reduction.getRemovedTransitions());
+			}
+			boolean exact = properties != null && !reduced;
+			analysis = new AnalysisResult(pnmlFile.getName(), AnalysisResult.Verdict.BOUNDED, count, "", null, null, null, properties, exact, unbounded);
+		} else if (reduction != null) {
+			List<String> path = reduction.liftPath(result.Path);
+			analysis = new AnalysisResult(pnmlFile.getName(), AnalysisResult.Verdict.UNBOUNDED,
+					String.format("%d / %d", result.Statistics.getStates(), result.Statistics.getEdges()), String.format("%d:(%s);", path.size(), String.join(",", path)),
+					reduction.liftMarking(result.M), reduction.liftMarking(result.MDash), null, null, false, null);
+		} else {
+			// path, m and m' of the same witness, which the graph may not hold as its first one
+			String path = String.format("%d:(%s);", result.Path.size(), String.join(",", result.Path));
+			analysis = new AnalysisResult(pnmlFile.getName(), AnalysisResult.Verdict.UNBOUNDED,
+					String.format("%d / %d", result.Statistics.getStates(), result.Statistics.getEdges()), path, result.M, result.MDash, null, properties, false,
+					unbounded);
 		}
+		System.out.println("Controller - analyzeFiles: " + analysis);
+		analysis.Net = net;
+		analysis.Graph = graph != null ? graph : new ReachabilityGraph(new Vertex(net.getMarking()));
+		return analysis;
 	}
 
     /**
-     * Analyzes the Petrinet in the given PNML file to determine its properties.
+     * Shows the analyzed Petrinet and its reachability graph in place of the loaded Petrinet and clears the undo history.
+     * Has to be called on the event dispatch thread.
      *
-     * @param pnmlFile The PNML file to be analyzed.
-     * @return An array containing information about the Petrinet properties.
-     *         Index 0: Filename
-     *         Index 1: "Yes" if bounded, "No" otherwise
-     *         Index 2: The count of nodes in the reachability graph or an empty string if unbounded
-     *         Index 3: M' value if unbounded or an empty string if bounded
-     *         Index 4: M value if unbounded or an empty string if bounded
-     * @throws NoSuchElementException If there is an issue with the file or during analysis.
+     * @param analysis The result of {@link #analyzeFile(File, boolean)}.
      */
-	public String[] analyzeFile(File pnmlFile) throws NoSuchElementException {
-		String[] parsedInfo = new String[5];
-		parsedInfo[0] = pnmlFile.getName();
+	public void showAnalysis(AnalysisResult analysis) {
+		this.resetStack();
+		this.Pnet = analysis.Net;
+		this.Rgraph = analysis.Graph;
+
+		if (this.PNvisual != null) {
+			this.PNvisual.updateGraph(this.Pnet);
+		}
+		if (this.RGvisual != null) {
+			this.RGvisual.updateGraph(this.Rgraph);
+		}
+	}
+
+	/**
+	 * Tries to prove a Petrinet bounded without exploring it, by P-invariants and by the state equation if enabled,
+	 * until the clock, the heap or the cancellation flag of the limits stops it.
+	 * Returns how it has been proven with the largest token bound, e.g. "3 P-invariants, k <= 2", or null.
+	 */
+	private String proveBounded(Petrinet net, ExplorationLimits limits) {
+		int[] initial = net.getMarking().toArray();
+		if (this.Invariants) {
+			PlaceInvariants invariants = new PlaceInvariants(net.compile(), () -> limits.check() != null);
+			if (invariants.isCovering()) {
+				return String.format("%d P-invariants, k <= %d", invariants.size(), Arrays.stream(invariants.getBounds(initial)).max().orElse(0));
+			}
+		}
+		if (this.StateEquation) {
+			StateEquation equation = new StateEquation(net.compile(), initial, () -> limits.check() != null);
+			if (equation.isBounded()) {
+				long[] bounds = equation.getBounds();
+				// a place without a bound here has been left when the limits stopped the simplex
+				if (Arrays.stream(bounds).anyMatch(bound -> bound < 0)) {
+					return "state equation";
+				}
+				return String.format("state equation, k <= %d", Arrays.stream(bounds).max().orElse(0));
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Creates the limits of an analysis from the configured ones.
+	 */
+	private ExplorationLimits createLimits(boolean batch) {
+		ExplorationLimits limits = new ExplorationLimits();
+		if (this.MaxStates > 0) {
+			limits.setMaxStates(this.MaxStates);
+		}
+		if (this.MaxDepth > 0) {
+			limits.setMaxDepth(this.MaxDepth);
+		}
+		if (this.Timeout > 0) {
+			limits.setMaxMillis(this.Timeout * 1000);
+		} else if (batch) {
+			limits.setMaxMillis(BATCH_TIMEOUT * 1000);
+		}
+		if (this.MaxHeap > 0) {
+			limits.setMaxHeap(this.MaxHeap << 20);
+		} else if (batch) {
+			limits.setMaxHeap((long) (Runtime.getRuntime().maxMemory() * BATCH_HEAP));
+		}
+		return limits;
+	}
+
+	/**
+	 * Prints the progress of a running exploration.
+	 */
+	private void printProgress(ExplorationStatistics statistics) {
+		System.out.println(String.format("Controller - progress: %d states visited, %d states/s, frontier %d",
+				statistics.getStates(), statistics.getStatesPerSecond(), statistics.getFrontier()));
+	}
+
+	/**
+	 * Creates the sink exporting the graph of a PNML file, or returns null if graphs are not exported.
+	 */
+	private GraphSink createSink(File pnmlFile) {
+		if (this.ExportDirectory == null) {
+			return null;
+		}
+		File file = new File(this.ExportDirectory, pnmlFile.getName() + "." + this.ExportFormat);
 		try {
-			this.loadPetrinet(pnmlFile);
-			Set<Tuple<LinkedList<Integer>, String>> visited = new HashSet<>();
-			Stack<Tuple<LinkedList<Integer>, String>> stateStack = new Stack<>();
-			Integer counter = 0;
-			this.explore(stateStack, visited, counter);
-			Boolean bounded = this.Rgraph.isBounded();
-
-			while (!stateStack.isEmpty()) {
-				Tuple<LinkedList<Integer>, String> set = stateStack.pop();
-				counter--;
-				System.out.println(String.format("Controller - analyzeFile: State %s and Transition %s taken from stack  [%d]", set.e1, set.e2, counter));
-				this.Pnet.updateMarking(set.e1);
-				this.fire(set.e2);
-				this.explore(stateStack, visited, counter);
-				bounded = this.Rgraph.isBounded();
-				if (!bounded) break;
+			switch (this.ExportFormat) {
+			case "dot":
+				return new DotGraphSink(file);
+			case "graphml":
+				return new GraphMLGraphSink(file);
+			default:
+				return new BinaryGraphSink(file);
 			}
+		} catch (IOException e) {
+			System.out.println("Controller - createSink: Could not create export file, building the graph instead: " + e.getMessage());
+			return null;
+		}
+	}
 
-			if (bounded) {
-				parsedInfo[1] = "Yes"; // is bounded as String
-				parsedInfo[2] = this.Rgraph.getCount(); // amount of nodes
-				parsedInfo[3] = "";
-				parsedInfo[4] = "";
-			} else {
-				parsedInfo[1] = "No"; // is bounded as String
-				parsedInfo[2] = this.Rgraph.getPath(); // path
-				parsedInfo[3] = this.Rgraph.getM() + ","; // m
-				parsedInfo[4] = this.Rgraph.getMDash(); // m'
+	/**
+	 * Explores the state space of the loaded or the reduced Petrinet with the configured explorer within the given limits.
+	 * With a checkpoint file or a sink, the exploration is sequential. It resumes from the checkpoint if there is one
+	 * and streams the graph to the sink, which is closed afterwards. Checkpoints and a sink together need a store
+	 * directory, otherwise the exploration runs without checkpoints.
+	 */
+	private ExplorationResult explore(Petrinet net, ExplorationLimits limits, File checkpoint, GraphSink sink) {
+		try {
+			return this.exploreWith(net, limits, checkpoint, sink);
+		} finally {
+			if (sink != null) {
+				sink.close();
+			}
+		}
+	}
+
+	private ExplorationResult exploreWith(Petrinet net, ExplorationLimits limits, File checkpoint, GraphSink sink) {
+		boolean sequential = checkpoint != null || sink != null;
+		if (this.Coverability && !sequential) {
+			CoverabilityExplorer explorer = new CoverabilityExplorer(net.compile(), net.getMarking());
+			explorer.setLimits(limits);
+			explorer.setProgressListener(this::printProgress);
+			return explorer.explore();
+		}
+		if (this.BitstateMemory > 0 && !sequential) {
+			BitstateExplorer explorer = new BitstateExplorer(net.compile(), net.getMarking(), (long) this.BitstateMemory << 20, BitstateExplorer.DEFAULT_HASHES);
+			explorer.setLimits(limits);
+			explorer.setProgressListener(this::printProgress);
+			return explorer.explore();
+		}
+		if (this.StoreDirectory != null) {
+			try (MappedStateStore store = new MappedStateStore(net.compile().getPlaceCount(), this.StoreDirectory)) {
+				return this.explore(new StateSpaceExplorer(net.compile(), net.getMarking(), store), limits, checkpoint, sink);
+			} catch (IOException e) {
+				System.out.println("Controller - explore: Could not create state store, exploring on the heap: " + e.getMessage());
+			}
+		}
+		// the parallel explorer has no breadth-first depths to limit
+		if (this.Threads > 1 && !this.Reduction && !sequential && this.MaxDepth <= 0) {
+			ParallelStateSpaceExplorer explorer = new ParallelStateSpaceExplorer(net.compile(), net.getMarking(), this.Threads, this.Capacity);
+			explorer.setLimits(limits);
+			explorer.setProgressListener(this::printProgress);
+			return explorer.explore();
+		}
+		if (checkpoint != null && sink != null) {
+			// the heap store keeps no arcs, so a resumed export would lack the arcs found before the checkpoint
+			System.out.println("Controller - explore: Exporting without checkpoints, they need a store directory.");
+			checkpoint = null;
+		}
+		return this.explore(new StateSpaceExplorer(net.compile(), net.getMarking()), limits, checkpoint, sink);
+	}
+
+	/**
+	 * Runs a sequential explorer, resuming from the checkpoint if it exists and belongs to the loaded Petrinet.
+	 */
+	private ExplorationResult explore(StateSpaceExplorer explorer, ExplorationLimits limits, File checkpoint, GraphSink sink) {
+		explorer.setReduction(this.Reduction);
+		explorer.setGraphSink(sink);
+		explorer.setLimits(limits);
+		explorer.setProgressListener(this::printProgress);
+		if (checkpoint == null) {
+			return explorer.explore();
+		}
+		explorer.setCheckpoint(checkpoint, this.CheckpointInterval * 1000);
+		if (checkpoint.exists()) {
+			try {
+				return explorer.resume(checkpoint);
+			} catch (IllegalArgumentException e) {
+				// thrown before any state has been restored
+				System.out.println("Controller - explore: Starting over, " + e.getMessage());
+			} catch (IOException e) {
+				throw new NoSuchElementException(String.format("Could not resume from checkpoint %s, delete it to start over. %s", checkpoint, e.getMessage()));
 			}
-			System.out.println("Controller - analyzeFiles: " + Arrays.toString(parsedInfo));
-			return parsedInfo;
-		} catch (NoSuchElementException e) {
-			throw e;
 		}
+		return explorer.explore();
 	}
 
     /**
@@ -509,7 +1121,7 @@ public class Controller {
      *
      * @param marking The marking to set for the Petrinet.
      */
-	public void setMarking(LinkedList<Integer> marking) {
+	public void setMarking(Marking marking) {
 		this.Frame.printMessage("Setting marking to " + marking.toString());
 		this.Pnet.updateMarking(marking);
 		this.PNvisual.updateGraph(this.Pnet);
@@ -160,10 +160,8 @@ public class PetrinetVisualisation extends Graph implements Serializable {
 		}
 
 
-		for (Map.Entry<String, Transition> entry : petrinet.Transitions.entrySet()) {
-			String id = entry.getKey();
-			Transition t = entry.getValue();
-			this.setTransitionStyle(id, t.isReady());
+		for (String id : petrinet.Transitions.keySet()) {
+			this.setTransitionStyle(id, petrinet.isEnabled(id));
 		}
 	}
 
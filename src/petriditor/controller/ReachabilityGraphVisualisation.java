@@ -1,8 +1,6 @@
 package propra.controller;
 
 import java.io.Serializable;
-import java.util.LinkedList;
-import java.util.Map;
 import java.util.NoSuchElementException;
 
 import org.graphstream.graph.Edge;
@@ -44,22 +42,18 @@ public class ReachabilityGraphVisualisation extends Graph implements Serializabl
      */
 	private void parseGraph(ReachabilityGraph graph) {
 
-		for (Map.Entry<Vertex, LinkedList<Vertex>> entry : graph.adjacentList.entrySet()) {
-			Vertex v = entry.getKey();
-			LinkedList<Vertex> adjList = entry.getValue();
+		for (int id = 0; id < graph.getVertexCount(); id++) {
+			Vertex v = graph.getVertex(id);
 			if (v.equals(graph.Initial)) {
 				this.addState(v, true);
 			} else {
 				this.addState(v,  false);
 			}
-			for (Vertex v2 : adjList) {
-				if (v2.equals(graph.Initial)) {
-					this.addState(v2, true);
-				} else {
-					this.addState(v2,  false);
-				}
-				this.addArc(v.toString(), v2.toString(), v2.ReachedFrom);
-			}
+		}
+		for (int arc = 0; arc < graph.getArcCount(); arc++) {
+			Vertex v = graph.getVertex(graph.getArcSource(arc));
+			Vertex v2 = graph.getVertex(graph.getArcTarget(arc));
+			this.addArc(v.toString(), v2.toString(), graph.getArcTransition(arc));
 		}
 	}
 
@@ -0,0 +1,473 @@
+package propra.model;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * An immutable, compiled form of a {@link Petrinet} for analysis purposes.
+ *
+ * Places and transitions are mapped to dense integer ids in the iteration order of
+ * {@link Petrinet#Places} and {@link Petrinet#Transitions}, so a marking is simply an
+ * int array whose index i holds the tokens of place i (the same order as {@link Petrinet#getMarking()}).
+ * The pre- and post-sets of all transitions are stored in compressed sparse row (CSR) form:
+ * the input places of transition t are {@code prePlace[preStart[t]] .. prePlace[preStart[t + 1] - 1]}
+ * together with the number of arcs (the weight) in {@code preWeight}, the same holds for the output places.
+ * The transposed pre-sets form the consumer index: the transitions consuming from place p are
+ * {@code consumerTransition[consumerStart[p]] .. consumerTransition[consumerStart[p + 1] - 1]}.
+ * Likewise the transposed post-sets form the producer index.
+ *
+ * Enabling and firing only touch these arrays, no maps are iterated and no tokens are boxed.
+ * None of the methods touch the {@link Place} objects of the Petrinet: markings are passed in as
+ * buffers, so successors can be computed while the Petrinet itself stays untouched, e.g. by the GUI.
+ */
+public class CompiledPetrinet {
+
+	/**
+	 * Dense place id -> place identifier of the Petrinet
+	 */
+	private final String[] PlaceIDs;
+
+	/**
+	 * Dense transition id -> transition identifier of the Petrinet
+	 */
+	private final String[] TransitionIDs;
+
+	/**
+	 * Place identifier -> dense place id
+	 */
+	private final Map<String, Integer> PlaceIndex;
+
+	/**
+	 * Transition identifier -> dense transition id
+	 */
+	private final Map<String, Integer> TransitionIndex;
+
+	/**
+	 * CSR arrays of the pre-sets (input places) of all transitions
+	 */
+	final int[] preStart, prePlace, preWeight;
+
+	/**
+	 * CSR arrays of the post-sets (output places) of all transitions
+	 */
+	final int[] postStart, postPlace, postWeight;
+
+	/**
+	 * CSR arrays of the consumers (transitions with the place in their pre-set) of all places
+	 */
+	final int[] consumerStart, consumerTransition, consumerWeight;
+
+	/**
+	 * CSR arrays of the producers (transitions with the place in their post-set) of all places
+	 */
+	final int[] producerStart, producerTransition;
+
+    /**
+     * Compiles the current structure of the given Petrinet.
+     * Later structural changes of the Petrinet are not reflected in the compiled form,
+     * the current tokens of the places are not part of it at all.
+     *
+     * @param petrinet The Petrinet to be compiled.
+     */
+	public CompiledPetrinet(Petrinet petrinet) {
+		int places = petrinet.Places.size();
+		int transitions = petrinet.Transitions.size();
+		this.PlaceIDs = new String[places];
+		this.TransitionIDs = new String[transitions];
+		this.PlaceIndex = new HashMap<>(places * 2);
+		this.TransitionIndex = new HashMap<>(transitions * 2);
+
+		int index = 0;
+		for (String id : petrinet.Places.keySet()) {
+			this.PlaceIDs[index] = id;
+			this.PlaceIndex.put(id, index);
+			index++;
+		}
+
+		int preCount = 0;
+		int postCount = 0;
+		for (Transition t : petrinet.Transitions.values()) {
+			preCount += t.Pre.size();
+			postCount += t.Post.size();
+		}
+
+		this.preStart = new int[transitions + 1];
+		this.postStart = new int[transitions + 1];
+		int[] prePlaces = new int[preCount];
+		int[] preWeights = new int[preCount];
+		int[] postPlaces = new int[postCount];
+		int[] postWeights = new int[postCount];
+		int preSize = 0;
+		int postSize = 0;
+		index = 0;
+		for (Map.Entry<String, Transition> entry : petrinet.Transitions.entrySet()) {
+			this.TransitionIDs[index] = entry.getKey();
+			this.TransitionIndex.put(entry.getKey(), index);
+			Transition t = entry.getValue();
+
+			this.preStart[index] = preSize;
+			for (Place p : t.Pre.values()) {
+				preSize = addArc(prePlaces, preWeights, this.preStart[index], preSize, this.indexOfPlace(petrinet.getID(p)));
+			}
+			this.postStart[index] = postSize;
+			for (Place p : t.Post.values()) {
+				postSize = addArc(postPlaces, postWeights, this.postStart[index], postSize, this.indexOfPlace(petrinet.getID(p)));
+			}
+			index++;
+		}
+		this.preStart[transitions] = preSize;
+		this.postStart[transitions] = postSize;
+
+		// parallel arcs have been merged into weights, trim the arrays
+		this.prePlace = trim(prePlaces, preSize);
+		this.preWeight = trim(preWeights, preSize);
+		this.postPlace = trim(postPlaces, postSize);
+		this.postWeight = trim(postWeights, postSize);
+
+		// transpose the pre-sets into the place -> consumer index
+		this.consumerStart = new int[places + 1];
+		this.consumerTransition = new int[preSize];
+		this.consumerWeight = new int[preSize];
+		for (int i = 0; i < preSize; i++) {
+			this.consumerStart[this.prePlace[i] + 1]++;
+		}
+		for (int p = 0; p < places; p++) {
+			this.consumerStart[p + 1] += this.consumerStart[p];
+		}
+		int[] fill = this.consumerStart.clone();
+		for (int t = 0; t < transitions; t++) {
+			for (int i = this.preStart[t]; i < this.preStart[t + 1]; i++) {
+				int slot = fill[this.prePlace[i]]++;
+				this.consumerTransition[slot] = t;
+				this.consumerWeight[slot] = this.preWeight[i];
+			}
+		}
+
+		// transpose the post-sets into the place -> producer index
+		this.producerStart = new int[places + 1];
+		this.producerTransition = new int[postSize];
+		for (int i = 0; i < postSize; i++) {
+			this.producerStart[this.postPlace[i] + 1]++;
+		}
+		for (int p = 0; p < places; p++) {
+			this.producerStart[p + 1] += this.producerStart[p];
+		}
+		fill = this.producerStart.clone();
+		for (int t = 0; t < transitions; t++) {
+			for (int i = this.postStart[t]; i < this.postStart[t + 1]; i++) {
+				this.producerTransition[fill[this.postPlace[i]]++] = t;
+			}
+		}
+		System.out.println(String.format("CompiledPetrinet - Compiled Petrinet with %d places, %d transitions and %d arcs.",
+				places, transitions, preCount + postCount));
+	}
+
+	/**
+	 * Adds an arc to the row starting at rowStart. Parallel arcs to the same place increase the weight.
+	 */
+	private static int addArc(int[] places, int[] weights, int rowStart, int size, int place) {
+		for (int i = rowStart; i < size; i++) {
+			if (places[i] == place) {
+				weights[i]++;
+				return size;
+			}
+		}
+		places[size] = place;
+		weights[size] = 1;
+		return size + 1;
+	}
+
+	private static int[] trim(int[] array, int size) {
+		if (array.length == size) {
+			return array;
+		}
+		int[] trimmed = new int[size];
+		System.arraycopy(array, 0, trimmed, 0, size);
+		return trimmed;
+	}
+
+    /**
+     * Returns the number of places.
+     *
+     * @return The number of places.
+     */
+	public int getPlaceCount() {
+		return this.PlaceIDs.length;
+	}
+
+    /**
+     * Returns the number of transitions.
+     *
+     * @return The number of transitions.
+     */
+	public int getTransitionCount() {
+		return this.TransitionIDs.length;
+	}
+
+    /**
+     * Returns the identifier of the place with the given dense id.
+     *
+     * @param place The dense id of the place.
+     * @return The identifier of the place in the Petrinet.
+     */
+	public String getPlaceID(int place) {
+		return this.PlaceIDs[place];
+	}
+
+    /**
+     * Returns the identifier of the transition with the given dense id.
+     *
+     * @param transition The dense id of the transition.
+     * @return The identifier of the transition in the Petrinet.
+     */
+	public String getTransitionID(int transition) {
+		return this.TransitionIDs[transition];
+	}
+
+    /**
+     * Returns the number of tokens a transition consumes from a place.
+     *
+     * @param transition The dense id of the transition.
+     * @param place      The dense id of the place.
+     * @return The weight of the arc from the place to the transition, 0 if there is none.
+     */
+	public int getInputWeight(int transition, int place) {
+		for (int i = this.preStart[transition]; i < this.preStart[transition + 1]; i++) {
+			if (this.prePlace[i] == place) {
+				return this.preWeight[i];
+			}
+		}
+		return 0;
+	}
+
+    /**
+     * Returns the number of tokens a transition produces on a place.
+     *
+     * @param transition The dense id of the transition.
+     * @param place      The dense id of the place.
+     * @return The weight of the arc from the transition to the place, 0 if there is none.
+     */
+	public int getOutputWeight(int transition, int place) {
+		for (int i = this.postStart[transition]; i < this.postStart[transition + 1]; i++) {
+			if (this.postPlace[i] == place) {
+				return this.postWeight[i];
+			}
+		}
+		return 0;
+	}
+
+    /**
+     * Returns the places connected to a transition by an input or output arc.
+     *
+     * @param transition The dense id of the transition.
+     * @return The dense ids of the places in the pre- and post-set, sorted and without duplicates.
+     */
+	public int[] getAdjacentPlaces(int transition) {
+		int[] places = new int[this.preStart[transition + 1] - this.preStart[transition] + this.postStart[transition + 1] - this.postStart[transition]];
+		int size = 0;
+		for (int i = this.preStart[transition]; i < this.preStart[transition + 1]; i++) {
+			places[size++] = this.prePlace[i];
+		}
+		for (int i = this.postStart[transition]; i < this.postStart[transition + 1]; i++) {
+			places[size++] = this.postPlace[i];
+		}
+		Arrays.sort(places);
+		int distinct = 0;
+		for (int i = 0; i < size; i++) {
+			if (distinct == 0 || places[distinct - 1] != places[i]) {
+				places[distinct++] = places[i];
+			}
+		}
+		return trim(places, distinct);
+	}
+
+    /**
+     * Returns a fingerprint of the arcs of the net, i.e. of the input and output places and weights of every
+     * transition. Nets compiled from the same places, transitions and arcs have the same fingerprint.
+     *
+     * @return A 64 bit hash of the pre- and post-sets.
+     */
+	public long fingerprint() {
+		long hash = 0xcbf29ce484222325L;
+		for (int[] array : new int[][] {this.preStart, this.prePlace, this.preWeight, this.postStart, this.postPlace, this.postWeight}) {
+			hash = (hash ^ array.length) * 0x100000001b3L;
+			for (int value : array) {
+				hash = (hash ^ value) * 0x100000001b3L;
+			}
+		}
+		return hash;
+	}
+
+    /**
+     * Returns the dense id of the place with the given identifier.
+     *
+     * @param id The identifier of the place.
+     * @return The dense id of the place.
+     * @throws NoSuchElementException If the place is not found.
+     */
+	public int indexOfPlace(String id) {
+		Integer index = this.PlaceIndex.get(id);
+		if (index == null) {
+			throw new NoSuchElementException(String.format("Place with id %s not found.", id));
+		}
+		return index;
+	}
+
+    /**
+     * Returns the dense id of the transition with the given identifier.
+     *
+     * @param id The identifier of the transition.
+     * @return The dense id of the transition.
+     * @throws NoSuchElementException If the transition is not found.
+     */
+	public int indexOfTransition(String id) {
+		Integer index = this.TransitionIndex.get(id);
+		if (index == null) {
+			throw new NoSuchElementException(String.format("Transition with id %s not found.", id));
+		}
+		return index;
+	}
+
+    /**
+     * Reads the current tokens of the places of the given Petrinet into a new marking array.
+     *
+     * @param petrinet The Petrinet this net has been compiled from.
+     * @return The current marking of the Petrinet indexed by dense place id.
+     */
+	public int[] readMarking(Petrinet petrinet) {
+		int[] marking = new int[this.PlaceIDs.length];
+		for (int p = 0; p < marking.length; p++) {
+			marking[p] = petrinet.Places.get(this.PlaceIDs[p]).Tokens;
+		}
+		return marking;
+	}
+
+    /**
+     * Checks if a transition is enabled in the given marking, i.e. each input place holds
+     * at least as many tokens as there are arcs to the transition.
+     *
+     * @param transition The dense id of the transition.
+     * @param marking    The marking indexed by dense place id.
+     * @return true if the transition is enabled, false otherwise.
+     */
+	public boolean isEnabled(int transition, int[] marking) {
+		for (int i = this.preStart[transition], end = this.preStart[transition + 1]; i < end; i++) {
+			if (marking[this.prePlace[i]] < this.preWeight[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+    /**
+     * Fires a transition on the given marking in place. The transition has to be enabled.
+     *
+     * @param transition The dense id of the transition.
+     * @param marking    The marking indexed by dense place id, it gets modified.
+     */
+	public void fire(int transition, int[] marking) {
+		for (int i = this.preStart[transition], end = this.preStart[transition + 1]; i < end; i++) {
+			marking[this.prePlace[i]] -= this.preWeight[i];
+		}
+		for (int i = this.postStart[transition], end = this.postStart[transition + 1]; i < end; i++) {
+			marking[this.postPlace[i]] += this.postWeight[i];
+		}
+	}
+
+    /**
+     * Computes the successor of a marking without modifying the source marking.
+     * The transition has to be enabled in the source marking.
+     *
+     * @param transition The dense id of the transition to fire.
+     * @param src        The source marking indexed by dense place id.
+     * @param dst        The buffer receiving the successor marking, it may be the same array as src.
+     */
+	public void successor(int transition, int[] src, int[] dst) {
+		if (src != dst) {
+			System.arraycopy(src, 0, dst, 0, this.PlaceIDs.length);
+		}
+		this.fire(transition, dst);
+	}
+
+    /**
+     * Computes the successor of a marking. The transition has to be enabled in the source marking.
+     *
+     * @param transition The dense id of the transition to fire.
+     * @param src        The source marking.
+     * @return The marking reached by firing the transition.
+     */
+	public Marking successor(int transition, Marking src) {
+		int[] dst = new int[this.PlaceIDs.length];
+		this.successor(transition, src.tokens(), dst);
+		return new Marking(dst);
+	}
+
+    /**
+     * Checks if a transition is enabled in the given marking.
+     *
+     * @param transition The dense id of the transition.
+     * @param marking    The marking.
+     * @return true if the transition is enabled, false otherwise.
+     */
+	public boolean isEnabled(int transition, Marking marking) {
+		return this.isEnabled(transition, marking.tokens());
+	}
+
+    /**
+     * Collects all transitions enabled in the given marking.
+     *
+     * @param marking     The marking indexed by dense place id.
+     * @param transitions The buffer receiving the dense ids of the enabled transitions in ascending order,
+     *                    at least {@link #getTransitionCount()} long.
+     * @return The number of enabled transitions written to the buffer.
+     */
+	public int enabled(int[] marking, int[] transitions) {
+		int count = 0;
+		for (int t = 0; t < this.TransitionIDs.length; t++) {
+			if (this.isEnabled(t, marking)) {
+				transitions[count] = t;
+				count++;
+			}
+		}
+		return count;
+	}
+
+    /**
+     * Collects all transitions enabled in the given marking.
+     *
+     * @param marking     The marking.
+     * @param transitions The buffer receiving the dense ids of the enabled transitions in ascending order,
+     *                    at least {@link #getTransitionCount()} long.
+     * @return The number of enabled transitions written to the buffer.
+     */
+	public int enabled(Marking marking, int[] transitions) {
+		return this.enabled(marking.tokens(), transitions);
+	}
+
+    /**
+     * Computes the successor of a marking that may contain {@link Marking#OMEGA}.
+     * Places holding ω keep ω, all other places are fired as usual. The transition has to be enabled,
+     * a place holding ω enables any arc weight.
+     *
+     * @param transition The dense id of the transition to fire.
+     * @param src        The source marking indexed by dense place id.
+     * @param dst        The buffer receiving the successor marking, it may be the same array as src.
+     */
+	public void omegaSuccessor(int transition, int[] src, int[] dst) {
+		if (src != dst) {
+			System.arraycopy(src, 0, dst, 0, this.PlaceIDs.length);
+		}
+		for (int i = this.preStart[transition], end = this.preStart[transition + 1]; i < end; i++) {
+			if (dst[this.prePlace[i]] != Marking.OMEGA) {
+				dst[this.prePlace[i]] -= this.preWeight[i];
+			}
+		}
+		for (int i = this.postStart[transition], end = this.postStart[transition + 1]; i < end; i++) {
+			if (dst[this.postPlace[i]] != Marking.OMEGA) {
+				dst[this.postPlace[i]] += this.postWeight[i];
+			}
+		}
+	}
+}
@@ -0,0 +1,306 @@
+package propra.model;
+
+import java.util.List;
+
+/**
+ * Answers dominance queries over a fixed set of markings: which markings does a given marking cover,
+ * and which markings cover it.
+ *
+ * If m' covers m and differs from it, m' holds more tokens in total, so the markings are sorted by their
+ * token sum and a query only scans the part of the order on the right side of the queried sum.
+ * That part is scanned in blocks of consecutive markings. Each block keeps the smallest and largest
+ * number of tokens of its markings per place, a bounding box that rules out the whole block with one
+ * comparison per place. Each marking additionally keeps a 64 bit signature of the places holding tokens,
+ * place i setting bit i mod 64, and a marking can only cover another one if its signature contains the other's.
+ *
+ * The index is a snapshot of the markings it has been built from. {@link Marking#OMEGA} is compared as
+ * a number larger than any other token count, so the index also works on coverability graphs.
+ */
+public class CoveringIndex {
+
+	/**
+	 * Number of consecutive markings sharing a bounding box
+	 */
+	private static final int BLOCK = 32;
+
+	/**
+	 * Number of places of each marking
+	 */
+	private final int Places;
+
+	/**
+	 * Id of the marking at each position of the order, ids are the positions in the list the index has been built from
+	 */
+	private final int[] Ids;
+
+	/**
+	 * Token sum of the marking at each position, ascending
+	 */
+	private final long[] Sums;
+
+	/**
+	 * Tokens of the markings in the order of the positions, Places entries each
+	 */
+	private final int[] Tokens;
+
+	/**
+	 * Signature of the marked places of each position
+	 */
+	private final long[] Signatures;
+
+	/**
+	 * Smallest and largest number of tokens per place of each block, Places entries each
+	 */
+	private final int[] BlockMin, BlockMax;
+
+	/**
+	 * Intersection and union of the signatures of each block
+	 */
+	private final long[] BlockAnd, BlockOr;
+
+    /**
+     * Builds the index over a list of markings of the same size.
+     *
+     * @param markings The markings, each identified by its position in the list.
+     * @throws IllegalArgumentException If the markings differ in size.
+     */
+	public CoveringIndex(List<Marking> markings) {
+		int n = markings.size();
+		this.Places = n == 0 ? 0 : markings.get(0).size();
+		long[] sums = new long[n];
+		int[] ids = new int[n];
+		for (int id = 0; id < n; id++) {
+			Marking marking = markings.get(id);
+			if (marking.size() != this.Places) {
+				throw new IllegalArgumentException(String.format("Marking %s has %d places, expected %d.", marking, marking.size(), this.Places));
+			}
+			sums[id] = sum(marking.tokens());
+			ids[id] = id;
+		}
+		sortBySum(ids, sums);
+		this.Ids = ids;
+		this.Sums = new long[n];
+		this.Tokens = new int[n * this.Places];
+		this.Signatures = new long[n];
+		for (int position = 0; position < n; position++) {
+			int[] tokens = markings.get(ids[position]).tokens();
+			this.Sums[position] = sums[ids[position]];
+			System.arraycopy(tokens, 0, this.Tokens, position * this.Places, this.Places);
+			this.Signatures[position] = signature(tokens);
+		}
+
+		int blocks = (n + BLOCK - 1) / BLOCK;
+		this.BlockMin = new int[blocks * this.Places];
+		this.BlockMax = new int[blocks * this.Places];
+		this.BlockAnd = new long[blocks];
+		this.BlockOr = new long[blocks];
+		for (int b = 0; b < blocks; b++) {
+			int first = b * BLOCK;
+			int last = Math.min(first + BLOCK, n);
+			System.arraycopy(this.Tokens, first * this.Places, this.BlockMin, b * this.Places, this.Places);
+			System.arraycopy(this.Tokens, first * this.Places, this.BlockMax, b * this.Places, this.Places);
+			this.BlockAnd[b] = -1L;
+			for (int position = first; position < last; position++) {
+				for (int i = 0; i < this.Places; i++) {
+					int tokens = this.Tokens[position * this.Places + i];
+					this.BlockMin[b * this.Places + i] = Math.min(this.BlockMin[b * this.Places + i], tokens);
+					this.BlockMax[b * this.Places + i] = Math.max(this.BlockMax[b * this.Places + i], tokens);
+				}
+				this.BlockAnd[b] &= this.Signatures[position];
+				this.BlockOr[b] |= this.Signatures[position];
+			}
+		}
+		System.out.println(String.format("CoveringIndex - Indexed %d markings in %d blocks.", n, blocks));
+	}
+
+    /**
+     * Returns the markings strictly covered by the given one, i.e. all m with m &lt; marking.
+     *
+     * @param marking The covering marking.
+     * @return The ids of the covered markings, in ascending order of their token sum.
+     */
+	public IntList getStrictlyCovered(Marking marking) {
+		IntList result = new IntList();
+		this.searchBelow(marking.tokens(), true, result, false);
+		return result;
+	}
+
+    /**
+     * Returns the markings strictly covering the given one, i.e. all m' with marking &lt; m'.
+     *
+     * @param marking The covered marking.
+     * @return The ids of the covering markings, in ascending order of their token sum.
+     */
+	public IntList getStrictlyCovering(Marking marking) {
+		IntList result = new IntList();
+		this.searchAbove(marking.tokens(), true, result, false);
+		return result;
+	}
+
+    /**
+     * Checks if one of the markings covers the given one, i.e. holds at least as many tokens in each place.
+     *
+     * @param marking The marking to be covered.
+     * @return true if an equal or strictly covering marking is part of the index.
+     */
+	public boolean isCovered(Marking marking) {
+		IntList result = new IntList(1);
+		this.searchAbove(marking.tokens(), false, result, true);
+		return result.size() > 0;
+	}
+
+    /**
+     * Returns the number of indexed markings.
+     *
+     * @return The number of markings.
+     */
+	public int size() {
+		return this.Ids.length;
+	}
+
+	/**
+	 * Collects the markings covered by the query, stopping after the first one if first is set.
+	 */
+	private void searchBelow(int[] query, boolean strict, IntList result, boolean first) {
+		this.checkSize(query);
+		long sum = sum(query);
+		long signature = signature(query);
+		// covered markings hold fewer tokens, or as many if they are equal
+		int end = this.bound(strict ? sum - 1 : sum);
+		for (int b = 0; b * BLOCK < end; b++) {
+			if ((this.BlockAnd[b] & ~signature) != 0 || !this.below(this.BlockMin, b * this.Places, query)) {
+				continue;
+			}
+			int last = Math.min(b * BLOCK + BLOCK, end);
+			for (int position = b * BLOCK; position < last; position++) {
+				if ((this.Signatures[position] & ~signature) == 0 && this.below(this.Tokens, position * this.Places, query)) {
+					result.add(this.Ids[position]);
+					if (first) {
+						return;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Collects the markings covering the query, stopping after the first one if first is set.
+	 */
+	private void searchAbove(int[] query, boolean strict, IntList result, boolean first) {
+		this.checkSize(query);
+		long sum = sum(query);
+		long signature = signature(query);
+		// covering markings hold more tokens, or as many if they are equal
+		int begin = this.bound(strict ? sum : sum - 1);
+		int n = this.Ids.length;
+		for (int b = begin / BLOCK; b * BLOCK < n; b++) {
+			if ((signature & ~this.BlockOr[b]) != 0 || !this.above(this.BlockMax, b * this.Places, query)) {
+				continue;
+			}
+			int last = Math.min(b * BLOCK + BLOCK, n);
+			for (int position = Math.max(b * BLOCK, begin); position < last; position++) {
+				if ((signature & ~this.Signatures[position]) == 0 && this.above(this.Tokens, position * this.Places, query)) {
+					result.add(this.Ids[position]);
+					if (first) {
+						return;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Checks if the tokens starting at offset are less than or equal to the query in each place.
+	 */
+	private boolean below(int[] tokens, int offset, int[] query) {
+		for (int i = 0; i < this.Places; i++) {
+			if (tokens[offset + i] > query[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Checks if the tokens starting at offset are greater than or equal to the query in each place.
+	 */
+	private boolean above(int[] tokens, int offset, int[] query) {
+		for (int i = 0; i < this.Places; i++) {
+			if (tokens[offset + i] < query[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the first position whose sum is greater than the given one.
+	 */
+	private int bound(long sum) {
+		int low = 0;
+		int high = this.Sums.length;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (this.Sums[middle] <= sum) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	private void checkSize(int[] query) {
+		if (this.Ids.length > 0 && query.length != this.Places) {
+			throw new IllegalArgumentException(String.format("Marking has %d places, expected %d.", query.length, this.Places));
+		}
+	}
+
+	private static long sum(int[] tokens) {
+		long sum = 0;
+		for (int t : tokens) {
+			sum += t;
+		}
+		return sum;
+	}
+
+	private static long signature(int[] tokens) {
+		long signature = 0;
+		for (int i = 0; i < tokens.length; i++) {
+			if (tokens[i] > 0) {
+				signature |= 1L << (i & 63);
+			}
+		}
+		return signature;
+	}
+
+	/**
+	 * Sorts the ids by their sums by a bottom-up merge sort, which is stable, so equal sums keep the order of the ids.
+	 */
+	private static void sortBySum(int[] ids, long[] sums) {
+		int n = ids.length;
+		int[] source = ids;
+		int[] target = new int[n];
+		for (int width = 1; width < n; width *= 2) {
+			for (int low = 0; low < n; low += 2 * width) {
+				int middle = Math.min(low + width, n);
+				int high = Math.min(low + 2 * width, n);
+				int i = low;
+				int j = middle;
+				for (int k = low; k < high; k++) {
+					if (i < middle && (j >= high || sums[source[i]] <= sums[source[j]])) {
+						target[k] = source[i++];
+					} else {
+						target[k] = source[j++];
+					}
+				}
+			}
+			int[] swap = source;
+			source = target;
+			target = swap;
+		}
+		if (source != ids) {
+			System.arraycopy(source, 0, ids, 0, n);
+		}
+	}
+}
@@ -0,0 +1,143 @@
+package propra.model;
+
+import java.util.BitSet;
+
+/**
+ * Keeps track of the enabled transitions of a {@link CompiledPetrinet} while its marking changes.
+ *
+ * For each transition the number of input places holding fewer tokens than required is counted.
+ * A transition is enabled if and only if that counter is zero. Whenever the tokens of a place change,
+ * only the consumers of that place are visited, so firing a transition costs time proportional to its
+ * local neighbourhood instead of the size of the whole net.
+ */
+public class EnabledSet {
+
+	/**
+	 * The compiled net the enabled transitions are tracked for
+	 */
+	private final CompiledPetrinet Net;
+
+	/**
+	 * The current marking indexed by dense place id
+	 */
+	private final int[] Marking;
+
+	/**
+	 * Number of insufficiently marked input places per transition
+	 */
+	private final int[] Missing;
+
+	/**
+	 * The currently enabled transitions
+	 */
+	private final BitSet Enabled;
+
+    /**
+     * Constructs the enabled set for the given marking.
+     *
+     * @param net     The compiled net.
+     * @param marking The initial marking indexed by dense place id, it is copied.
+     */
+	public EnabledSet(CompiledPetrinet net, int[] marking) {
+		this.Net = net;
+		this.Marking = marking.clone();
+		this.Missing = new int[net.getTransitionCount()];
+		this.Enabled = new BitSet(net.getTransitionCount());
+		for (int t = 0; t < this.Missing.length; t++) {
+			for (int i = net.preStart[t]; i < net.preStart[t + 1]; i++) {
+				if (this.Marking[net.prePlace[i]] < net.preWeight[i]) {
+					this.Missing[t]++;
+				}
+			}
+			if (this.Missing[t] == 0) {
+				this.Enabled.set(t);
+			}
+		}
+	}
+
+    /**
+     * Checks if a transition is enabled in the current marking.
+     *
+     * @param transition The dense id of the transition.
+     * @return true if the transition is enabled, false otherwise.
+     */
+	public boolean isEnabled(int transition) {
+		return this.Enabled.get(transition);
+	}
+
+    /**
+     * Returns the number of enabled transitions.
+     *
+     * @return The number of enabled transitions.
+     */
+	public int count() {
+		return this.Enabled.cardinality();
+	}
+
+    /**
+     * Returns the first enabled transition with a dense id equal to or greater than the given one.
+     *
+     * @param from The dense id to start searching from.
+     * @return The dense id of the next enabled transition or -1 if there is none.
+     */
+	public int nextEnabled(int from) {
+		return this.Enabled.nextSetBit(from);
+	}
+
+    /**
+     * Returns the tokens of a place in the current marking.
+     *
+     * @param place The dense id of the place.
+     * @return The number of tokens in the place.
+     */
+	public int getTokens(int place) {
+		return this.Marking[place];
+	}
+
+    /**
+     * Fires an enabled transition and updates the enabled state of the affected transitions.
+     *
+     * @param transition The dense id of the transition.
+     * @return true if the transition was enabled and has been fired, false otherwise.
+     */
+	public boolean fire(int transition) {
+		if (!this.Enabled.get(transition)) {
+			return false;
+		}
+		CompiledPetrinet net = this.Net;
+		for (int i = net.preStart[transition]; i < net.preStart[transition + 1]; i++) {
+			int p = net.prePlace[i];
+			this.setTokens(p, this.Marking[p] - net.preWeight[i]);
+		}
+		for (int i = net.postStart[transition]; i < net.postStart[transition + 1]; i++) {
+			int p = net.postPlace[i];
+			this.setTokens(p, this.Marking[p] + net.postWeight[i]);
+		}
+		return true;
+	}
+
+    /**
+     * Sets the tokens of a place and updates the enabled state of its consumers.
+     *
+     * @param place  The dense id of the place.
+     * @param tokens The new number of tokens.
+     */
+	public void setTokens(int place, int tokens) {
+		int before = this.Marking[place];
+		if (before == tokens) {
+			return;
+		}
+		this.Marking[place] = tokens;
+		CompiledPetrinet net = this.Net;
+		for (int i = net.consumerStart[place]; i < net.consumerStart[place + 1]; i++) {
+			int weight = net.consumerWeight[i];
+			boolean wasSufficient = before >= weight;
+			boolean isSufficient = tokens >= weight;
+			if (wasSufficient != isSufficient) {
+				int t = net.consumerTransition[i];
+				this.Missing[t] += isSufficient ? -1 : 1;
+				this.Enabled.set(t, this.Missing[t] == 0);
+			}
+		}
+	}
+}
@@ -0,0 +1,117 @@
+package propra.model;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * A growable list of primitive ints, used where a List of boxed Integers would cost an object per entry.
+ */
+public class IntList implements Serializable {
+	private static final long serialVersionUID = 5843127790364416231L;
+
+	/**
+	 * The values, only the first Size entries are used
+	 */
+	private int[] Values;
+
+	/**
+	 * Number of values in the list
+	 */
+	private int Size;
+
+    /**
+     * Constructs an empty list.
+     */
+	public IntList() {
+		this(16);
+	}
+
+    /**
+     * Constructs an empty list with the given initial capacity.
+     *
+     * @param capacity The initial capacity.
+     */
+	public IntList(int capacity) {
+		this.Values = new int[Math.max(capacity, 1)];
+	}
+
+    /**
+     * Appends a value to the end of the list.
+     *
+     * @param value The value to append.
+     */
+	public void add(int value) {
+		if (this.Size == this.Values.length) {
+			this.Values = Arrays.copyOf(this.Values, this.Size * 2);
+		}
+		this.Values[this.Size] = value;
+		this.Size++;
+	}
+
+    /**
+     * Returns the value at the given position.
+     *
+     * @param index The position of the value.
+     * @return The value at the position.
+     * @throws IndexOutOfBoundsException If the position is outside of the list.
+     */
+	public int get(int index) {
+		if (index >= this.Size) {
+			throw new IndexOutOfBoundsException(String.format("Index %d out of bounds for size %d.", index, this.Size));
+		}
+		return this.Values[index];
+	}
+
+    /**
+     * Replaces the value at the given position.
+     *
+     * @param index The position of the value.
+     * @param value The new value.
+     * @throws IndexOutOfBoundsException If the position is outside of the list.
+     */
+	public void set(int index, int value) {
+		if (index >= this.Size) {
+			throw new IndexOutOfBoundsException(String.format("Index %d out of bounds for size %d.", index, this.Size));
+		}
+		this.Values[index] = value;
+	}
+
+    /**
+     * Removes the last value of the list.
+     *
+     * @return The removed value.
+     * @throws IndexOutOfBoundsException If the list is empty.
+     */
+	public int removeLast() {
+		if (this.Size == 0) {
+			throw new IndexOutOfBoundsException("List is empty.");
+		}
+		this.Size--;
+		return this.Values[this.Size];
+	}
+
+    /**
+     * Returns the number of values in the list.
+     *
+     * @return The size of the list.
+     */
+	public int size() {
+		return this.Size;
+	}
+
+    /**
+     * Removes all values from the list.
+     */
+	public void clear() {
+		this.Size = 0;
+	}
+
+    /**
+     * Returns the values as an array of exactly the size of the list.
+     *
+     * @return A new array holding the values.
+     */
+	public int[] toArray() {
+		return Arrays.copyOf(this.Values, this.Size);
+	}
+}
@@ -0,0 +1,211 @@
+package propra.model;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * An immutable marking of a Petrinet, backed by a primitive int array.
+ * Index i holds the number of tokens in the i-th place of {@link Petrinet#Places}.
+ * The hash code is computed once on construction, so markings are cheap keys for hash based collections.
+ * In coverability analysis a place may hold {@link #OMEGA} tokens, standing for arbitrarily many.
+ */
+public final class Marking implements Serializable {
+	private static final long serialVersionUID = -3714419352018266504L;
+
+	/**
+	 * Token count standing for an unbounded number of tokens (ω)
+	 */
+	public static final int OMEGA = Integer.MAX_VALUE;
+
+	/**
+	 * Tokens per place
+	 */
+	private final int[] Tokens;
+
+	/**
+	 * Cached hash code of the tokens
+	 */
+	private final int Hash;
+
+    /**
+     * Constructs a marking from the given tokens. The marking takes ownership of the array,
+     * so it must not be modified by the caller afterwards.
+     *
+     * @param tokens The number of tokens per place.
+     */
+	public Marking(int[] tokens) {
+		this.Tokens = tokens;
+		this.Hash = Arrays.hashCode(tokens);
+	}
+
+    /**
+     * Parses a marking from its string representation, e.g. "(1|0|2)".
+     *
+     * @param marking The string representation as returned by {@link #toString()}, "ω" is parsed as {@link #OMEGA}.
+     * @return The parsed marking.
+     * @throws NumberFormatException If the string does not represent a marking.
+     */
+	public static Marking parse(String marking) {
+		// Remove the leading '(' and trailing ')' characters
+		String content = marking.substring(1, marking.length() - 1);
+		if (content.isEmpty()) {
+			return new Marking(new int[0]);
+		}
+		// Split the tokens of the places using the '|' delimiter
+		String[] tokens = content.split("\\|");
+		int[] result = new int[tokens.length];
+		for (int i = 0; i < tokens.length; i++) {
+			result[i] = tokens[i].equals("ω") ? OMEGA : Integer.parseInt(tokens[i]);
+		}
+		return new Marking(result);
+	}
+
+    /**
+     * Returns the number of places of this marking.
+     *
+     * @return The number of places.
+     */
+	public int size() {
+		return this.Tokens.length;
+	}
+
+    /**
+     * Returns the number of tokens in a place.
+     *
+     * @param place The index of the place.
+     * @return The number of tokens in the place.
+     */
+	public int get(int place) {
+		return this.Tokens[place];
+	}
+
+    /**
+     * Checks if any place of this marking holds {@link #OMEGA} tokens.
+     *
+     * @return true if the marking contains ω, false otherwise.
+     */
+	public boolean hasOmega() {
+		for (int tokens : this.Tokens) {
+			if (tokens == OMEGA) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+    /**
+     * Checks if this marking covers another one, i.e. holds at least as many tokens in each place.
+     *
+     * @param other The marking to compare with, of the same size.
+     * @return true if this marking is greater than or equal to the other one in each place.
+     */
+	public boolean covers(Marking other) {
+		for (int i = 0; i < this.Tokens.length; i++) {
+			if (this.Tokens[i] < other.Tokens[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+    /**
+     * Checks if this marking strictly covers another one, i.e. covers it and is not equal to it (m' &gt; m).
+     *
+     * @param other The marking to compare with, of the same size.
+     * @return true if this marking covers the other one and holds more tokens in at least one place.
+     */
+	public boolean strictlyCovers(Marking other) {
+		return strictlyCovers(this.Tokens, other.Tokens);
+	}
+
+    /**
+     * Checks if a marking given as token array strictly covers another one.
+     *
+     * @param marking The tokens per place of the covering marking.
+     * @param other   The tokens per place of the covered marking, of the same size.
+     * @return true if the first marking covers the other one and holds more tokens in at least one place.
+     */
+	public static boolean strictlyCovers(int[] marking, int[] other) {
+		boolean bigger = false;
+		for (int i = 0; i < marking.length; i++) {
+			if (marking[i] < other[i]) {
+				return false;
+			}
+			if (marking[i] > other[i]) {
+				bigger = true;
+			}
+		}
+		return bigger;
+	}
+
+    /**
+     * Returns a copy of the tokens of this marking.
+     *
+     * @return A new array holding the tokens per place.
+     */
+	public int[] toArray() {
+		return this.Tokens.clone();
+	}
+
+	/**
+	 * Gives classes of the model direct read access to the tokens without copying them.
+	 */
+	int[] tokens() {
+		return this.Tokens;
+	}
+
+    /**
+     * Copies the tokens of this marking into the given buffer.
+     *
+     * @param buffer The array to copy the tokens to, at least {@link #size()} long.
+     */
+	public void copyTo(int[] buffer) {
+		System.arraycopy(this.Tokens, 0, buffer, 0, this.Tokens.length);
+	}
+
+    /**
+     * Provides a string representation of the marking, e.g. "(1|0|2)" or "(1|ω|0)".
+     *
+     * @return A string representation of the tokens per place.
+     */
+	@Override
+	public String toString() {
+		StringBuilder result = new StringBuilder("(");
+		for (int i = 0; i < this.Tokens.length; i++) {
+			if (i > 0) {
+				result.append('|');
+			}
+			if (this.Tokens[i] == OMEGA) {
+				result.append("ω");
+			} else {
+				result.append(this.Tokens[i]);
+			}
+		}
+		result.append(")");
+		return result.toString();
+	}
+
+    /**
+     * Two markings are equal if they hold the same tokens in each place.
+     *
+     * @param obj The object to be compared with this marking.
+     * @return true if the specified object is an equal marking, false otherwise.
+     */
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) return true;
+		if (obj == null || getClass() != obj.getClass()) return false;
+		Marking marking = (Marking) obj;
+		return this.Hash == marking.Hash && Arrays.equals(this.Tokens, marking.Tokens);
+	}
+
+    /**
+     * Returns the cached hash code of this marking.
+     *
+     * @return A hash code value for this marking.
+     */
+	@Override
+	public int hashCode() {
+		return this.Hash;
+	}
+}
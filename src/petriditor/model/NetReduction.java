@@ -0,0 +1,500 @@
+package propra.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Shrinks a Petrinet by structural reduction rules that preserve boundedness, in the style of Berthelot and Murata.
+ *
+ * The rules are applied until none applies any more:
+ * <ul>
+ * <li>Redundant transitions: transitions whose firing does not change the marking, transitions with the same
+ * pre- and post-set as another one, and dead transitions consuming more tokens than a place can ever hold.</li>
+ * <li>Redundant places: places only read by self-loops with enough tokens, whose tokens never change,
+ * and places with the same pre- and post-set as another place and at least as many tokens,
+ * which hold a constant number of tokens more than that place and never disable a transition.</li>
+ * <li>Series places: a transition t with the single input place p1 and the single output place p2, both with weight 1,
+ * that is the only consumer of p1. The tokens of p1 can always be moved to p2, so p1 and t are removed,
+ * the producers of p1 produce into p2 and p2 holds the tokens of both.</li>
+ * <li>Series transitions: an empty place p with the single producer t1 and the single consumer t2, both with weight 1,
+ * where p is the only input place of t2 and t2 has output places. t2 can always fire right after t1,
+ * so p and t2 are removed and t1 produces the output of t2 directly.</li>
+ * </ul>
+ * Every marking reachable in the reduced net is the image of a reachable marking of the original net and vice versa,
+ * and a place of the reduced net is unbounded if and only if one of the places merged into it is,
+ * so the reduced net is bounded if and only if the original net is. The number of markings is not preserved.
+ *
+ * The applied rules are kept, so markings and firing sequences of the reduced net can be lifted back to the
+ * original net, see {@link #liftMarking(Marking)} and {@link #liftPath(List)}. A witness m &lt; m' of the reduced net
+ * lifts to a witness of the original net: lifted markings put the tokens of merged places on the place kept
+ * and of duplicated places on both, so they are ordered the same way.
+ */
+public class NetReduction {
+
+	/**
+	 * The kinds of rules that need to be undone when lifting a marking
+	 */
+	private enum Kind {
+		CONSTANT_PLACE, DUPLICATE_PLACE, SERIES_PLACE, SERIES_TRANSITION
+	}
+
+	/**
+	 * An applied rule: the removed place, the removed transition, the place or transition it has been merged into
+	 * and the tokens of a constant place or the surplus of a duplicate place, -1 where not used
+	 */
+	private static final class Rule {
+		final Kind Kind;
+		final int Place, Transition, Other, Tokens;
+
+		Rule(Kind kind, int place, int transition, int other, int tokens) {
+			this.Kind = kind;
+			this.Place = place;
+			this.Transition = transition;
+			this.Other = other;
+			this.Tokens = tokens;
+		}
+	}
+
+	/**
+	 * The original net and its compiled form
+	 */
+	private final Petrinet Original;
+	private final CompiledPetrinet Net;
+
+	/**
+	 * The reduced net, using the identifiers of the original net
+	 */
+	private final Petrinet Reduced;
+
+	/**
+	 * The applied rules in the order they have been applied
+	 */
+	private final List<Rule> Rules = new ArrayList<>();
+
+	/**
+	 * Weighted pre- and post-set of each transition and producers and consumers of each place while reducing,
+	 * null once removed
+	 */
+	private final TreeMap<Integer, Integer>[] Pre, Post, Producers, Consumers;
+
+	/**
+	 * Tokens of each place while reducing
+	 */
+	private final int[] Tokens;
+
+	/**
+	 * The original transitions each transition of the reduced net stands for, in firing order
+	 */
+	private final List<List<Integer>> Expansion = new ArrayList<>();
+
+	/**
+	 * Number of places and transitions removed by each kind of rule
+	 */
+	private int SeriesPlaces, SeriesTransitions, RedundantPlaces, RedundantTransitions;
+
+    /**
+     * Reduces a Petrinet. The Petrinet itself is not modified.
+     *
+     * @param petrinet The Petrinet to be reduced, with its current marking as initial marking.
+     */
+	public NetReduction(Petrinet petrinet) {
+		this.Original = petrinet;
+		this.Net = petrinet.compile();
+		int places = this.Net.getPlaceCount();
+		int transitions = this.Net.getTransitionCount();
+		this.Tokens = this.Net.readMarking(petrinet);
+		this.Pre = createMaps(transitions);
+		this.Post = createMaps(transitions);
+		this.Producers = createMaps(places);
+		this.Consumers = createMaps(places);
+		for (int t = 0; t < transitions; t++) {
+			for (int i = this.Net.preStart[t]; i < this.Net.preStart[t + 1]; i++) {
+				this.addInput(t, this.Net.prePlace[i], this.Net.preWeight[i]);
+			}
+			for (int i = this.Net.postStart[t]; i < this.Net.postStart[t + 1]; i++) {
+				this.addOutput(t, this.Net.postPlace[i], this.Net.postWeight[i]);
+			}
+			this.Expansion.add(new ArrayList<>(Arrays.asList(t)));
+		}
+
+		boolean changed = true;
+		while (changed) {
+			changed = this.removeRedundantTransitions();
+			changed |= this.removeConstantPlaces();
+			changed |= this.removeDuplicatePlaces();
+			changed |= this.fuseSeriesPlaces();
+			changed |= this.fuseSeriesTransitions();
+		}
+		this.Reduced = this.build();
+		System.out.println("NetReduction - NetReduction: " + this);
+	}
+
+	private void addInput(int transition, int place, int weight) {
+		this.Pre[transition].merge(place, weight, Integer::sum);
+		this.Consumers[place].merge(transition, weight, Integer::sum);
+	}
+
+	private void addOutput(int transition, int place, int weight) {
+		this.Post[transition].merge(place, weight, Integer::sum);
+		this.Producers[place].merge(transition, weight, Integer::sum);
+	}
+
+	private void removeTransition(int transition) {
+		for (int place : this.Pre[transition].keySet()) {
+			this.Consumers[place].remove(transition);
+		}
+		for (int place : this.Post[transition].keySet()) {
+			this.Producers[place].remove(transition);
+		}
+		this.Pre[transition] = null;
+		this.Post[transition] = null;
+	}
+
+	/**
+	 * Removes a place from the sets of its transitions, its tokens are kept for lifting.
+	 */
+	private void removePlace(int place) {
+		for (int transition : this.Consumers[place].keySet()) {
+			this.Pre[transition].remove(place);
+		}
+		for (int transition : this.Producers[place].keySet()) {
+			this.Post[transition].remove(place);
+		}
+		this.Consumers[place] = null;
+		this.Producers[place] = null;
+	}
+
+	/**
+	 * Removes transitions that do not change the marking and transitions with the same pre- and post-set as another one.
+	 */
+	private boolean removeRedundantTransitions() {
+		boolean changed = false;
+		Map<List<Map<Integer, Integer>>, Integer> seen = new HashMap<>();
+		for (int t = 0; t < this.Pre.length; t++) {
+			if (this.Pre[t] == null) {
+				continue;
+			}
+			if (this.Pre[t].equals(this.Post[t]) || seen.putIfAbsent(Arrays.asList(this.Pre[t], this.Post[t]), t) != null) {
+				this.removeTransition(t);
+				this.RedundantTransitions++;
+				changed = true;
+			}
+		}
+		return changed;
+	}
+
+	/**
+	 * Removes the transitions consuming more tokens than a place can ever hold, i.e. more than it holds initially
+	 * if every producer is a self-loop. Places whose transitions are all self-loops are removed as well, their tokens never change.
+	 */
+	private boolean removeConstantPlaces() {
+		boolean changed = false;
+		for (int p = 0; p < this.Tokens.length; p++) {
+			if (this.Consumers[p] == null) {
+				continue;
+			}
+			boolean selfLoops = true;
+			for (int t : this.Producers[p].keySet()) {
+				selfLoops &= this.Producers[p].get(t).equals(this.Consumers[p].get(t));
+			}
+			if (!selfLoops) {
+				continue;
+			}
+			for (Map.Entry<Integer, Integer> consumer : new TreeMap<>(this.Consumers[p]).entrySet()) {
+				if (consumer.getValue() > this.Tokens[p]) {
+					this.removeTransition(consumer.getKey());
+					this.RedundantTransitions++;
+					changed = true;
+				}
+			}
+			if (this.Consumers[p].size() == this.Producers[p].size()) {
+				this.removePlace(p);
+				this.Rules.add(new Rule(Kind.CONSTANT_PLACE, p, -1, -1, this.Tokens[p]));
+				this.RedundantPlaces++;
+				changed = true;
+			}
+		}
+		return changed;
+	}
+
+	/**
+	 * Removes places with the same producers and consumers as another place and at least as many tokens.
+	 */
+	private boolean removeDuplicatePlaces() {
+		boolean changed = false;
+		Map<List<Map<Integer, Integer>>, List<Integer>> groups = new HashMap<>();
+		for (int p = 0; p < this.Tokens.length; p++) {
+			if (this.Consumers[p] != null) {
+				groups.computeIfAbsent(Arrays.asList(new TreeMap<>(this.Producers[p]), new TreeMap<>(this.Consumers[p])), key -> new ArrayList<>()).add(p);
+			}
+		}
+		for (List<Integer> group : groups.values()) {
+			if (group.size() < 2) {
+				continue;
+			}
+			int kept = group.get(0);
+			for (int p : group) {
+				if (this.Tokens[p] < this.Tokens[kept]) {
+					kept = p;
+				}
+			}
+			for (int p : group) {
+				if (p != kept) {
+					this.removePlace(p);
+					this.Rules.add(new Rule(Kind.DUPLICATE_PLACE, p, -1, kept, this.Tokens[p] - this.Tokens[kept]));
+					this.RedundantPlaces++;
+					changed = true;
+				}
+			}
+		}
+		return changed;
+	}
+
+	/**
+	 * Merges the input place of transitions moving single tokens from a place they alone consume into its output place.
+	 */
+	private boolean fuseSeriesPlaces() {
+		boolean changed = false;
+		for (int t = 0; t < this.Pre.length; t++) {
+			if (this.Pre[t] == null || this.Pre[t].size() != 1 || this.Post[t].size() != 1 || this.Expansion.get(t).size() != 1) {
+				continue;
+			}
+			int input = this.Pre[t].firstKey();
+			int output = this.Post[t].firstKey();
+			if (input == output || this.Pre[t].get(input) != 1 || this.Post[t].get(output) != 1 || this.Consumers[input].size() != 1) {
+				continue;
+			}
+			this.removeTransition(t);
+			for (Map.Entry<Integer, Integer> producer : this.Producers[input].entrySet()) {
+				this.Post[producer.getKey()].merge(output, producer.getValue(), Integer::sum);
+				this.Producers[output].merge(producer.getKey(), producer.getValue(), Integer::sum);
+			}
+			this.removePlace(input);
+			this.Tokens[output] += this.Tokens[input];
+			this.Rules.add(new Rule(Kind.SERIES_PLACE, input, t, output, -1));
+			this.SeriesPlaces++;
+			changed = true;
+		}
+		return changed;
+	}
+
+	/**
+	 * Merges transitions into the single producer of their only input place if that place is empty and has no other consumer.
+	 */
+	private boolean fuseSeriesTransitions() {
+		boolean changed = false;
+		for (int p = 0; p < this.Tokens.length; p++) {
+			if (this.Consumers[p] == null || this.Tokens[p] != 0 || this.Producers[p].size() != 1 || this.Consumers[p].size() != 1) {
+				continue;
+			}
+			int producer = this.Producers[p].firstKey();
+			int consumer = this.Consumers[p].firstKey();
+			if (producer == consumer || this.Producers[p].get(producer) != 1 || this.Consumers[p].get(consumer) != 1
+					|| this.Pre[consumer].size() != 1 || this.Post[consumer].isEmpty()) {
+				continue;
+			}
+			TreeMap<Integer, Integer> output = this.Post[consumer];
+			this.removeTransition(consumer);
+			this.removePlace(p);
+			for (Map.Entry<Integer, Integer> arc : output.entrySet()) {
+				this.addOutput(producer, arc.getKey(), arc.getValue());
+			}
+			this.Expansion.get(producer).addAll(this.Expansion.get(consumer));
+			this.Rules.add(new Rule(Kind.SERIES_TRANSITION, p, consumer, producer, -1));
+			this.SeriesTransitions++;
+			changed = true;
+		}
+		return changed;
+	}
+
+	/**
+	 * Builds the reduced net from the remaining places and transitions, arcs with a weight become parallel arcs.
+	 */
+	private Petrinet build() {
+		Petrinet reduced = new Petrinet();
+		for (int p = 0; p < this.Tokens.length; p++) {
+			if (this.Consumers[p] != null) {
+				String id = this.Net.getPlaceID(p);
+				reduced.addPlace(id, this.Tokens[p], this.Original.Places.get(id).Name);
+			}
+		}
+		int arcs = 0;
+		for (int t = 0; t < this.Pre.length; t++) {
+			if (this.Pre[t] == null) {
+				continue;
+			}
+			String id = this.Net.getTransitionID(t);
+			reduced.addTransition(id, this.Original.Transitions.get(id).Name);
+			for (Map.Entry<Integer, Integer> arc : this.Pre[t].entrySet()) {
+				for (int i = 0; i < arc.getValue(); i++) {
+					reduced.addArc("r" + arcs++, this.Net.getPlaceID(arc.getKey()), id);
+				}
+			}
+			for (Map.Entry<Integer, Integer> arc : this.Post[t].entrySet()) {
+				for (int i = 0; i < arc.getValue(); i++) {
+					reduced.addArc("r" + arcs++, id, this.Net.getPlaceID(arc.getKey()));
+				}
+			}
+		}
+		Place initial = this.Original.InitialPlace;
+		reduced.InitialPlace = initial != null && reduced.Places.containsKey(initial.ID) ? reduced.Places.get(initial.ID)
+				: reduced.Places.values().stream().findFirst().orElse(null);
+		reduced.setInitialMarking();
+		return reduced;
+	}
+
+    /**
+     * Returns the reduced net. Its places and transitions keep the identifiers of the original net.
+     *
+     * @return The reduced Petrinet with the initial marking of the reduction.
+     */
+	public Petrinet getReducedNet() {
+		return this.Reduced;
+	}
+
+    /**
+     * Checks if any rule has been applied.
+     *
+     * @return true if the reduced net is smaller than the original net.
+     */
+	public boolean isReduced() {
+		return this.SeriesPlaces + this.SeriesTransitions + this.RedundantPlaces + this.RedundantTransitions > 0;
+	}
+
+    /**
+     * Returns the number of places removed.
+     *
+     * @return The places of the original net minus the places of the reduced net.
+     */
+	public int getRemovedPlaces() {
+		return this.Net.getPlaceCount() - this.Reduced.Places.size();
+	}
+
+    /**
+     * Returns the number of transitions removed.
+     *
+     * @return The transitions of the original net minus the transitions of the reduced net.
+     */
+	public int getRemovedTransitions() {
+		return this.Net.getTransitionCount() - this.Reduced.Transitions.size();
+	}
+
+    /**
+     * Lifts a marking of the reduced net to the original net: merged places are empty, constant places hold their tokens
+     * and duplicate places the tokens of the place they duplicate plus their surplus.
+     * The lifted marking of a reachable marking is reachable, see {@link #liftPath(List)}.
+     *
+     * @param marking A marking of the reduced net, in the order of its places.
+     * @return The marking of the original net, in the order of its places.
+     */
+	public Marking liftMarking(Marking marking) {
+		CompiledPetrinet reduced = this.Reduced.compile();
+		int[] lifted = new int[this.Net.getPlaceCount()];
+		for (int p = 0; p < marking.size(); p++) {
+			lifted[this.Net.indexOfPlace(reduced.getPlaceID(p))] = marking.get(p);
+		}
+		for (int i = this.Rules.size() - 1; i >= 0; i--) {
+			Rule rule = this.Rules.get(i);
+			switch (rule.Kind) {
+			case CONSTANT_PLACE:
+				lifted[rule.Place] = rule.Tokens;
+				break;
+			case DUPLICATE_PLACE:
+				lifted[rule.Place] = lifted[rule.Other] + rule.Tokens;
+				break;
+			default:
+				lifted[rule.Place] = 0;
+			}
+		}
+		return new Marking(lifted);
+	}
+
+    /**
+     * Lifts a firing sequence of the reduced net from its initial marking to the original net.
+     * Fused transitions fire the original transitions they stand for, and after every transition the tokens of
+     * merged places are moved on to the place kept. The lifted sequence leads to the lifted marking
+     * after every prefix of the given sequence, which is checked while replaying it on both nets.
+     *
+     * @param path The IDs of the transitions of the reduced net.
+     * @return The IDs of the transitions of the original net.
+     * @throws IllegalArgumentException If the sequence cannot be fired in the reduced net.
+     */
+	public List<String> liftPath(List<String> path) {
+		CompiledPetrinet reduced = this.Reduced.compile();
+		int[] marking = reduced.readMarking(this.Reduced);
+		int[] lifted = this.Net.readMarking(this.Original);
+		List<String> result = new ArrayList<>();
+		this.moveSeriesTokens(lifted, result);
+		for (String id : path) {
+			int transition = reduced.indexOfTransition(id);
+			if (!reduced.isEnabled(transition, marking)) {
+				throw new IllegalArgumentException(String.format("Transition %s is not enabled in %s.", id, new Marking(marking)));
+			}
+			reduced.fire(transition, marking);
+			for (int t : this.Expansion.get(this.Net.indexOfTransition(id))) {
+				this.fire(t, lifted, result);
+				this.moveSeriesTokens(lifted, result);
+			}
+			if (!this.liftMarking(new Marking(marking)).equals(new Marking(lifted))) {
+				throw new IllegalStateException(String.format("Lifted marking %s differs from %s after %s.",
+						new Marking(lifted), this.liftMarking(new Marking(marking)), id));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Moves the tokens of merged series places on by firing the transitions removed with them while they are enabled.
+	 * A transition removed later may produce into a place merged earlier, so this may take more than one pass.
+	 * Within the original transitions of a fused transition, a removed transition may also wait for a duplicate place
+	 * to catch up, after the last one all merged places are empty again.
+	 */
+	private void moveSeriesTokens(int[] marking, List<String> path) {
+		boolean moved = true;
+		while (moved) {
+			moved = false;
+			for (Rule rule : this.Rules) {
+				while (rule.Kind == Kind.SERIES_PLACE && marking[rule.Place] > 0 && this.Net.isEnabled(rule.Transition, marking)) {
+					this.fire(rule.Transition, marking, path);
+					moved = true;
+				}
+			}
+		}
+	}
+
+	private void fire(int transition, int[] marking, List<String> path) {
+		if (!this.Net.isEnabled(transition, marking)) {
+			throw new IllegalStateException(String.format("Transition %s of the original net is not enabled in %s.",
+					this.Net.getTransitionID(transition), new Marking(marking)));
+		}
+		this.Net.fire(transition, marking);
+		path.add(this.Net.getTransitionID(transition));
+	}
+
+    /**
+     * Provides a string representation of the reduction.
+     *
+     * @return A string with the removed places and transitions by kind of rule.
+     */
+	@Override
+	public String toString() {
+		return String.format("%d places and %d transitions removed (%d series places, %d series transitions, %d redundant places, %d redundant transitions)",
+				this.getRemovedPlaces(), this.getRemovedTransitions(), this.SeriesPlaces, this.SeriesTransitions, this.RedundantPlaces, this.RedundantTransitions);
+	}
+
+	/**
+	 * Creates an array of empty maps, arrays of a generic type cannot be created directly.
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private static TreeMap<Integer, Integer>[] createMaps(int size) {
+		TreeMap<Integer, Integer>[] maps = new TreeMap[size];
+		for (int i = 0; i < size; i++) {
+			maps[i] = new TreeMap<>();
+		}
+		return maps;
+	}
+}
@@ -9,7 +9,6 @@ import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.LinkedHashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
@@ -27,9 +26,9 @@ public class Petrinet implements Serializable {
 	public Place InitialPlace;
 
 	/**
-	 * List storing the initial marking of the Petrinet
+	 * The initial marking of the Petrinet
 	 */
-	public LinkedList<Integer> InitialMarking;
+	public Marking InitialMarking;
 
 	/**
 	 * HashMap ID -> Place containing all Places
@@ -41,6 +40,16 @@ public class Petrinet implements Serializable {
 	 */
 	public LinkedHashMap<String, Transition> Transitions;
 
+	/**
+	 * Compiled structure of the Petrinet, built on demand and dropped on structural changes
+	 */
+	private transient CompiledPetrinet Compiled;
+
+	/**
+	 * Enabled transitions of the current marking, built on demand and kept up to date while firing
+	 */
+	private transient EnabledSet Enabled;
+
     /**
      * Default constructor. Initializes a new Petrinet with empty places and transitions.
      */
@@ -48,7 +57,7 @@ public class Petrinet implements Serializable {
 		this.Places = new LinkedHashMap<>();
 		this.Transitions = new LinkedHashMap<>();
 		this.InitialPlace = Places.get("p1");
-		this.InitialMarking = new LinkedList<>();
+		this.InitialMarking = new Marking(new int[0]);
 	}
 
     /**
@@ -60,7 +69,7 @@ public class Petrinet implements Serializable {
 		this.Places = new LinkedHashMap<>();
 		this.Transitions = new LinkedHashMap<>();
 		this.InitialPlace = Places.get(id);
-		this.InitialMarking = new LinkedList<>();
+		this.InitialMarking = new Marking(new int[0]);
 	}
 
     /**
@@ -85,6 +94,64 @@ public class Petrinet implements Serializable {
 	    }
 	}
 
+    /**
+     * Compiles the current structure of the Petrinet into its immutable array form.
+     * The compiled form is cached until the structure of the Petrinet changes.
+     *
+     * @return A CompiledPetrinet using dense ids for places and transitions.
+     */
+	public CompiledPetrinet compile() {
+		if (this.Compiled == null) {
+			this.Compiled = new CompiledPetrinet(this);
+		}
+		return this.Compiled;
+	}
+
+	/**
+	 * Drops the compiled structure and the enabled transitions after a structural change.
+	 */
+	private void invalidate() {
+		this.Compiled = null;
+		this.Enabled = null;
+	}
+
+	private EnabledSet getEnabledSet() {
+		if (this.Enabled == null) {
+			CompiledPetrinet net = this.compile();
+			this.Enabled = new EnabledSet(net, net.readMarking(this));
+		}
+		return this.Enabled;
+	}
+
+    /**
+     * Checks if a transition is enabled in the current marking.
+     * The enabled transitions are tracked incrementally, so this is a constant time lookup.
+     *
+     * @param id The identifier of the transition.
+     * @return true if the transition is enabled, false otherwise.
+     * @throws NoSuchElementException If the transition is not found.
+     */
+	public boolean isEnabled(String id) {
+		return this.getEnabledSet().isEnabled(this.compile().indexOfTransition(id));
+	}
+
+    /**
+     * Fires a transition if it is enabled in the current marking. Only the enabled state of the
+     * transitions consuming from the places touched by the transition is re-evaluated.
+     *
+     * @param id The identifier of the transition.
+     * @return true if the transition was enabled and has been fired, false otherwise.
+     * @throws NoSuchElementException If the transition is not found.
+     */
+	public boolean fire(String id) {
+		EnabledSet enabled = this.getEnabledSet();
+		if (!enabled.fire(this.compile().indexOfTransition(id))) {
+			return false;
+		}
+		this.Transitions.get(id).fire();
+		return true;
+	}
+
     /**
      * Sorts the places of the Petrinet in alphabetical order based on their identifiers.
      */
@@ -97,36 +164,35 @@ public class Petrinet implements Serializable {
             sortedPlaces.put(entry.getKey(), entry.getValue());
         }
         this.Places = sortedPlaces;
+        this.invalidate();
 	}
 
 	/**
-     * Retrieves the identifier of a given place.
+     * Retrieves the identifier of a given place. This is a constant time lookup,
+     * places know their own identifier.
      *
      * @param p The place whose identifier is to be retrieved.
      * @return The identifier of the place.
      * @throws NoSuchElementException If the place is not found.
      */
 	public String getID(Place p) {
-		for (Map.Entry<String, Place> entry : Places.entrySet()) {
-			if (entry.getValue() == p) {
-				return entry.getKey();
-			}
+		if (p.ID != null && this.Places.get(p.ID) == p) {
+			return p.ID;
 		}
 		throw new NoSuchElementException(String.format("Place with name %s not found.", p.Name));
 	}
 
     /**
-     * Retrieves the identifier of a given transition.
+     * Retrieves the identifier of a given transition. This is a constant time lookup,
+     * transitions know their own identifier.
      *
      * @param t The transition whose identifier is to be retrieved.
      * @return The identifier of the transition.
      * @throws NoSuchElementException If the transition is not found.
      */
 	public String getID(Transition t) {
-		for (Map.Entry<String, Transition> entry : Transitions.entrySet()) {
-			if (entry.getValue() == t) {
-				return entry.getKey();
-			}
+		if (t.ID != null && this.Transitions.get(t.ID) == t) {
+			return t.ID;
 		}
 		throw new NoSuchElementException(String.format("Transition with name %s not found.", t.Name));
 	}
@@ -134,16 +200,16 @@ public class Petrinet implements Serializable {
     /**
      * Returns the current marking of the Petrinet.
      *
-     * @return A LinkedList of Integers representing the current marking.
+     * @return A Marking representing the current tokens per place.
      */
-	public LinkedList<Integer> getMarking() {
-		// returns marking as linked list
-		LinkedList<Integer> m = new LinkedList<>();
-		for (String id : this.Places.keySet()) {
-			Integer tokens = this.Places.get(id).Tokens;
-			m.add(tokens);
+	public Marking getMarking() {
+		int[] m = new int[this.Places.size()];
+		int index = 0;
+		for (Place p : this.Places.values()) {
+			m[index] = p.Tokens;
+			index++;
 		}
-		return m;
+		return new Marking(m);
 	}
 
     /**
@@ -152,19 +218,7 @@ public class Petrinet implements Serializable {
      * @return A string representation of the current marking.
      */
 	public String getMarkingString() {
-		// returns marking as string
-		LinkedList<Integer> markingList = this.getMarking();
-        StringBuilder result = new StringBuilder("(");
-
-        for (Integer number : markingList) {
-            result.append(number).append("|");
-        }
-        // Remove the trailing '|' if the list isn't empty
-        if (!markingList.isEmpty()) {
-            result.deleteCharAt(result.length() - 1);
-        }
-        result.append(")");
-        return result.toString();
+		return this.getMarking().toString();
     }
 
 
@@ -173,13 +227,14 @@ public class Petrinet implements Serializable {
      *
      * @param marking The new marking to be applied to the Petrinet.
      */
-	public void updateMarking(final LinkedList<Integer> marking) {
-		// applies marking (as linked list) to petrinet
-		Integer elem;
+	public void updateMarking(final Marking marking) {
+		// applies marking to petrinet
 		int index = 0;
-		for (String id : this.Places.keySet()) {
-			elem = marking.get(index);
-			this.Places.get(id).Tokens = elem;
+		for (Place p : this.Places.values()) {
+			p.Tokens = marking.get(index);
+			if (this.Enabled != null) {
+				this.Enabled.setTokens(index, p.Tokens);
+			}
 			index++;
 		}
 	}
@@ -233,7 +288,8 @@ public class Petrinet implements Serializable {
      * @param tokens The initial token count for the place.
      */
 	public void addPlace(final String id, final int tokens) {
-		this.Places.put(id, new Place(tokens, "unnamed"));
+		this.Places.put(id, new Place(id, tokens, "unnamed"));
+		this.invalidate();
 	}
 
     /**
@@ -243,7 +299,8 @@ public class Petrinet implements Serializable {
      * @param name The name of the new place.
      */
 	public void addPlace(final String id, final String name) {
-		this.Places.put(id, new Place(0, name));
+		this.Places.put(id, new Place(id, 0, name));
+		this.invalidate();
 	}
 
     /**
@@ -254,7 +311,8 @@ public class Petrinet implements Serializable {
      * @param name   The name of the new place.
      */
 	public void addPlace(final String id, final int tokens, final String name) {
-		this.Places.put(id, new Place(tokens, name));
+		this.Places.put(id, new Place(id, tokens, name));
+		this.invalidate();
 	}
 
     /**
@@ -263,7 +321,8 @@ public class Petrinet implements Serializable {
      * @param id The identifier for the new transition.
      */
 	public void addTransition(final String id) {
-		this.Transitions.put(id, new Transition("unnamed"));
+		this.Transitions.put(id, new Transition(id, "unnamed"));
+		this.invalidate();
 	}
 
     /**
@@ -273,7 +332,8 @@ public class Petrinet implements Serializable {
      * @param name The name of the new transition.
      */
 	public void addTransition(final String id, final String name) {
-		this.Transitions.put(id, new Transition(name));
+		this.Transitions.put(id, new Transition(id, name));
+		this.invalidate();
 	}
 
     /**
@@ -285,6 +345,7 @@ public class Petrinet implements Serializable {
      * @throws NoSuchElementException If either the place or the transition is not found.
      */
 	public void addArc(String id, String pre, String post) {
+		this.invalidate();
 		// check if origin is place or transition
 		if (this.Places.containsKey(pre)) { // is from p to t
 
@@ -311,6 +372,7 @@ public class Petrinet implements Serializable {
 
     /**
      * Sets the number of tokens for a specific place in the Petrinet.
+     * Tokens should always be changed through this method, so the enabled transitions stay up to date.
      *
      * @param id     The identifier of the place.
      * @param tokens The number of tokens to be set.
@@ -320,6 +382,9 @@ public class Petrinet implements Serializable {
 		if (this.Places.containsKey(id)) {
 			Place p = this.Places.get(id);
 			p.Tokens = tokens;
+			if (this.Enabled != null) {
+				this.Enabled.setTokens(this.Compiled.indexOfPlace(id), tokens);
+			}
 		} else {
 			throw new NoSuchElementException(String.format("Place with id %s not found", id));
 		}
@@ -329,10 +394,7 @@ public class Petrinet implements Serializable {
      * Sets the initial marking of the Petrinet based on the current state of its places.
      */
 	public void setInitialMarking() {
-		for (Map.Entry<String, Place> entry : this.Places.entrySet()) {
-			Place p = entry.getValue();
-			this.InitialMarking.add(p.Tokens);
-		}
+		this.InitialMarking = this.getMarking();
 	}
 
     /**
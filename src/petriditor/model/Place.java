@@ -9,8 +9,14 @@ import java.io.Serializable;
 public class Place implements Serializable {
 	private static final long serialVersionUID = 2020194324815817879L;
 
+    /**
+     * The identifier of the place inside its Petrinet.
+     */
+	public String ID;
+
     /**
      * The number of tokens present in the place.
+     * Use {@link Petrinet#setTokens(String, Integer)} to change it, so the enabled transitions are kept up to date.
      */
 
 	public Integer Tokens;
@@ -38,4 +44,16 @@ public class Place implements Serializable {
 		this.Name = name;
 		this.Position = new Integer[2];
 	}
+
+    /**
+     * Constructs a Place object with the given identifier, initial token count and name.
+     *
+     * @param id    The identifier of the place inside its Petrinet.
+     * @param token The initial number of tokens in the place.
+     * @param name  The name of the place.
+     */
+	public Place(final String id, final int token, final String name) {
+		this(token, name);
+		this.ID = id;
+	}
 }
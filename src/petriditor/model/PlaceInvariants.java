@@ -0,0 +1,514 @@
+package propra.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Computes the semi-positive P-invariants of a compiled Petrinet by the Farkas algorithm.
+ *
+ * A P-invariant is a weight vector y &ge; 0 over the places with y &middot; C = 0 for the incidence matrix C,
+ * so the weighted token sum y &middot; M is the same in every reachable marking M. If y(p) &gt; 0, the place p is
+ * covered by y and holds at most floor(y &middot; M0 / y(p)) tokens. If every place is covered, the Petrinet is
+ * bounded for every initial marking (structurally bounded) without exploring a single state.
+ *
+ * The algorithm starts with one row [C(p) | e(p)] per place and eliminates the transitions column by column:
+ * every pair of rows with opposite signs in the column is combined to a row with 0 in it, the rows with non-zero
+ * entries are dropped. The column with the fewest new rows is eliminated first, and a combination is only kept
+ * if no other row has a support contained in its support, which keeps the rows to the invariants of minimal support.
+ * Rows are sparse, so the cost depends on the arcs rather than on places times transitions.
+ * The number of rows can grow exponentially, so the elimination stops at {@link #MAX_ROWS} rows, on an
+ * arithmetic overflow or when the caller asks it to stop, e.g. on a timeout. The invariants completed by then
+ * are still invariants, but places may be left uncovered.
+ */
+public class PlaceInvariants {
+
+	/**
+	 * Largest number of rows during the elimination
+	 */
+	public static final int MAX_ROWS = 1 << 14;
+
+	/**
+	 * The compiled net
+	 */
+	private final CompiledPetrinet Net;
+
+	/**
+	 * Support and weights of each invariant, the places in ascending order
+	 */
+	private final List<int[]> Supports = new ArrayList<>();
+	private final List<long[]> Weights = new ArrayList<>();
+
+	/**
+	 * true for each place covered by an invariant
+	 */
+	private final boolean[] Covered;
+
+	/**
+	 * false if the elimination has been stopped before all columns were eliminated
+	 */
+	private final boolean Complete;
+
+	/**
+	 * Number of rows with a positive and a negative entry in each column, updated with every elimination
+	 */
+	private final long[] Positive, Negative;
+
+	/**
+	 * The rows with an entry in each column and the rows starting at each place, including removed rows
+	 */
+	private final List<List<Row>> ByColumn, ByFirst;
+
+	/**
+	 * Rows without incidence entries, i.e. the invariants found
+	 */
+	private final List<Row> Done = new ArrayList<>();
+
+	/**
+	 * Asked before each column and each row combined with others, true to stop the elimination
+	 */
+	private final BooleanSupplier Stopped;
+
+	/**
+	 * Number of rows not removed
+	 */
+	private int Rows;
+
+	/**
+	 * A row of the Farkas matrix: the remaining incidence entries and the invariant built so far, both sparse
+	 */
+	private static final class Row {
+		final int[] Columns;
+		final long[] Values;
+		final int[] Places;
+		final long[] Factors;
+		/**
+		 * Bit set of the places, to compare supports
+		 */
+		final long[] Support;
+		/**
+		 * true once the row has been eliminated
+		 */
+		boolean Removed;
+
+		Row(int[] columns, long[] values, int[] places, long[] factors, long[] support) {
+			this.Columns = columns;
+			this.Values = values;
+			this.Places = places;
+			this.Factors = factors;
+			this.Support = support;
+		}
+
+		/**
+		 * Returns the entry in a column, 0 if there is none.
+		 */
+		long get(int column) {
+			int i = Arrays.binarySearch(this.Columns, column);
+			return i >= 0 ? this.Values[i] : 0;
+		}
+	}
+
+    /**
+     * Computes the invariants of a compiled net.
+     *
+     * @param net The compiled Petrinet.
+     */
+	public PlaceInvariants(CompiledPetrinet net) {
+		this(net, () -> false);
+	}
+
+    /**
+     * Computes the invariants of a compiled net until asked to stop.
+     *
+     * @param net     The compiled Petrinet.
+     * @param stopped Returns true once the elimination is to stop, see {@link #isComplete()}.
+     */
+	public PlaceInvariants(CompiledPetrinet net, BooleanSupplier stopped) {
+		this.Net = net;
+		this.Stopped = stopped;
+		int places = net.getPlaceCount();
+		int transitions = net.getTransitionCount();
+		this.Covered = new boolean[places];
+		this.Positive = new long[transitions];
+		this.Negative = new long[transitions];
+		this.ByColumn = new ArrayList<>(transitions);
+		for (int t = 0; t < transitions; t++) {
+			this.ByColumn.add(new ArrayList<>());
+		}
+		this.ByFirst = new ArrayList<>(places);
+		for (int p = 0; p < places; p++) {
+			this.ByFirst.add(new ArrayList<>());
+		}
+		this.incidence();
+		boolean complete = true;
+		try {
+			for (int column = this.selectColumn(); column >= 0 && complete; column = this.selectColumn()) {
+				complete = !this.Stopped.getAsBoolean() && this.eliminate(column);
+			}
+		} catch (ArithmeticException e) {
+			complete = false;
+		}
+		this.Complete = complete;
+		// rows without incidence entries are invariants even if the elimination has been stopped
+		for (Row row : this.Done) {
+			this.Supports.add(row.Places);
+			this.Weights.add(row.Factors);
+			for (int p : row.Places) {
+				this.Covered[p] = true;
+			}
+		}
+		System.out.println(String.format("PlaceInvariants - PlaceInvariants: %d invariants, %s", this.Supports.size(),
+				complete ? "complete" : "elimination stopped early"));
+	}
+
+	/**
+	 * Adds the rows [C(p) | e(p)] of all places.
+	 */
+	private void incidence() {
+		CompiledPetrinet net = this.Net;
+		int places = net.getPlaceCount();
+		int words = (places + 63) >>> 6;
+		// sum up the entries per place, an arc in both the pre- and the post-set may cancel out
+		long[] delta = new long[places];
+		IntList[] columns = new IntList[places];
+		IntList[] values = new IntList[places];
+		for (int t = 0; t < net.getTransitionCount(); t++) {
+			for (int i = net.preStart[t]; i < net.preStart[t + 1]; i++) {
+				delta[net.prePlace[i]] -= net.preWeight[i];
+			}
+			for (int i = net.postStart[t]; i < net.postStart[t + 1]; i++) {
+				delta[net.postPlace[i]] += net.postWeight[i];
+			}
+			for (int p : net.getAdjacentPlaces(t)) {
+				if (delta[p] != 0) {
+					if (columns[p] == null) {
+						columns[p] = new IntList();
+						values[p] = new IntList();
+					}
+					columns[p].add(t);
+					values[p].add((int) delta[p]);
+					delta[p] = 0;
+				}
+			}
+		}
+		for (int p = 0; p < places; p++) {
+			int size = columns[p] == null ? 0 : columns[p].size();
+			int[] c = new int[size];
+			long[] v = new long[size];
+			for (int i = 0; i < size; i++) {
+				c[i] = columns[p].get(i);
+				v[i] = values[p].get(i);
+			}
+			long[] support = new long[words];
+			support[p >>> 6] |= 1L << p;
+			this.add(new Row(c, v, new int[] {p}, new long[] {1}, support));
+		}
+	}
+
+	/**
+	 * Adds a row to the indexes and the counts per column.
+	 */
+	private void add(Row row) {
+		this.Rows++;
+		this.ByFirst.get(row.Places[0]).add(row);
+		if (row.Columns.length == 0) {
+			this.Done.add(row);
+		}
+		for (int i = 0; i < row.Columns.length; i++) {
+			this.ByColumn.get(row.Columns[i]).add(row);
+			if (row.Values[i] > 0) {
+				this.Positive[row.Columns[i]]++;
+			} else {
+				this.Negative[row.Columns[i]]++;
+			}
+		}
+	}
+
+	/**
+	 * Removes an eliminated row from the counts per column, the indexes skip it from now on.
+	 */
+	private void remove(Row row) {
+		this.Rows--;
+		row.Removed = true;
+		for (int i = 0; i < row.Columns.length; i++) {
+			if (row.Values[i] > 0) {
+				this.Positive[row.Columns[i]]--;
+			} else {
+				this.Negative[row.Columns[i]]--;
+			}
+		}
+	}
+
+	/**
+	 * Returns the column producing the fewest new rows, or -1 if all columns have been eliminated.
+	 */
+	private int selectColumn() {
+		int best = -1;
+		long growth = Long.MAX_VALUE;
+		for (int t = 0; t < this.Positive.length; t++) {
+			long positive = this.Positive[t];
+			long negative = this.Negative[t];
+			if (positive + negative > 0) {
+				long g = positive * negative - positive - negative;
+				if (g < growth) {
+					growth = g;
+					best = t;
+				}
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Eliminates a column. Returns false if there would be more than {@link #MAX_ROWS} rows or it has been asked to stop.
+	 */
+	private boolean eliminate(int column) {
+		List<Row> positive = new ArrayList<>();
+		List<Row> negative = new ArrayList<>();
+		for (Row row : this.ByColumn.get(column)) {
+			if (!row.Removed) {
+				(row.get(column) > 0 ? positive : negative).add(row);
+			}
+		}
+		List<Row> combined = new ArrayList<>();
+		long[] union = new long[(this.Covered.length + 63) >>> 6];
+		for (Row a : positive) {
+			if (this.Stopped.getAsBoolean()) {
+				return false;
+			}
+			for (Row b : negative) {
+				for (int w = 0; w < union.length; w++) {
+					union[w] = a.Support[w] | b.Support[w];
+				}
+				if (this.isMinimal(union, a.Places, a, b) && this.isMinimal(union, b.Places, a, b) && isMinimal(union, combined)) {
+					combined.add(combine(a, -b.get(column), b, a.get(column), column, union.clone()));
+					if (this.Rows + combined.size() - positive.size() - negative.size() > MAX_ROWS) {
+						return false;
+					}
+				}
+			}
+		}
+		for (Row row : positive) {
+			this.remove(row);
+		}
+		for (Row row : negative) {
+			this.remove(row);
+		}
+		this.ByColumn.get(column).clear();
+		for (Row row : combined) {
+			this.add(row);
+		}
+		return true;
+	}
+
+	/**
+	 * Checks that no row other than a and b starting at one of the given places has a support contained in the given one.
+	 * A row with a support contained in the union of the supports of a and b starts at a place of a or b.
+	 */
+	private boolean isMinimal(long[] support, int[] places, Row a, Row b) {
+		for (int p : places) {
+			for (Row row : this.ByFirst.get(p)) {
+				if (!row.Removed && row != a && row != b && isContained(row.Support, support)) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Checks that none of the given rows has a support contained in the given one.
+	 */
+	private static boolean isMinimal(long[] support, List<Row> rows) {
+		for (Row row : rows) {
+			if (isContained(row.Support, support)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isContained(long[] subset, long[] set) {
+		for (int w = 0; w < set.length; w++) {
+			if ((subset[w] & ~set[w]) != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns fa * a + fb * b without the eliminated column, divided by the gcd of its entries.
+	 */
+	private static Row combine(Row a, long fa, Row b, long fb, int column, long[] support) {
+		int[] columns = new int[a.Columns.length + b.Columns.length];
+		long[] values = new long[columns.length];
+		int size = merge(a.Columns, a.Values, fa, b.Columns, b.Values, fb, columns, values, column);
+		int[] places = new int[a.Places.length + b.Places.length];
+		long[] factors = new long[places.length];
+		int count = merge(a.Places, a.Factors, fa, b.Places, b.Factors, fb, places, factors, -1);
+		long gcd = 0;
+		for (int i = 0; i < size; i++) {
+			gcd = gcd(gcd, Math.abs(values[i]));
+		}
+		for (int i = 0; i < count; i++) {
+			gcd = gcd(gcd, factors[i]);
+		}
+		for (int i = 0; i < size; i++) {
+			values[i] /= gcd;
+		}
+		for (int i = 0; i < count; i++) {
+			factors[i] /= gcd;
+		}
+		return new Row(Arrays.copyOf(columns, size), Arrays.copyOf(values, size), Arrays.copyOf(places, count), Arrays.copyOf(factors, count), support);
+	}
+
+	/**
+	 * Merges two sparse vectors scaled by fa and fb, dropping zero entries and the skipped index. Returns the size.
+	 */
+	private static int merge(int[] ia, long[] va, long fa, int[] ib, long[] vb, long fb, int[] index, long[] value, int skip) {
+		int i = 0;
+		int j = 0;
+		int size = 0;
+		while (i < ia.length || j < ib.length) {
+			int k;
+			long v;
+			if (j == ib.length || (i < ia.length && ia[i] < ib[j])) {
+				k = ia[i];
+				v = Math.multiplyExact(va[i++], fa);
+			} else if (i == ia.length || ib[j] < ia[i]) {
+				k = ib[j];
+				v = Math.multiplyExact(vb[j++], fb);
+			} else {
+				k = ia[i];
+				v = Math.addExact(Math.multiplyExact(va[i++], fa), Math.multiplyExact(vb[j++], fb));
+			}
+			if (v != 0 && k != skip) {
+				index[size] = k;
+				value[size++] = v;
+			}
+		}
+		return size;
+	}
+
+	private static long gcd(long a, long b) {
+		while (b != 0) {
+			long r = a % b;
+			a = b;
+			b = r;
+		}
+		return a;
+	}
+
+    /**
+     * Returns the number of invariants found.
+     *
+     * @return The number of semi-positive invariants of minimal support.
+     */
+	public int size() {
+		return this.Supports.size();
+	}
+
+    /**
+     * Returns the places of an invariant.
+     *
+     * @param invariant The index of the invariant.
+     * @return The dense ids of the places with a positive weight, in ascending order.
+     */
+	public int[] getSupport(int invariant) {
+		return this.Supports.get(invariant).clone();
+	}
+
+    /**
+     * Returns the weights of an invariant, in the order of {@link #getSupport(int)}.
+     *
+     * @param invariant The index of the invariant.
+     * @return The positive weights of the places.
+     */
+	public long[] getWeights(int invariant) {
+		return this.Weights.get(invariant).clone();
+	}
+
+    /**
+     * Checks if all columns have been eliminated, i.e. all invariants of minimal support have been found.
+     *
+     * @return false if the elimination has been stopped.
+     */
+	public boolean isComplete() {
+		return this.Complete;
+	}
+
+    /**
+     * Checks if a place is covered by an invariant.
+     *
+     * @param place The dense id of the place.
+     * @return true if some invariant has a positive weight on the place.
+     */
+	public boolean isCovered(int place) {
+		return this.Covered[place];
+	}
+
+    /**
+     * Checks if every place is covered by an invariant. If so, the Petrinet is bounded for every initial marking.
+     *
+     * @return true if the Petrinet is structurally bounded by its invariants.
+     */
+	public boolean isCovering() {
+		for (boolean covered : this.Covered) {
+			if (!covered) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+    /**
+     * Computes the token bound of each place from the invariants covering it.
+     *
+     * @param initial The initial marking.
+     * @return The largest number of tokens each place can hold, -1 for places not covered.
+     */
+	public long[] getBounds(int[] initial) {
+		long[] bounds = new long[this.Covered.length];
+		Arrays.fill(bounds, -1);
+		for (int i = 0; i < this.Supports.size(); i++) {
+			int[] places = this.Supports.get(i);
+			long[] weights = this.Weights.get(i);
+			long sum = 0;
+			try {
+				for (int j = 0; j < places.length; j++) {
+					sum = Math.addExact(sum, Math.multiplyExact(weights[j], initial[places[j]]));
+				}
+			} catch (ArithmeticException e) {
+				continue;
+			}
+			for (int j = 0; j < places.length; j++) {
+				long bound = sum / weights[j];
+				if (bounds[places[j]] < 0 || bound < bounds[places[j]]) {
+					bounds[places[j]] = bound;
+				}
+			}
+		}
+		return bounds;
+	}
+
+    /**
+     * Provides a string representation of the invariants.
+     *
+     * @return One weighted sum of place IDs per invariant, e.g. "p1 + 2 p3".
+     */
+	@Override
+	public String toString() {
+		StringBuilder result = new StringBuilder();
+		for (int i = 0; i < this.Supports.size(); i++) {
+			int[] places = this.Supports.get(i);
+			long[] weights = this.Weights.get(i);
+			for (int j = 0; j < places.length; j++) {
+				result.append(j > 0 ? " + " : "").append(weights[j] > 1 ? weights[j] + " " : "").append(this.Net.getPlaceID(places[j]));
+			}
+			result.append('\n');
+		}
+		return result.toString();
+	}
+}
@@ -6,27 +6,57 @@ import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
-import java.util.Collections;
+import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import java.util.Stack;
 
 /**
  * This class provides the functionality to build a Reachability Graph for a Petrinet.
  * It can furthermore check if a graph is bounded, and if so, retrieve the Path of a
  * partial reachability graph as well as m and m'.
+ *
+ * Every vertex remembers the vertex it has been discovered from. When a vertex is added, it is compared
+ * with this chain of ancestors only: m &lt; m' with m an ancestor of m' proves unboundedness, and once the
+ * graph is fully explored such a pair exists for every unbounded net.
+ *
+ * Vertices are numbered densely in the order they are added. Arcs are kept in int lists of source, target
+ * and transition, where transitions are interned to ints, so one marking reached by several transitions
+ * has one arc per transition. Once exploration has finished, {@link #freeze()} sorts the arcs by source
+ * into CSR arrays for traversals.
  */
 public class ReachabilityGraph implements Serializable {
 	private static final long serialVersionUID = 2286119872773994640L;
 
     /**
-     * Adjacency list representation of the reachability graph, mapping vertices to their adjacent vertices.
+     * Vertices by dense id
      */
-	public Map<Vertex, LinkedList<Vertex>> adjacentList;
+	private List<Vertex> Vertices;
+
+    /**
+     * Vertex -> dense id
+     */
+	private Map<Vertex, Integer> Ids;
+
+    /**
+     * Transition IDs by interned label
+     */
+	private List<String> Transitions;
+
+    /**
+     * Transition ID -> interned label
+     */
+	private Map<String, Integer> Labels;
+
+    /**
+     * Source, target and transition label of each arc, in the order the arcs have been added
+     */
+	private IntList ArcSource, ArcTarget, ArcLabel;
+
+    /**
+     * Open addressing hash set of arc numbers + 1 over source, target and label, 0 marks a free slot
+     */
+	private int[] ArcTable;
 
     /**
      * Initial vertex of the reachability graph.
@@ -39,9 +69,30 @@ public class ReachabilityGraph implements Serializable {
 	public Vertex[] UnboundedStates;
 
     /**
-     * List storing the path traversed in the reachability graph.
+     * Parent links of the exploration tree, the id of the vertex each vertex has been discovered from, -1 for none.
+     */
+	private IntList Parents;
+
+    /**
+     * true once an ancestor m of a newly added vertex m' with m &lt; m' has been found.
+     */
+	private Boolean AncestorWitness;
+
+    /**
+     * Reachability index of the current vertices and arcs, built on demand and dropped on every change.
+     */
+	private transient ReachabilityIndex Index;
+
+    /**
+     * Covering index of the current vertices, built on demand and dropped when a vertex is added.
      */
-	private LinkedList<String> Path;
+	private transient CoveringIndex Covering;
+
+    /**
+     * CSR arrays of the arcs sorted by source: the arcs of vertex v are OutArc[OutStart[v]] until OutArc[OutStart[v + 1]] exclusive.
+     * Built by {@link #freeze()} and dropped on every change.
+     */
+	private transient int[] OutStart, OutArc;
 
 
     /**
@@ -51,10 +102,18 @@ public class ReachabilityGraph implements Serializable {
      */
 	public ReachabilityGraph(Vertex initial) {
 		this.UnboundedStates = new Vertex[2];
-		this.adjacentList = new HashMap<>();
+		this.Vertices = new ArrayList<>();
+		this.Ids = new HashMap<>();
+		this.Transitions = new ArrayList<>();
+		this.Labels = new HashMap<>();
+		this.ArcSource = new IntList();
+		this.ArcTarget = new IntList();
+		this.ArcLabel = new IntList();
+		this.ArcTable = new int[16];
+		this.Parents = new IntList();
+		this.AncestorWitness = false;
 		this.addVertex(initial);
 		this.Initial = initial;
-		this.Path = new LinkedList<>();
 	}
 
     /**
@@ -85,30 +144,120 @@ public class ReachabilityGraph implements Serializable {
      * @param vertex The vertex to be added.
      */
 	public void addVertex(Vertex vertex) {
-		if (!this.adjacentList.containsKey(vertex)) {
-			System.out.println("ReachabilityGraph - addVertex: Added Vertex  " + vertex.toString());
-			this.adjacentList.put(vertex, new LinkedList<>());
-		} else {
-			System.out.println(String.format("ReachabilityGraph - addVertex: Vertex %s already found. No duplicate added.", vertex.toString()));
+		if (!this.Ids.containsKey(vertex)) {
+			this.Index = null;
+			this.Covering = null;
+			this.OutStart = null;
+			this.Ids.put(vertex, this.Vertices.size());
+			this.Vertices.add(vertex);
+			this.Parents.add(-1);
 		}
 	}
 
     /**
-     * Adds an arc between two vertices in the graph, also adding the 'to' vertex if it's not already present.
+     * Adds an arc between two vertices in the graph, labelled with the transition stored in the 'to' vertex.
+     * The 'from' vertex is added if it's not already present, as well as the 'to' vertex, which is then
+     * compared with its chain of ancestors, see {@link #hasAncestorWitness()}.
+     * An arc with the same source, target and transition is not duplicated, which is checked in constant time.
      *
      * @param from The source vertex of the arc.
-     * @param to   The destination vertex of the arc.
+     * @param to   The destination vertex of the arc, its ReachedFrom is the transition of the arc.
      */
 	public void addArc(Vertex from, Vertex to) {
-		this.addVertex(to);
-		System.out.println(String.format("ReachabilityGraph - addArc: Adding Arc from %s to %s along Transition %s",
-				from.toString(), to.toString(), to.ReachedFrom));
+		if (!this.Ids.containsKey(from)) {
+			this.addVertex(from);
+		}
+		int source = this.Ids.get(from);
+		Integer target = this.Ids.get(to);
+		if (target == null) {
+			this.addVertex(to);
+			target = this.Vertices.size() - 1;
+			this.Parents.set(target, source);
+			this.checkAncestors(target);
+		}
+		Integer label = this.Labels.get(to.ReachedFrom);
+		if (label == null) {
+			label = this.Transitions.size();
+			this.Labels.put(to.ReachedFrom, label);
+			this.Transitions.add(to.ReachedFrom);
+		}
+		if (this.findArc(source, target, label) < 0) {
+			this.insertArc(source, target, label);
+			this.Index = null;
+			this.OutStart = null;
+		}
+	}
+
+	private static int hash(int source, int target, int label) {
+		int h = source * 0x9E3779B1 + target;
+		h = h * 0x85EBCA6B + label;
+		return h ^ (h >>> 16);
+	}
+
+	/**
+	 * Returns the number of the arc with the given source, target and label, or -1 if there is none.
+	 */
+	private int findArc(int source, int target, int label) {
+		int mask = this.ArcTable.length - 1;
+		for (int slot = hash(source, target, label) & mask; this.ArcTable[slot] != 0; slot = (slot + 1) & mask) {
+			int arc = this.ArcTable[slot] - 1;
+			if (this.ArcSource.get(arc) == source && this.ArcTarget.get(arc) == target && this.ArcLabel.get(arc) == label) {
+				return arc;
+			}
+		}
+		return -1;
+	}
+
+	private void insertArc(int source, int target, int label) {
+		this.ArcSource.add(source);
+		this.ArcTarget.add(target);
+		this.ArcLabel.add(label);
+		int arcs = this.ArcSource.size();
+		if (arcs * 2 > this.ArcTable.length) {
+			// keep the table at most half full, rehash all arcs
+			this.ArcTable = new int[this.ArcTable.length * 2];
+			for (int arc = 0; arc < arcs; arc++) {
+				this.placeArc(arc);
+			}
+		} else {
+			this.placeArc(arcs - 1);
+		}
+	}
 
-		LinkedList<Vertex> reachableStates = this.adjacentList.get(from);
-		if (!reachableStates.contains(to)) {
-			reachableStates.add(to);
+	private void placeArc(int arc) {
+		int mask = this.ArcTable.length - 1;
+		int slot = hash(this.ArcSource.get(arc), this.ArcTarget.get(arc), this.ArcLabel.get(arc)) & mask;
+		while (this.ArcTable[slot] != 0) {
+			slot = (slot + 1) & mask;
+		}
+		this.ArcTable[slot] = arc + 1;
+	}
+
+    /**
+     * Sorts the arcs by their source into CSR arrays, see {@link #getOutStart(int)} and {@link #getOutArc(int)}.
+     * Called once exploration has finished, adding vertices or arcs afterwards drops the arrays again
+     * and the next traversal builds them anew. Does nothing if the arrays are up to date.
+     */
+	public void freeze() {
+		if (this.OutStart != null) {
+			return;
+		}
+		int n = this.Vertices.size();
+		int arcs = this.ArcSource.size();
+		int[] start = new int[n + 1];
+		for (int arc = 0; arc < arcs; arc++) {
+			start[this.ArcSource.get(arc) + 1]++;
+		}
+		for (int v = 0; v < n; v++) {
+			start[v + 1] += start[v];
+		}
+		int[] fill = start.clone();
+		int[] out = new int[arcs];
+		for (int arc = 0; arc < arcs; arc++) {
+			out[fill[this.ArcSource.get(arc)]++] = arc;
 		}
-		this.Path.add(to.ReachedFrom);
+		this.OutArc = out;
+		this.OutStart = start;
 	}
 
     /**
@@ -118,22 +267,101 @@ public class ReachabilityGraph implements Serializable {
      */
 	public void setInitial(Vertex initial) {
 		System.out.println("ReachabilityGraph - setInitital: Setting Vertex  " + initial.toString() + " as initial.");
-		if (!this.adjacentList.containsKey(initial)) {
-			this.addVertex(initial);
-		}
+		this.addVertex(initial);
 		this.Initial = initial;
 	}
 
-	private Integer getVertexCount() {
-		return this.adjacentList.size();
+    /**
+     * Returns the number of vertices, which is kept up to date on every insert.
+     *
+     * @return The number of vertices.
+     */
+	public int getVertexCount() {
+		return this.Vertices.size();
+	}
+
+    /**
+     * Returns the number of arcs, which is kept up to date on every insert.
+     *
+     * @return The number of arcs.
+     */
+	public int getArcCount() {
+		return this.ArcSource.size();
 	}
 
-	private Integer getArcCount() {
-		int count = 0;
-		for (Map.Entry<Vertex, LinkedList<Vertex>> entry : this.adjacentList.entrySet()) {
-			count += entry.getValue().size();
-		}
-		return count;
+    /**
+     * Returns the vertex with the given dense id.
+     *
+     * @param id The id of the vertex, between 0 and {@link #getVertexCount()} exclusive.
+     * @return The vertex, as it has been added first.
+     * @throws IndexOutOfBoundsException If there is no vertex with this id.
+     */
+	public Vertex getVertex(int id) {
+		return this.Vertices.get(id);
+	}
+
+    /**
+     * Returns the dense id of a vertex.
+     *
+     * @param vertex The vertex to look up, compared by its state.
+     * @return The id of the vertex, or -1 if it is not part of the graph.
+     */
+	public int getId(Vertex vertex) {
+		Integer id = this.Ids.get(vertex);
+		return id == null ? -1 : id;
+	}
+
+    /**
+     * Returns the id of the source vertex of an arc.
+     *
+     * @param arc The number of the arc, between 0 and {@link #getArcCount()} exclusive.
+     * @return The id of the source vertex.
+     */
+	public int getArcSource(int arc) {
+		return this.ArcSource.get(arc);
+	}
+
+    /**
+     * Returns the id of the target vertex of an arc.
+     *
+     * @param arc The number of the arc, between 0 and {@link #getArcCount()} exclusive.
+     * @return The id of the target vertex.
+     */
+	public int getArcTarget(int arc) {
+		return this.ArcTarget.get(arc);
+	}
+
+    /**
+     * Returns the ID of the transition an arc is labelled with.
+     *
+     * @param arc The number of the arc, between 0 and {@link #getArcCount()} exclusive.
+     * @return The transition ID.
+     */
+	public String getArcTransition(int arc) {
+		return this.Transitions.get(this.ArcLabel.get(arc));
+	}
+
+    /**
+     * Returns the position of the first outgoing arc of a vertex in the CSR arrays, freezing the graph if needed.
+     * The arcs of vertex v are {@link #getOutArc(int)} for the positions getOutStart(v) until getOutStart(v + 1) exclusive.
+     *
+     * @param vertex The id of the vertex, or {@link #getVertexCount()} for the end of the last vertex.
+     * @return The position of the first outgoing arc.
+     */
+	public int getOutStart(int vertex) {
+		this.freeze();
+		return this.OutStart[vertex];
+	}
+
+    /**
+     * Returns the arc at a position of the CSR arrays, freezing the graph if needed.
+     *
+     * @param position The position, between 0 and {@link #getArcCount()} exclusive.
+     * @return The number of the arc.
+     */
+	public int getOutArc(int position) {
+		this.freeze();
+		return this.OutArc[position];
 	}
 
     /**
@@ -145,23 +373,59 @@ public class ReachabilityGraph implements Serializable {
 		return String.format("%d / %d", this.getVertexCount(), this.getArcCount());
 	}
 
+	/**
+	 * Compares a newly added vertex with its ancestors and stores the first m &lt; m' found.
+	 */
+	private void checkAncestors(int id) {
+		if (this.AncestorWitness) {
+			return;
+		}
+		Vertex vertex = this.Vertices.get(id);
+		for (int a = this.Parents.get(id); a >= 0; a = this.Parents.get(a)) {
+			Vertex ancestor = this.Vertices.get(a);
+			if (vertex.State.strictlyCovers(ancestor.State)) {
+				System.out.println("ReachabilityGraph - checkAncestors: Found m < m': " + ancestor.toString() + " & " + vertex.toString());
+				this.UnboundedStates[0] = ancestor;
+				this.UnboundedStates[1] = vertex;
+				this.AncestorWitness = true;
+				return;
+			}
+		}
+	}
+
+    /**
+     * Checks if a vertex m' strictly covering one of its ancestors m has been added so far.
+     * The check is done incrementally in {@link #addArc(Vertex, Vertex)}, so this is a constant time lookup.
+     * If true, the graph is unbounded and m and m' are stored in {@link #UnboundedStates}.
+     *
+     * @return true if unboundedness has been detected along an ancestor chain, false otherwise.
+     */
+	public Boolean hasAncestorWitness() {
+		return this.AncestorWitness;
+	}
+
     /**
-     * Determines if the graph is bounded.
+     * Determines if the graph is bounded, i.e. there are no vertices m &lt; m' with a path from m to m'.
+     * This also finds pairs connected through arcs outside the exploration tree, which matters for
+     * partially explored graphs, e.g. built by firing transitions in the GUI.
+     * For every vertex m', the candidates m are looked up in the {@link CoveringIndex} instead of comparing all pairs,
+     * and paths are looked up in the {@link ReachabilityIndex}. Both are built once for all pairs.
      *
      * @return true if the graph is bounded, false otherwise.
      */
 	public Boolean isBounded() {
-		for (Vertex v1 : this.adjacentList.keySet()) {
-			for (Vertex v2 : this.adjacentList.keySet()) {
-				if (isCandidate(v1, v2)) {
-//					if (pathExists(v1, v2)) {
-					if (this.pathExists(v1, v2)) {
-						System.out.println("ReachabilityGraph - isBounded: false");
-						// store m and m'
-						this.UnboundedStates[0] = v1;
-						this.UnboundedStates[1] = v2;
-						return false;
-					}
+		CoveringIndex covering = this.getCoveringIndex();
+		for (Vertex v2 : this.Vertices) {
+			IntList candidates = covering.getStrictlyCovered(v2.State);
+			for (int i = 0; i < candidates.size(); i++) {
+				Vertex v1 = this.Vertices.get(candidates.get(i));
+				System.out.println("ReachabilityGraph - isBounded: Found candidates: " + v1.toString() + " & " + v2.toString());
+				if (this.pathExists(v1, v2)) {
+					System.out.println("ReachabilityGraph - isBounded: false");
+					// store m and m'
+					this.UnboundedStates[0] = v1;
+					this.UnboundedStates[1] = v2;
+					return false;
 				}
 			}
 		}
@@ -170,84 +434,50 @@ public class ReachabilityGraph implements Serializable {
 	}
 
     /**
-     * Checks if two vertices are candidates for unboundedness in the graph.
+     * Returns the covering index of the current vertices, building it if a vertex has been added.
      *
-     * @param v1 The first vertex.
-     * @param v2 The second vertex.
-     * @return true if the vertices are candidates for unboundedness, false otherwise.
-     */
-	private Boolean isCandidate(Vertex v1, Vertex v2) {
-		LinkedList<Integer> state1 = v1.State;
-		LinkedList<Integer> state2 = v2.State;
-		int isBigger = 0;
-		int isEqual = 0;
-		for (int i = 0; i < state1.size(); i++) { // iterate through each place
-			int diff = state2.get(i) - state1.get(i);
-			switch (diff) {
-			case 0:
-				isEqual++;
-				break;
-
-			case 1:
-				isEqual++;
-				isBigger++;
-				break;
-
-			default:
-				break;
+     * @return The covering index, the ids of its markings are the ids of the vertices.
+     */
+	public CoveringIndex getCoveringIndex() {
+		if (this.Covering == null) {
+			List<Marking> markings = new ArrayList<>(this.Vertices.size());
+			for (Vertex v : this.Vertices) {
+				markings.add(v.State);
 			}
+			this.Covering = new CoveringIndex(markings);
 		}
-		if (isEqual == state1.size() && isBigger > 0) {
-			System.out.println("ReachabilityGraph - isCandidate: Found candidates: " + v1.toString() + " & " + v2.toString());
-			return true;
-		}
-		return false;
+		return this.Covering;
 	}
 
     /**
-     * Determines if there exists a path between two vertices in the graph.
+     * Returns the reachability index of the current graph, building it if the graph has changed.
+     *
+     * @return The reachability index.
      */
-	private Boolean pathExists(Vertex source, Vertex destination) {
-    	Set<Vertex> path = new HashSet<>();
-    	// call recursive depth search
-    	if (hasPath(source, destination, path)) {
-    		System.out.println("ReachabilityGraph - pathExists: Path found between: " + source.toString() + " and " + destination.toString());
-    		return true;
-    	} else {
-    		return false;
-    	}
+	public ReachabilityIndex getIndex() {
+		if (this.Index == null) {
+			this.Index = new ReachabilityIndex(this);
+		}
+		return this.Index;
 	}
 
     /**
-     * Helper method to determine if there is a path between two vertices using Depth-First Search.
+     * Determines if there exists a path between two vertices in the graph.
      */
-	private Boolean hasPath(Vertex source, Vertex destination, Set<Vertex> path) {
-    	if (path.contains(source)) {
-            return false;
-        }
-
-        path.add(source);
-
-        if (source.equals(destination)) {
-        	System.out.println("ReachabilityGraph - hasPath: Path found for candidates: " + source.toString() + " & " + destination.toString());
-            return true;
-        }
-
-        for (Vertex neighbor : this.adjacentList.get(source)) {
-            if (this.hasPath(neighbor, destination, path)) {
-            	System.out.println("ReachabilityGraph - hasPath: Path found for candidates: " + source.toString() + " & " + destination.toString());
-                return true;
-            }
-        }
-        return false;
+	private Boolean pathExists(Vertex source, Vertex destination) {
+		if (this.getIndex().reaches(source, destination)) {
+			System.out.println("ReachabilityGraph - pathExists: Path found between: " + source.toString() + " and " + destination.toString());
+			return true;
+		}
+		return false;
 	}
 
     /**
-     * Finds the shortest path between two vertices using Dijkstra's algorithm.
+     * Finds the shortest path between two vertices by a breadth-first search.
      *
-     * This method calculates the shortest path in a graph from the source vertex
-     * to the destination vertex. It uses a breadth-first search approach and keeps
-     * track of predecessors to reconstruct the path once the destination is reached.
+     * The search runs on the dense vertex ids of the {@link ReachabilityIndex}, with int arrays holding the arc
+     * each vertex has been reached by, and visits vertices in the order of the adjacency lists,
+     * so the same graph always yields the same path.
      *
      * @param source      The starting vertex of the path.
      * @param destination The destination vertex of the path.
@@ -255,41 +485,26 @@ public class ReachabilityGraph implements Serializable {
      *         Returns an empty list if no path is found.
      */
     public List<Vertex> shortestPath(Vertex source, Vertex destination) {
-        HashMap<Vertex, Vertex> predecessors = new HashMap<>();
-        Stack<Vertex> stack = new Stack<>();
-        HashSet<Vertex> visited = new HashSet<>();
-        LinkedList<Vertex> path = new LinkedList<>();
-
-        stack.push(source);
-        visited.add(source);
-
-        while (!stack.isEmpty()) {
-            Vertex current = stack.pop(); // get first element of list and remove it
-
-            for (Vertex neighbor : this.adjacentList.get(current)) {
-                if (!visited.contains(neighbor)) {
-                    predecessors.put(neighbor, current);
-                    if (neighbor.equals(destination)) {
-                        // Reconstruct the path from destination to source
-                        for (Vertex at = destination; at != null; at = predecessors.get(at)) {
-                            path.add(at);
-                        }
-                        Collections.reverse(path);
-                        path.remove(0); // removes the null of the initial vertex's ReachedFrom
-                        return path;
-                    }
-                    visited.add(neighbor);
-                    stack.push(neighbor);
-                }
-            }
-        }
-
-        // No path found
-        return Collections.emptyList();
+    	return this.shortestPath(source, destination, false);
+    }
+
+    /**
+     * Finds the shortest path between two vertices by a breadth-first search, optionally from both ends at once.
+     * The bidirectional search visits far fewer vertices on long paths through large graphs.
+     *
+     * @param source        The starting vertex of the path.
+     * @param destination   The destination vertex of the path.
+     * @param bidirectional true to search from source and destination at once.
+     * @return A list of vertices representing the shortest path from source to destination, without the source.
+     *         Returns an empty list if no path is found.
+     */
+    public List<Vertex> shortestPath(Vertex source, Vertex destination, boolean bidirectional) {
+    	return this.getIndex().shortestPath(source, destination, bidirectional);
     }
 
     /**
-     * Generates a string representation of the path traversed from the initial vertex to m'.
+     * Generates a string representation of the path traversed from the initial vertex to m',
+     * listing the transition of each arc along a shortest path.
      *
      * @return A string representing the path.
      */
@@ -0,0 +1,504 @@
+package propra.model;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Answers reachability queries between the vertices of a {@link ReachabilityGraph}.
+ *
+ * The strongly connected components are computed once by an iterative version of Tarjan's algorithm,
+ * so long chains cannot overflow the stack. The components form the condensation DAG, in which every
+ * component is labelled with an interval [Low, Post]: Post is its number in a post-order traversal,
+ * Low the smallest post-order number reachable from it. If v is reachable from u, the interval of v
+ * lies within the interval of u and v is not discovered after u (Tarjan numbers sinks first), so most
+ * negative queries are answered by comparing labels. Only if the labels leave the question open, the DAG
+ * is searched, skipping every component whose interval does not contain the target's.
+ *
+ * The index also keeps the arcs of the graph's CSR arrays, so shortest paths are found by a breadth-first
+ * search on int arrays, optionally from both ends at once.
+ *
+ * The index is a snapshot, it does not reflect vertices or arcs added to the graph afterwards.
+ * Queries reuse work arrays, so an index must not be queried by several threads at once.
+ */
+public class ReachabilityIndex {
+
+	/**
+	 * The indexed graph, its dense vertex ids are used as they are
+	 */
+	private final ReachabilityGraph Graph;
+
+	/**
+	 * Number of vertices at the time the index has been built
+	 */
+	private final int Vertices;
+
+	/**
+	 * CSR arrays of the arcs over dense vertex ids
+	 */
+	private final int[] Start, Target;
+
+	/**
+	 * Source of each arc
+	 */
+	private final int[] Source;
+
+	/**
+	 * Number of each arc in the graph, to look up its transition
+	 */
+	private final int[] Arc;
+
+	/**
+	 * CSR arrays of the incoming arcs, built on the first backward search
+	 */
+	private int[] ReverseStart, ReverseArc;
+
+	/**
+	 * Arc by which each vertex has been reached in the forward and backward search
+	 */
+	private int[] Forward, Backward;
+
+	/**
+	 * Search in which each vertex has been reached forward and backward
+	 */
+	private int[] SeenForward, SeenBackward;
+
+	/**
+	 * Number of the current search
+	 */
+	private int Search;
+
+	/**
+	 * Component of each vertex, components are numbered in the order Tarjan's algorithm completes them
+	 */
+	private final int[] Component;
+
+	/**
+	 * CSR arrays of the arcs between components
+	 */
+	private final int[] DagStart, DagTarget;
+
+	/**
+	 * Interval label of each component
+	 */
+	private final int[] Low, Post;
+
+	/**
+	 * Query in which a component has been visited last, to avoid clearing a visited set per query
+	 */
+	private final int[] Visited;
+
+	/**
+	 * Number of the current query
+	 */
+	private int Query;
+
+    /**
+     * Builds the index for the current vertices and arcs of a reachability graph.
+     *
+     * @param graph The reachability graph.
+     */
+	public ReachabilityIndex(ReachabilityGraph graph) {
+		this.Graph = graph;
+		int n = graph.getVertexCount();
+		this.Vertices = n;
+		// copy the CSR arrays, so arcs added later do not show up
+		graph.freeze();
+		int arcs = graph.getArcCount();
+		this.Start = new int[n + 1];
+		for (int v = 0; v <= n; v++) {
+			this.Start[v] = graph.getOutStart(v);
+		}
+		this.Target = new int[arcs];
+		this.Source = new int[arcs];
+		this.Arc = new int[arcs];
+		for (int i = 0; i < arcs; i++) {
+			int arc = graph.getOutArc(i);
+			this.Arc[i] = arc;
+			this.Source[i] = graph.getArcSource(arc);
+			this.Target[i] = graph.getArcTarget(arc);
+		}
+		int[] start = this.Start;
+		int[] target = this.Target;
+
+		this.Component = new int[n];
+		int components = this.tarjan(n, start, target);
+
+		// condensation DAG, arcs from a component to components completed before it
+		this.DagStart = new int[components + 1];
+		IntList[] successors = new IntList[components];
+		for (int c = 0; c < components; c++) {
+			successors[c] = new IntList(2);
+		}
+		for (int v = 0; v < n; v++) {
+			for (int i = start[v]; i < start[v + 1]; i++) {
+				int from = this.Component[v];
+				int to = this.Component[target[i]];
+				if (from != to) {
+					successors[from].add(to);
+				}
+			}
+		}
+		IntList dag = new IntList(n);
+		for (int c = 0; c < components; c++) {
+			this.DagStart[c] = dag.size();
+			for (int i = 0; i < successors[c].size(); i++) {
+				dag.add(successors[c].get(i));
+			}
+		}
+		this.DagStart[components] = dag.size();
+		this.DagTarget = dag.toArray();
+
+		this.Low = new int[components];
+		this.Post = new int[components];
+		this.label(components);
+		this.Visited = new int[components];
+		this.Forward = new int[n];
+		this.SeenForward = new int[n];
+		System.out.println(String.format("ReachabilityIndex - Indexed %d vertices in %d components.", n, components));
+	}
+
+	/**
+	 * Iterative Tarjan: assigns every vertex its component and returns the number of components.
+	 */
+	private int tarjan(int n, int[] start, int[] target) {
+		int[] number = new int[n];
+		int[] lowlink = new int[n];
+		int[] next = new int[n];
+		boolean[] onStack = new boolean[n];
+		int[] stack = new int[n];
+		int[] call = new int[n];
+		Arrays.fill(number, -1);
+		int counter = 0;
+		int stackSize = 0;
+		int components = 0;
+		for (int root = 0; root < n; root++) {
+			if (number[root] >= 0) {
+				continue;
+			}
+			int depth = 0;
+			call[depth++] = root;
+			number[root] = lowlink[root] = counter++;
+			next[root] = start[root];
+			stack[stackSize++] = root;
+			onStack[root] = true;
+			while (depth > 0) {
+				int v = call[depth - 1];
+				if (next[v] < start[v + 1]) {
+					int w = target[next[v]++];
+					if (number[w] < 0) {
+						number[w] = lowlink[w] = counter++;
+						next[w] = start[w];
+						stack[stackSize++] = w;
+						onStack[w] = true;
+						call[depth++] = w;
+					} else if (onStack[w]) {
+						lowlink[v] = Math.min(lowlink[v], number[w]);
+					}
+					continue;
+				}
+				depth--;
+				if (depth > 0) {
+					int parent = call[depth - 1];
+					lowlink[parent] = Math.min(lowlink[parent], lowlink[v]);
+				}
+				if (lowlink[v] == number[v]) {
+					int w;
+					do {
+						w = stack[--stackSize];
+						onStack[w] = false;
+						this.Component[w] = components;
+					} while (w != v);
+					components++;
+				}
+			}
+		}
+		return components;
+	}
+
+	/**
+	 * Computes the interval labels by an iterative post-order traversal of the condensation DAG.
+	 */
+	private void label(int components) {
+		int[] next = new int[components];
+		int[] call = new int[components];
+		boolean[] done = new boolean[components];
+		int counter = 0;
+		// sources are completed last by Tarjan, starting there keeps the DFS trees large
+		for (int root = components - 1; root >= 0; root--) {
+			if (done[root]) {
+				continue;
+			}
+			int depth = 0;
+			call[depth++] = root;
+			done[root] = true;
+			next[root] = this.DagStart[root];
+			this.Low[root] = Integer.MAX_VALUE;
+			while (depth > 0) {
+				int c = call[depth - 1];
+				if (next[c] < this.DagStart[c + 1]) {
+					int d = this.DagTarget[next[c]++];
+					if (!done[d]) {
+						done[d] = true;
+						next[d] = this.DagStart[d];
+						this.Low[d] = Integer.MAX_VALUE;
+						call[depth++] = d;
+					} else {
+						this.Low[c] = Math.min(this.Low[c], this.Low[d]);
+					}
+					continue;
+				}
+				this.Post[c] = counter++;
+				this.Low[c] = Math.min(this.Low[c], this.Post[c]);
+				depth--;
+				if (depth > 0) {
+					int parent = call[depth - 1];
+					this.Low[parent] = Math.min(this.Low[parent], this.Low[c]);
+				}
+			}
+		}
+	}
+
+    /**
+     * Checks if a vertex is reachable from another one, i.e. if there is a path of length 0 or more.
+     *
+     * @param source      The vertex to start from.
+     * @param destination The vertex to reach.
+     * @return true if there is a path from source to destination.
+     * @throws NoSuchElementException If one of the vertices is not part of the index.
+     */
+	public boolean reaches(Vertex source, Vertex destination) {
+		int from = this.Component[this.id(source)];
+		int to = this.Component[this.id(destination)];
+		if (from == to) {
+			return true;
+		}
+		if (!this.contains(from, to)) {
+			return false;
+		}
+		// search the DAG, pruned by the labels
+		if (this.Query == Integer.MAX_VALUE) {
+			Arrays.fill(this.Visited, 0);
+			this.Query = 0;
+		}
+		this.Query++;
+		IntList stack = new IntList();
+		stack.add(from);
+		this.Visited[from] = this.Query;
+		while (stack.size() > 0) {
+			int c = stack.removeLast();
+			for (int i = this.DagStart[c]; i < this.DagStart[c + 1]; i++) {
+				int d = this.DagTarget[i];
+				if (d == to) {
+					return true;
+				}
+				if (this.Visited[d] != this.Query && this.contains(d, to)) {
+					this.Visited[d] = this.Query;
+					stack.add(d);
+				}
+			}
+		}
+		return false;
+	}
+
+    /**
+     * Finds a shortest path between two vertices by a breadth-first search.
+     *
+     * @param source        The starting vertex of the path.
+     * @param destination   The destination vertex of the path.
+     * @param bidirectional true to search from both ends at once, which visits fewer vertices on long paths.
+     * @return The vertices along the path without the source, each with the transition of the arc leading to it
+     *         as its ReachedFrom. Empty if there is no path or source and destination are equal.
+     * @throws NoSuchElementException If one of the vertices is not part of the index.
+     */
+	public List<Vertex> shortestPath(Vertex source, Vertex destination, boolean bidirectional) {
+		int from = this.id(source);
+		int to = this.id(destination);
+		if (from == to || !this.reaches(source, destination)) {
+			return Collections.emptyList();
+		}
+		if (this.Search == Integer.MAX_VALUE) {
+			Arrays.fill(this.SeenForward, 0);
+			if (this.SeenBackward != null) {
+				Arrays.fill(this.SeenBackward, 0);
+			}
+			this.Search = 0;
+		}
+		this.Search++;
+		LinkedList<Vertex> path = new LinkedList<>();
+		if (!bidirectional) {
+			this.searchForward(from, to);
+			for (int v = to; v != from; v = this.Source[this.Forward[v]]) {
+				path.addFirst(this.arcVertex(this.Forward[v], v));
+			}
+			return path;
+		}
+		int meeting = this.searchBidirectional(from, to);
+		for (int v = meeting; v != from; v = this.Source[this.Forward[v]]) {
+			path.addFirst(this.arcVertex(this.Forward[v], v));
+		}
+		for (int v = meeting; v != to; v = this.Target[this.Backward[v]]) {
+			path.addLast(this.arcVertex(this.Backward[v], this.Target[this.Backward[v]]));
+		}
+		return path;
+	}
+
+	/**
+	 * Breadth-first search from one vertex until another one is reached.
+	 */
+	private void searchForward(int from, int to) {
+		int[] queue = new int[this.Forward.length];
+		int head = 0;
+		int tail = 0;
+		queue[tail++] = from;
+		this.SeenForward[from] = this.Search;
+		while (head < tail) {
+			int v = queue[head++];
+			for (int arc = this.Start[v]; arc < this.Start[v + 1]; arc++) {
+				int w = this.Target[arc];
+				if (this.SeenForward[w] != this.Search) {
+					this.SeenForward[w] = this.Search;
+					this.Forward[w] = arc;
+					if (w == to) {
+						return;
+					}
+					queue[tail++] = w;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Breadth-first search from both ends, one whole level of the smaller frontier at a time.
+	 * Returns a vertex on a shortest path reached from both sides.
+	 */
+	private int searchBidirectional(int from, int to) {
+		if (this.ReverseStart == null) {
+			this.buildReverse();
+		}
+		int n = this.Forward.length;
+		int[] forwardQueue = new int[n];
+		int[] backwardQueue = new int[n];
+		int[] distance = new int[n];
+		int[] backwardDistance = new int[n];
+		int forwardHead = 0;
+		int forwardTail = 0;
+		int backwardHead = 0;
+		int backwardTail = 0;
+		forwardQueue[forwardTail++] = from;
+		backwardQueue[backwardTail++] = to;
+		this.SeenForward[from] = this.Search;
+		this.SeenBackward[to] = this.Search;
+		int best = Integer.MAX_VALUE;
+		int meeting = -1;
+		while (meeting < 0 && forwardHead < forwardTail && backwardHead < backwardTail) {
+			boolean forward = forwardTail - forwardHead <= backwardTail - backwardHead;
+			int levelEnd = forward ? forwardTail : backwardTail;
+			if (forward) {
+				while (forwardHead < levelEnd) {
+					int v = forwardQueue[forwardHead++];
+					for (int arc = this.Start[v]; arc < this.Start[v + 1]; arc++) {
+						int w = this.Target[arc];
+						if (this.SeenForward[w] == this.Search) {
+							continue;
+						}
+						this.SeenForward[w] = this.Search;
+						this.Forward[w] = arc;
+						distance[w] = distance[v] + 1;
+						forwardQueue[forwardTail++] = w;
+						if (this.SeenBackward[w] == this.Search && distance[w] + backwardDistance[w] < best) {
+							best = distance[w] + backwardDistance[w];
+							meeting = w;
+						}
+					}
+				}
+			} else {
+				while (backwardHead < levelEnd) {
+					int v = backwardQueue[backwardHead++];
+					for (int i = this.ReverseStart[v]; i < this.ReverseStart[v + 1]; i++) {
+						int arc = this.ReverseArc[i];
+						int w = this.Source[arc];
+						if (this.SeenBackward[w] == this.Search) {
+							continue;
+						}
+						this.SeenBackward[w] = this.Search;
+						this.Backward[w] = arc;
+						backwardDistance[w] = backwardDistance[v] + 1;
+						backwardQueue[backwardTail++] = w;
+						if (this.SeenForward[w] == this.Search && distance[w] + backwardDistance[w] < best) {
+							best = distance[w] + backwardDistance[w];
+							meeting = w;
+						}
+					}
+				}
+			}
+		}
+		return meeting;
+	}
+
+	/**
+	 * Builds the incoming arcs of every vertex.
+	 */
+	private void buildReverse() {
+		int n = this.Forward.length;
+		this.ReverseStart = new int[n + 1];
+		this.ReverseArc = new int[this.Target.length];
+		for (int w : this.Target) {
+			this.ReverseStart[w + 1]++;
+		}
+		for (int v = 0; v < n; v++) {
+			this.ReverseStart[v + 1] += this.ReverseStart[v];
+		}
+		int[] fill = this.ReverseStart.clone();
+		for (int arc = 0; arc < this.Target.length; arc++) {
+			this.ReverseArc[fill[this.Target[arc]]++] = arc;
+		}
+		this.Backward = new int[n];
+		this.SeenBackward = new int[n];
+	}
+
+    /**
+     * Checks if two vertices lie on a common cycle, i.e. are in the same strongly connected component.
+     *
+     * @param v1 The first vertex.
+     * @param v2 The second vertex.
+     * @return true if both vertices are in the same component.
+     * @throws NoSuchElementException If one of the vertices is not part of the index.
+     */
+	public boolean isStronglyConnected(Vertex v1, Vertex v2) {
+		return this.Component[this.id(v1)] == this.Component[this.id(v2)];
+	}
+
+    /**
+     * Returns the number of strongly connected components.
+     *
+     * @return The number of components.
+     */
+	public int getComponentCount() {
+		return this.Low.length;
+	}
+
+	/**
+	 * Checks if the labels allow component to to be reachable from component from.
+	 */
+	private boolean contains(int from, int to) {
+		return to < from && this.Low[from] <= this.Low[to] && this.Post[to] < this.Post[from];
+	}
+
+	/**
+	 * Returns the target of an arc as a new vertex carrying the transition of the arc.
+	 */
+	private Vertex arcVertex(int arc, int target) {
+		return new Vertex(this.Graph.getVertex(target).State, this.Graph.getArcTransition(this.Arc[arc]));
+	}
+
+	private int id(Vertex vertex) {
+		int id = this.Graph.getId(vertex);
+		if (id < 0 || id >= this.Vertices) {
+			throw new NoSuchElementException(String.format("Vertex %s is not part of the index.", vertex));
+		}
+		return id;
+	}
+}
@@ -0,0 +1,300 @@
+package propra.model;
+
+import java.util.Arrays;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Bounds the tokens of the places of a compiled Petrinet by the state equation.
+ *
+ * Every reachable marking M satisfies M = M0 + C &middot; x for the incidence matrix C and the firing count
+ * vector x &ge; 0 of a firing sequence leading to M. Maximizing M(p) over the real solutions of
+ * M0 + C &middot; x &ge; 0, x &ge; 0 therefore gives an upper bound on the tokens of p in every reachable marking.
+ * If the linear program is unbounded, the state equation gives no bound for p, which does not mean the place
+ * is unbounded. The bound is at least as tight as the one of every P-invariant, see {@link PlaceInvariants}.
+ *
+ * The linear programs are solved by a dense simplex on the condensed tableau with one row per place and one
+ * column per transition. Since M0 &ge; 0, the slack basis is feasible and no first phase is needed, and all
+ * programs share the constraints, so each starts from the optimal basis of the one before. Pivots follow the
+ * largest coefficient and switch to Bland's rule after a run of degenerate pivots, so the simplex cannot cycle.
+ * The tableau has places times transitions entries, nets with more than {@link #MAX_CELLS} are not solved.
+ * A linear program stopped by the caller, e.g. on a timeout, gives no bound.
+ * Optima are rounded down after adding {@link #EPSILON}, so rounding errors do not cut off reachable markings.
+ */
+public class StateEquation {
+
+	/**
+	 * Largest number of tableau entries
+	 */
+	public static final long MAX_CELLS = 1 << 22;
+
+	/**
+	 * Tolerance of the floating point comparisons
+	 */
+	public static final double EPSILON = 1e-7;
+
+	/**
+	 * Number of degenerate pivots in a row after which Bland's rule is used
+	 */
+	private static final int DEGENERATE_PIVOTS = 50;
+
+	/**
+	 * The compiled net
+	 */
+	private final CompiledPetrinet Net;
+
+	/**
+	 * The initial marking
+	 */
+	private final int[] Initial;
+
+	/**
+	 * The tableau: basic variable i = Rhs[i] - sum of Tableau[i][j] * nonbasic variable j, null if the net is too large.
+	 * Variables 0 .. transitions - 1 are the firing counts, the others the tokens of the places.
+	 */
+	private final double[][] Tableau;
+	private final double[] Rhs;
+
+	/**
+	 * The basic variable of each row and the nonbasic variable of each column
+	 */
+	private final int[] Basic, Nonbasic;
+
+	/**
+	 * Row of each basic or column of each nonbasic variable, negative for columns: -1 - column
+	 */
+	private final int[] Position;
+
+	/**
+	 * The objective: value and coefficients of the nonbasic variables
+	 */
+	private double Value;
+	private final double[] Objective;
+
+	/**
+	 * Bounds computed so far, -2 if not yet computed
+	 */
+	private final long[] Bounds;
+
+	/**
+	 * Largest number of pivots per linear program
+	 */
+	private final int MaxPivots;
+
+	/**
+	 * Asked before each pivot, true to stop the simplex
+	 */
+	private final BooleanSupplier Stopped;
+
+    /**
+     * Sets up the state equation of a compiled net.
+     *
+     * @param net     The compiled Petrinet.
+     * @param initial The initial marking, without ω.
+     */
+	public StateEquation(CompiledPetrinet net, int[] initial) {
+		this(net, initial, () -> false);
+	}
+
+    /**
+     * Sets up the state equation of a compiled net, solved until asked to stop.
+     *
+     * @param net     The compiled Petrinet.
+     * @param initial The initial marking, without ω.
+     * @param stopped Returns true once the simplex is to stop.
+     */
+	public StateEquation(CompiledPetrinet net, int[] initial, BooleanSupplier stopped) {
+		this.Net = net;
+		this.Stopped = stopped;
+		this.Initial = initial.clone();
+		int places = net.getPlaceCount();
+		int transitions = net.getTransitionCount();
+		this.Bounds = new long[places];
+		Arrays.fill(this.Bounds, -2);
+		this.MaxPivots = 50 * (places + transitions) + 1000;
+		if ((long) places * transitions > MAX_CELLS) {
+			System.out.println(String.format("StateEquation - StateEquation: %d places and %d transitions exceed %d tableau entries, not solved.",
+					places, transitions, MAX_CELLS));
+			this.Tableau = null;
+			this.Rhs = null;
+			this.Basic = this.Nonbasic = this.Position = null;
+			this.Objective = null;
+			return;
+		}
+		// row q: tokens of q = M0(q) - sum of -C(q, t) * x(t)
+		this.Tableau = new double[places][transitions];
+		this.Rhs = new double[places];
+		for (int q = 0; q < places; q++) {
+			this.Rhs[q] = initial[q];
+		}
+		for (int t = 0; t < transitions; t++) {
+			for (int i = net.preStart[t]; i < net.preStart[t + 1]; i++) {
+				this.Tableau[net.prePlace[i]][t] += net.preWeight[i];
+			}
+			for (int i = net.postStart[t]; i < net.postStart[t + 1]; i++) {
+				this.Tableau[net.postPlace[i]][t] -= net.postWeight[i];
+			}
+		}
+		this.Basic = new int[places];
+		this.Nonbasic = new int[transitions];
+		this.Position = new int[places + transitions];
+		for (int t = 0; t < transitions; t++) {
+			this.Nonbasic[t] = t;
+			this.Position[t] = -1 - t;
+		}
+		for (int q = 0; q < places; q++) {
+			this.Basic[q] = transitions + q;
+			this.Position[transitions + q] = q;
+		}
+		this.Objective = new double[transitions];
+	}
+
+    /**
+     * Computes the bound of a place.
+     *
+     * @param place The dense id of the place.
+     * @return The largest number of tokens the place can hold by the state equation, -1 if it gives no bound.
+     */
+	public long getBound(int place) {
+		if (this.Bounds[place] == -2) {
+			this.Bounds[place] = this.Tableau == null ? -1 : this.maximize(place);
+		}
+		return this.Bounds[place];
+	}
+
+    /**
+     * Computes the bounds of all places.
+     *
+     * @return The largest number of tokens each place can hold, -1 for places without a bound.
+     */
+	public long[] getBounds() {
+		long[] bounds = new long[this.Bounds.length];
+		for (int p = 0; p < bounds.length; p++) {
+			bounds[p] = this.getBound(p);
+		}
+		return bounds;
+	}
+
+    /**
+     * Checks if the state equation bounds all places, i.e. the Petrinet is bounded.
+     * Only a single linear program maximizing the sum of all tokens is solved.
+     *
+     * @return true if the Petrinet has been proven bounded.
+     */
+	public boolean isBounded() {
+		if (this.Tableau == null) {
+			return false;
+		}
+		Arrays.fill(this.Objective, 0);
+		this.Value = 0;
+		for (int q = 0; q < this.Bounds.length; q++) {
+			this.addObjective(this.Net.getTransitionCount() + q, 1);
+		}
+		return this.solve();
+	}
+
+	/**
+	 * Maximizes the tokens of a place, returns the rounded down optimum or -1 if there is none.
+	 */
+	private long maximize(int place) {
+		Arrays.fill(this.Objective, 0);
+		this.Value = 0;
+		this.addObjective(this.Net.getTransitionCount() + place, 1);
+		if (!this.solve()) {
+			return -1;
+		}
+		return (long) Math.floor(this.Value + EPSILON);
+	}
+
+	/**
+	 * Adds a variable with the given coefficient to the objective, in terms of the current nonbasic variables.
+	 */
+	private void addObjective(int variable, double coefficient) {
+		int position = this.Position[variable];
+		if (position < 0) {
+			this.Objective[-1 - position] += coefficient;
+			return;
+		}
+		double[] row = this.Tableau[position];
+		this.Value += coefficient * this.Rhs[position];
+		for (int j = 0; j < row.length; j++) {
+			this.Objective[j] -= coefficient * row[j];
+		}
+	}
+
+	/**
+	 * Runs the simplex on the current objective. Returns false if it is unbounded, the pivots run out or it has been asked to stop.
+	 */
+	private boolean solve() {
+		int degenerate = 0;
+		for (int pivots = 0; pivots < this.MaxPivots; pivots++) {
+			boolean bland = degenerate >= DEGENERATE_PIVOTS;
+			int column = -1;
+			for (int j = 0; j < this.Objective.length; j++) {
+				if (this.Objective[j] > EPSILON && (column < 0
+						|| (bland ? this.Nonbasic[j] < this.Nonbasic[column] : this.Objective[j] > this.Objective[column]))) {
+					column = j;
+				}
+			}
+			if (column < 0) {
+				return true;
+			}
+			int row = -1;
+			double ratio = Double.POSITIVE_INFINITY;
+			for (int i = 0; i < this.Rhs.length; i++) {
+				double a = this.Tableau[i][column];
+				if (a > EPSILON) {
+					double r = Math.max(this.Rhs[i], 0) / a;
+					if (r < ratio - EPSILON || (r <= ratio + EPSILON && row >= 0 && this.Basic[i] < this.Basic[row])) {
+						ratio = Math.min(r, ratio);
+						row = i;
+					}
+				}
+			}
+			if (row < 0 || this.Stopped.getAsBoolean()) {
+				return false;
+			}
+			degenerate = ratio <= EPSILON ? degenerate + 1 : 0;
+			this.pivot(row, column);
+		}
+		System.out.println("StateEquation - solve: No optimum after " + this.MaxPivots + " pivots.");
+		return false;
+	}
+
+	/**
+	 * Exchanges the basic variable of a row with the nonbasic variable of a column.
+	 */
+	private void pivot(int row, int column) {
+		double[] pivotRow = this.Tableau[row];
+		double pivot = pivotRow[column];
+		for (int j = 0; j < pivotRow.length; j++) {
+			pivotRow[j] /= pivot;
+		}
+		pivotRow[column] = 1 / pivot;
+		this.Rhs[row] /= pivot;
+		for (int i = 0; i < this.Tableau.length; i++) {
+			double[] current = this.Tableau[i];
+			double factor = current[column];
+			if (i == row || factor == 0) {
+				continue;
+			}
+			for (int j = 0; j < current.length; j++) {
+				current[j] -= factor * pivotRow[j];
+			}
+			current[column] = -factor * pivotRow[column];
+			this.Rhs[i] -= factor * this.Rhs[row];
+		}
+		double factor = this.Objective[column];
+		for (int j = 0; j < this.Objective.length; j++) {
+			this.Objective[j] -= factor * pivotRow[j];
+		}
+		this.Objective[column] = -factor * pivotRow[column];
+		this.Value += factor * this.Rhs[row];
+
+		int entering = this.Nonbasic[column];
+		int leaving = this.Basic[row];
+		this.Basic[row] = entering;
+		this.Nonbasic[column] = leaving;
+		this.Position[entering] = row;
+		this.Position[leaving] = -1 - column;
+	}
+}
@@ -0,0 +1,147 @@
+package propra.model;
+
+import java.util.Arrays;
+
+/**
+ * Computes stubborn sets of a compiled Petrinet for partial-order reduction.
+ *
+ * A set S of transitions is stubborn in a marking M if
+ * <ul>
+ * <li>S contains an enabled transition,</li>
+ * <li>for every enabled t in S, all transitions consuming from or producing into an input place of t are in S, and</li>
+ * <li>for every disabled t in S, all producers of one input place p with M(p) &lt; W(p, t) are in S.</li>
+ * </ul>
+ * Then no sequence of transitions outside S can disable an enabled transition of S or enable a disabled one,
+ * and firing only the enabled transitions of S preserves all dead markings.
+ *
+ * The producers of the input places of enabled transitions are not needed for dead markings, they keep the bound
+ * of every place: if a sequence outside S raises a place, the reduced exploration either fires the sequence as well
+ * or only fires transitions of S consuming from the place, which the sequence does not touch. Without them,
+ * tokens produced outside S could be consumed by S again and again, e.g. t0 consuming from p and t1 producing
+ * into p without any input: always firing only t0 never reaches more tokens on p than initially.
+ *
+ * The closure is computed from every enabled transition as a seed and the set with the fewest enabled
+ * transitions is taken. Instances keep work buffers and must not be shared between threads.
+ */
+public class StubbornSets {
+
+	/**
+	 * The compiled net
+	 */
+	private final CompiledPetrinet Net;
+
+	/**
+	 * Transitions of the current closure, the first Size entries are used
+	 */
+	private final int[] Closure;
+
+	/**
+	 * Closure in which a transition has been added last, to avoid clearing a boolean array per seed
+	 */
+	private final int[] Mark;
+
+	/**
+	 * Number of the current closure
+	 */
+	private int Round;
+
+    /**
+     * Constructs the stubborn set computation for a compiled net.
+     *
+     * @param net The compiled Petrinet.
+     */
+	public StubbornSets(CompiledPetrinet net) {
+		this.Net = net;
+		this.Closure = new int[net.getTransitionCount()];
+		this.Mark = new int[net.getTransitionCount()];
+	}
+
+    /**
+     * Reorders the enabled transitions so that the enabled transitions of a small stubborn set come first.
+     *
+     * @param marking The current marking.
+     * @param enabled The enabled transitions in the marking, as returned by {@link CompiledPetrinet#enabled(int[], int[])}.
+     * @param count   The number of enabled transitions.
+     * @return The number of enabled transitions in the stubborn set, at least 1 if count is positive.
+     */
+	public int reduce(int[] marking, int[] enabled, int count) {
+		if (count <= 1) {
+			return count;
+		}
+		int best = -1;
+		int bestSize = count + 1;
+		for (int i = 0; i < count && bestSize > 1; i++) {
+			int size = this.closure(marking, enabled[i], bestSize);
+			if (size < bestSize) {
+				best = i;
+				bestSize = size;
+			}
+		}
+		if (bestSize >= count) {
+			return count;
+		}
+		// recompute the best closure and move its enabled transitions to the front
+		this.closure(marking, enabled[best], count + 1);
+		int front = 0;
+		for (int i = 0; i < count; i++) {
+			if (this.Mark[enabled[i]] == this.Round) {
+				int t = enabled[front];
+				enabled[front] = enabled[i];
+				enabled[i] = t;
+				front++;
+			}
+		}
+		return front;
+	}
+
+	/**
+	 * Computes the closure of a seed transition and returns its number of enabled transitions.
+	 * Stops early once the limit is reached.
+	 */
+	private int closure(int[] marking, int seed, int limit) {
+		CompiledPetrinet net = this.Net;
+		if (this.Round == Integer.MAX_VALUE) {
+			Arrays.fill(this.Mark, 0);
+			this.Round = 0;
+		}
+		this.Round++;
+		int size = 0;
+		int enabled = 0;
+		this.Closure[size++] = seed;
+		this.Mark[seed] = this.Round;
+		for (int next = 0; next < size && enabled < limit; next++) {
+			int t = this.Closure[next];
+			int scapegoat = -1;
+			for (int i = net.preStart[t]; i < net.preStart[t + 1] && scapegoat < 0; i++) {
+				if (marking[net.prePlace[i]] < net.preWeight[i]) {
+					scapegoat = net.prePlace[i];
+				}
+			}
+			if (scapegoat < 0) {
+				enabled++;
+				for (int i = net.preStart[t]; i < net.preStart[t + 1]; i++) {
+					int p = net.prePlace[i];
+					for (int j = net.consumerStart[p]; j < net.consumerStart[p + 1]; j++) {
+						size = this.add(net.consumerTransition[j], size);
+					}
+					for (int j = net.producerStart[p]; j < net.producerStart[p + 1]; j++) {
+						size = this.add(net.producerTransition[j], size);
+					}
+				}
+			} else {
+				for (int j = net.producerStart[scapegoat]; j < net.producerStart[scapegoat + 1]; j++) {
+					size = this.add(net.producerTransition[j], size);
+				}
+			}
+		}
+		return enabled;
+	}
+
+	private int add(int transition, int size) {
+		if (this.Mark[transition] != this.Round) {
+			this.Mark[transition] = this.Round;
+			this.Closure[size++] = transition;
+		}
+		return size;
+	}
+}
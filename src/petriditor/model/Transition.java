@@ -10,6 +10,11 @@ import java.util.Map;
  */
 public class Transition implements Serializable {
 	private static final long serialVersionUID = 5940391490002201945L;
+
+    /**
+     *  The identifier of the transition inside its Petrinet.
+     */
+    public String ID;
     /**
      *  The name of the transition.
      */
@@ -42,6 +47,17 @@ public class Transition implements Serializable {
 		this.Position = new Integer[2];
 	}
 
+    /**
+     * Constructs a Transition with the specified identifier and name.
+     *
+     * @param id   The identifier of the transition inside its Petrinet.
+     * @param name The name of the transition.
+     */
+	public Transition(String id, String name) {
+		this(name);
+		this.ID = id;
+	}
+
     /**
      * Checks if the transition is ready to fire. A transition is ready if all its pre-conditions (places)
      * have at least one token.
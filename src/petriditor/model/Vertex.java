@@ -1,7 +1,6 @@
 package propra.model;
 
 import java.io.Serializable;
-import java.util.LinkedList;
 
 /**
  * Represents a vertex in a graph, specifically for use in a reachability graph
@@ -15,9 +14,9 @@ public class Vertex implements Serializable {
 
     /**
      *  Represents the state of the Petri net at this vertex.
-     *  Each integer in the list represents the number of tokens in a place of the net.
+     *  Each entry of the marking represents the number of tokens in a place of the net.
      */
-    public LinkedList<Integer> State;
+    public Marking State;
 
     /**
      *  Identifies the transition used to reach this vertex/state from the previous one.
@@ -29,7 +28,7 @@ public class Vertex implements Serializable {
      *
      * @param state The state of the Petri net at this vertex.
      */
-	public Vertex(LinkedList<Integer> state) {
+	public Vertex(Marking state) {
 		this.State = state;
 	}
 
@@ -40,7 +39,7 @@ public class Vertex implements Serializable {
      * @param state   The state of the Petri net at this vertex.
      * @param fromID  The ID of the transition used to reach this state.
      */
-	public Vertex(LinkedList<Integer> state, String fromID) {
+	public Vertex(Marking state, String fromID) {
 		this.State = state;
 		this.ReachedFrom = fromID;
 	}
@@ -52,16 +51,7 @@ public class Vertex implements Serializable {
      */
     @Override
 	public String toString() {
-	    StringBuilder result = new StringBuilder("(");
-	    for (Integer number : this.State) {
-	        result.append(number).append("|");
-	    }
-	    // Remove the trailing '|' if the list isn't empty
-	    if (!this.State.isEmpty()) {
-	        result.deleteCharAt(result.length() - 1);
-	    }
-	    result.append(")");
-	    return result.toString();
+	    return this.State.toString();
     }
 
     /**
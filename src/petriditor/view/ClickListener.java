@@ -4,6 +4,11 @@ import org.graphstream.ui.view.ViewerListener;
 
 public abstract class ClickListener implements ViewerListener {
 
+	/**
+	 * false while clicks are ignored, e.g. during an analysis
+	 */
+	private boolean Enabled = true;
+
 	/**
 	 * This only implements very basic functionality to implement the ViewerListener interface.
 	 */
@@ -18,7 +23,18 @@ public abstract class ClickListener implements ViewerListener {
 	@Override
 	public void buttonPushed(String id) {
 		System.out.println("ClickListener - buttonPushed: " + id);
-		this.clickNodeInGraph(id);
+		if (this.Enabled) {
+			this.clickNodeInGraph(id);
+		}
+	}
+
+	/**
+	 * Enables or disables the handling of clicks on nodes.
+	 *
+	 * @param enabled false to ignore clicks.
+	 */
+	public void setEnabled(boolean enabled) {
+		this.Enabled = enabled;
 	}
 
 	@Override
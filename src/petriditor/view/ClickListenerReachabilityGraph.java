@@ -1,8 +1,7 @@
 package propra.view;
 
-import java.util.LinkedList;
-
 import propra.controller.Controller;
+import propra.model.Marking;
 
 /**
  * ClickListenerReachabilityGraph handles click events in a reachability graph.
@@ -34,22 +33,6 @@ public class ClickListenerReachabilityGraph extends ClickListener {
 	public void clickNodeInGraph(String id) {
 		this.ctrl.saveState();
 		System.out.println("ClickListenerRecachabilityGraph - clickNodeInGraph: Clicked Node " + id);
-		this.ctrl.setMarking(convertStateToLinkedList(id));
-	}
-
-	private static LinkedList<Integer> convertStateToLinkedList(String input) {
-		LinkedList<Integer> result = new LinkedList<>();
-		// Remove the leading '(' and trailing ')' characters
-		String content = input.substring(1, input.length() - 1);
-
-		// Split the tokens of the places using the '|' delimiter
-		String[] tokens = content.split("\\|");
-
-		// Convert tokens to integers and add to the linked list
-		for (String token : tokens) {
-			result.add(Integer.parseInt(token));
-	    }
-
-	    return result;
+		this.ctrl.setMarking(Marking.parse(id));
 	}
 }
\ No newline at end of file
@@ -40,7 +40,7 @@ public class Frame extends JFrame {
 	private JToolBar Toolbar;
 	protected ButtonGroup Buttongroup;
 	protected JMenuItem Info, Open, Undo, Redo, Close, Reload, MultipleFiles, Quit;
-	protected JButton NextFile, PrevFile, ResetGraph, DeleteGraph, Analyze;
+	protected JButton NextFile, PrevFile, ResetGraph, DeleteGraph, Analyze, Cancel;
 	protected JToggleButton AddToken, RemoveToken;
 	protected JRootPane rootPane;
 
@@ -65,6 +65,7 @@ public class Frame extends JFrame {
 	protected static final String RESETGRAPH = "Reset Petrinet";
 	protected static final String DELETEGRAPH = "Delete Reachability Graph";
 	protected static final String ANALYZE = "Analyze Reachability";
+	protected static final String CANCEL = "Cancel Analysis";
 
 
     /**
@@ -117,6 +118,8 @@ public class Frame extends JFrame {
 		this.ResetGraph = new JButton(RESETGRAPH, new ImageIcon("resources/icons/reset.png"));
 		this.DeleteGraph = new JButton(DELETEGRAPH, new ImageIcon("resources/icons/delete.png"));
 		this.Analyze = new JButton(ANALYZE, new ImageIcon("resources/icons/analyze.png"));
+		this.Cancel = new JButton(CANCEL, new ImageIcon("resources/icons/close.png"));
+		this.Cancel.setEnabled(false);
 
 		this.Toolbar.add(this.PrevFile);
 		this.Toolbar.add(this.NextFile);
@@ -132,6 +135,7 @@ public class Frame extends JFrame {
 		this.Toolbar.add(this.ResetGraph);
 		this.Toolbar.add(this.DeleteGraph);
 		this.Toolbar.add(this.Analyze);
+		this.Toolbar.add(this.Cancel);
 
 		// set RootPane for keyboard shortcuts
         this.rootPane = getRootPane();
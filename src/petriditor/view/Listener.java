@@ -15,14 +15,20 @@ import java.util.Formatter;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import javax.swing.JDialog;
 import javax.swing.JFileChooser;
 import javax.swing.JOptionPane;
 import javax.swing.JScrollPane;
 import javax.swing.JTextArea;
+import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
 import javax.swing.filechooser.FileNameExtensionFilter;
 
+import propra.controller.AnalysisResult;
 import propra.controller.Controller;
 
 /**
@@ -37,6 +43,11 @@ public class Listener implements ActionListener, ItemListener {
 	private String Path;
 	private LinkedList<File> files;
 
+	/**
+	 * true once the running batch is to stop before its next file
+	 */
+	private volatile boolean BatchCancelled;
+
     /**
      * Constructor for the Listener class.
      *
@@ -65,6 +76,7 @@ public class Listener implements ActionListener, ItemListener {
 		this.Frame.ResetGraph.addActionListener(this);
 		this.Frame.DeleteGraph.addActionListener(this);
 		this.Frame.Analyze.addActionListener(this);
+		this.Frame.Cancel.addActionListener(this);
 
 		// set Item Listener for Toggle Buttons
 		this.Frame.AddToken.addItemListener(this);
@@ -178,74 +190,23 @@ public class Listener implements ActionListener, ItemListener {
 		        }
 		        Collections.sort(files);
 		        this.Frame.printMessage(String.format("Processing %d files...", selectedFiles.length));
-		        try (Formatter formatter = new Formatter()) {
-					int widthFilename = 66;
-					int widthBounded = 10;
-					int widthPath = 35;
-					int widthState = 15;
-					String template = "%-" + widthFilename + "s | %-" + widthBounded + "s | %-" + widthPath + "s %-" + widthState + "s %-" + widthState + "s%n";
-					formatter.format("Done.\n", "");
-					formatter.format(template, "", "", "Nodes / Edges", "", "");
-					formatter.format(template, "Filename", "bounded", "Path length; m, m'", "", "");
-					formatter.format("-".repeat(widthFilename + 1) + "|" + "-".repeat(widthBounded + 2) + "|" + "-".repeat(widthPath + 2*widthState) + "\n");
-					counter = 1;
-					for (File file : files) {
-						try {
-							String[] result = this.ctrl.analyzeFile(file);
-							formatter.format(template, result[0], result[1], result[2], result[3], result[4]);
-						} catch (NoSuchElementException err) {
-							this.Frame.printMessage(String.format("File %d: Error while loading file %s. %s Ignoring file, check terminal for debug info.", counter, file.getName(), err.getMessage()));
-						}
-						counter++;
-					}
-					this.Frame.printMessage(formatter.toString());
-				}
+		        this.runAnalysis(() -> this.analyzeFiles(files), this.Frame::printMessage);
 		    }
 		}
 
 		if (propra.view.Frame.ANALYZE.equals(e.getActionCommand())) {
 			this.ctrl.saveState();
-			try {
-				String[] result = this.ctrl.analyzeFile(this.SelectedFile);
-				String isBoundedString;
-				Boolean bounded;
-				if (result[1].equals("Yes")) {
-					isBoundedString = "bounded";
-					bounded = true;
-				} else {
-					isBoundedString = "not bounded";
-					bounded = false;
-				}
-
-		        JDialog InfoDialog = new JDialog();
-		        int h = 100;
-		        int w = 500;
-		        InfoDialog.setSize(w,h);
-		        InfoDialog.setBounds((this.Frame.getLocation().x + this.Frame.getWidth()/2) - w/2 ,
-		        		(this.Frame.getLocation().y + this.Frame.getHeight()/2) - h/2, w, h);
-		        InfoDialog.setModal(true);
-		        InfoDialog.getContentPane().setBackground(Color.LIGHT_GRAY);
-
-		        JTextArea textArea = new JTextArea(String.format("The reachability graph is %s.", isBoundedString));
-
-		        textArea.setMargin(new Insets(20, 20, 20, 20));
-		        textArea.setEditable(false);
-
-		        InfoDialog.add(textArea);
-		        InfoDialog.pack();
-		        InfoDialog.setVisible(true);
-
-		        String message;
-		        if (bounded) {
-		        	message = String.format("[Nodes / Edges]: %s", result[2]);
-		        } else {
-		        	message = String.format("# Nodes:(Path): %s \t m, m': %s %s", result[2], result[3], result[4]);
-		        }
+			File file = this.SelectedFile;
+			this.runAnalysis(() -> this.ctrl.analyzeFile(file), result -> {
+				this.ctrl.showAnalysis(result);
+				this.showResult(result);
+			});
+		}
 
-		        this.Frame.printMessage(String.format("The reachability graph is %s. %s", isBoundedString, message));
-			} catch (NoSuchElementException err) {
-            	this.Frame.printMessage("Error: " + err.getMessage());
-			}
+		if (propra.view.Frame.CANCEL.equals(e.getActionCommand())) {
+			this.BatchCancelled = true;
+			this.ctrl.cancelAnalysis();
+			this.Frame.printMessage("Cancelling the analysis...");
 		}
 
 		if (propra.view.Frame.CLOSE.equals(e.getActionCommand())) {
@@ -326,6 +287,158 @@ public class Listener implements ActionListener, ItemListener {
 		}
 	}
 
+    /**
+     * Analyzes the given files one after the other, as a batch run.
+     * Once cancelled, the running file reports "limit reached" and the files after it are skipped.
+     *
+     * @param files The PNML files to be analyzed.
+     * @return The result table of all files.
+     */
+	private String analyzeFiles(List<File> files) {
+		try (Formatter formatter = new Formatter()) {
+			int widthFilename = 66;
+			int widthBounded = 10;
+			int widthPath = 35;
+			int widthState = 15;
+			int widthProperty = 6;
+			String template = "%-" + widthFilename + "s | %-" + widthBounded + "s | %-" + widthPath + "s %-" + widthState + "s %-" + widthState
+					+ "s | %-" + widthProperty + "s %-" + widthProperty + "s%n";
+			formatter.format("Done.\n", "");
+			formatter.format(template, "", "", "Nodes / Edges", "", "", "", "");
+			formatter.format(template, "Filename", "bounded", "Path length; m, m'", "", "", "k", "dead");
+			formatter.format("-".repeat(widthFilename + 1) + "|" + "-".repeat(widthBounded + 2) + "|" + "-".repeat(widthPath + 2*widthState + 1)
+					+ "|" + "-".repeat(2*widthProperty + 2) + "\n");
+			int counter = 1;
+			for (File file : files) {
+				if (this.BatchCancelled) {
+					formatter.format("Cancelled, %d of %d files not analyzed.%n", files.size() - counter + 1, files.size());
+					break;
+				}
+				try {
+					AnalysisResult result = this.ctrl.analyzeFile(file, true);
+					String[] row = result.toRow();
+					// bounds and dead markings only if they hold for the whole state space
+					String bound = result.Exact ? String.valueOf(result.Properties.getBound()) : "-";
+					String dead = result.Exact ? String.valueOf(result.Properties.getDeadCount()) : "-";
+					formatter.format(template, row[0], row[1], row[2], row[3], row[4], bound, dead);
+				} catch (NoSuchElementException err) {
+					String message = String.format("File %d: Error while loading file %s. %s Ignoring file, check terminal for debug info.", counter, file.getName(), err.getMessage());
+					SwingUtilities.invokeLater(() -> this.Frame.printMessage(message));
+				}
+				counter++;
+			}
+			return formatter.toString();
+		}
+	}
+
+    /**
+     * Shows the result of analyzing the selected file in a dialog and prints it to the text area.
+     *
+     * @param result The result of the analysis.
+     */
+	private void showResult(AnalysisResult result) {
+		String[] row = result.toRow();
+		String isBoundedString;
+		Boolean bounded;
+		if (result.Bounded == AnalysisResult.Verdict.BOUNDED) {
+			isBoundedString = "bounded";
+			bounded = true;
+		} else if (result.Bounded == AnalysisResult.Verdict.UNKNOWN && result.LimitReached == null) {
+			isBoundedString = "not known, the approximate search has found no witness";
+			bounded = true;
+		} else if (result.Bounded == AnalysisResult.Verdict.UNKNOWN) {
+			isBoundedString = "not known, the analysis has been stopped";
+			bounded = true;
+		} else {
+			isBoundedString = "not bounded";
+			bounded = false;
+		}
+
+        JDialog InfoDialog = new JDialog();
+        int h = 100;
+        int w = 500;
+        InfoDialog.setSize(w,h);
+        InfoDialog.setBounds((this.Frame.getLocation().x + this.Frame.getWidth()/2) - w/2 ,
+        		(this.Frame.getLocation().y + this.Frame.getHeight()/2) - h/2, w, h);
+        InfoDialog.setModal(true);
+        InfoDialog.getContentPane().setBackground(Color.LIGHT_GRAY);
+
+        JTextArea textArea = new JTextArea(String.format("The reachability graph is %s.", isBoundedString));
+
+        textArea.setMargin(new Insets(20, 20, 20, 20));
+        textArea.setEditable(false);
+
+        InfoDialog.add(textArea);
+        InfoDialog.pack();
+        InfoDialog.setVisible(true);
+
+        String message;
+        if (bounded) {
+        	message = String.format("[Nodes / Edges]: %s", row[2]);
+        } else {
+        	message = String.format("# Nodes:(Path): %s \t m, m': %s %s", row[2], row[3], row[4]);
+        }
+
+        this.Frame.printMessage(String.format("The reachability graph is %s. %s", isBoundedString, message));
+        if (result.Properties != null) {
+        	this.Frame.printMessage(String.format("%s: %s", result.Exact ? "Properties" : "Properties of the explored markings", result.Properties));
+        }
+	}
+
+    /**
+     * Runs an analysis off the event dispatch thread, so the GUI stays responsive and the analysis can be
+     * cancelled, see {@link Controller#cancelAnalysis()}. No other file can be loaded or analyzed and the Petrinet
+     * cannot be changed until it has finished.
+     *
+     * @param analysis The analysis to run.
+     * @param done     Receives the result of the analysis on the event dispatch thread.
+     */
+	private <T> void runAnalysis(Supplier<T> analysis, Consumer<T> done) {
+		this.BatchCancelled = false;
+		this.setAnalysisRunning(true);
+		new SwingWorker<T, Void>() {
+			@Override
+			protected T doInBackground() {
+				return analysis.get();
+			}
+
+			@Override
+			protected void done() {
+				Listener.this.setAnalysisRunning(false);
+				try {
+					done.accept(this.get());
+				} catch (ExecutionException err) {
+					Listener.this.Frame.printMessage("Error: " + err.getCause().getMessage());
+				} catch (InterruptedException err) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		}.execute();
+	}
+
+	private void setAnalysisRunning(boolean running) {
+		this.Frame.Analyze.setEnabled(!running);
+		this.Frame.MultipleFiles.setEnabled(!running);
+		this.Frame.Open.setEnabled(!running);
+		this.Frame.Reload.setEnabled(!running);
+		this.Frame.Close.setEnabled(!running);
+		this.Frame.NextFile.setEnabled(!running);
+		this.Frame.PrevFile.setEnabled(!running);
+		this.Frame.Undo.setEnabled(!running);
+		this.Frame.Redo.setEnabled(!running);
+		this.Frame.ResetGraph.setEnabled(!running);
+		this.Frame.DeleteGraph.setEnabled(!running);
+		this.Frame.AddToken.setEnabled(!running);
+		this.Frame.RemoveToken.setEnabled(!running);
+		if (this.ctrl.ClickListenerPG != null) {
+			this.ctrl.ClickListenerPG.setEnabled(!running);
+		}
+		if (this.ctrl.ClickListenerRG != null) {
+			this.ctrl.ClickListenerRG.setEnabled(!running);
+		}
+		this.Frame.Cancel.setEnabled(running);
+	}
+
 	private JFileChooser getFileChooser() {
 	    JFileChooser fileChooser = new JFileChooser();
 	    fileChooser.setCurrentDirectory(new File(this.Path));
@@ -0,0 +1,111 @@
+package propra.analysis;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.junit.jupiter.api.Test;
+
+import propra.model.Petrinet;
+import propra.pnml.pnmlReader;
+
+/**
+ * Tests the boundedness verdict of the sequential explorer with and without partial-order reduction,
+ * and that the reduction preserves the verdict, the token bounds and the dead markings of the sample nets.
+ */
+public class StateSpaceExplorerTest {
+
+	/**
+	 * t0 consumes from p2, t1 has no input and produces into p2, p2 starts with 2 tokens
+	 */
+	private static Petrinet consumerAndSource() {
+		Petrinet net = new Petrinet();
+		net.addPlace("p2", 2, "p2");
+		net.addTransition("t0");
+		net.addTransition("t1");
+		net.addArc("a1", "p2", "t0");
+		net.addArc("a2", "t1", "p2");
+		net.InitialPlace = net.Places.get("p2");
+		net.setInitialMarking();
+		return net;
+	}
+
+	/**
+	 * The sample nets shipped with the application, read relative to the project directory
+	 */
+	private static File[] sampleNets() {
+		File[] files = new File("resources/petrinets").listFiles((directory, name) -> name.endsWith(".pnml"));
+		assertTrue(files != null && files.length > 0, "No sample nets found in resources/petrinets.");
+		Arrays.sort(files);
+		return files;
+	}
+
+	private static Petrinet read(File file) {
+		pnmlReader parser = new pnmlReader(file);
+		parser.initParser();
+		return parser.parsePNML();
+	}
+
+	private static ExplorationResult explore(Petrinet net, boolean reduction) {
+		StateSpaceExplorer explorer = new StateSpaceExplorer(net.compile(), net.getMarking());
+		explorer.setReduction(reduction);
+		return explorer.explore();
+	}
+
+	@Test
+	public void findsUnboundedWithoutReduction() {
+		ExplorationResult result = explore(consumerAndSource(), false);
+		assertFalse(result.Bounded);
+		assertTrue(result.MDash.strictlyCovers(result.M));
+	}
+
+	@Test
+	public void findsUnboundedWithReduction() {
+		// the stubborn set {t0} must not hide t1, which raises p2 beyond its initial tokens
+		ExplorationResult result = explore(consumerAndSource(), true);
+		assertFalse(result.Bounded);
+		assertTrue(result.MDash.strictlyCovers(result.M));
+	}
+
+	@Test
+	public void reductionPreservesVerdict() {
+		for (File file : sampleNets()) {
+			Petrinet net = read(file);
+			ExplorationResult full = explore(net, false);
+			ExplorationResult reduced = explore(net, true);
+			assertTrue(full.isComplete() && reduced.isComplete(), file.getName());
+			assertEquals(full.Bounded, reduced.Bounded, file.getName());
+			if (!reduced.Bounded) {
+				assertTrue(reduced.MDash.strictlyCovers(reduced.M), file.getName());
+			}
+		}
+	}
+
+	@Test
+	public void reductionPreservesBoundsAndDeadMarkings() {
+		int compared = 0;
+		for (File file : sampleNets()) {
+			Petrinet net = read(file);
+			ExplorationResult full = explore(net, false);
+			if (!full.Bounded) {
+				continue;
+			}
+			StateProperties expected = full.Properties;
+			StateProperties actual = explore(net, true).Properties;
+			for (int p = 0; p < net.compile().getPlaceCount(); p++) {
+				assertEquals(expected.getMaxTokens(p), actual.getMaxTokens(p), file.getName() + " place " + p);
+			}
+			assertEquals(expected.getDeadCount(), actual.getDeadCount(), file.getName());
+			// the examples are the first ones found, which differ between the runs once they are cut off
+			if (expected.getDeadCount() <= StateProperties.MAX_DEAD_MARKINGS) {
+				assertEquals(new HashSet<>(expected.getDeadMarkings()), new HashSet<>(actual.getDeadMarkings()), file.getName());
+			}
+			compared++;
+		}
+		assertTrue(compared > 0, "No bounded sample net found.");
+	}
+}